@@ -0,0 +1,44 @@
+package com.nousware.config;
+
+import com.nousware.service.CatalogCache;
+import com.nousware.service.CatalogInvalidationBus;
+import com.nousware.service.RedisCatalogInvalidationBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Picks how catalog cache invalidations reach other nodes.
+ * Default is none (single node); set app.catalog.cache.redis.enabled=true to broadcast over Redis pub/sub.
+ */
+@Configuration(proxyBeanMethods = false)
+public class CatalogCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.catalog.cache.redis.enabled", havingValue = "false", matchIfMissing = true)
+    public CatalogInvalidationBus localCatalogInvalidationBus() {
+        return CatalogInvalidationBus.NONE;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.catalog.cache.redis.enabled", havingValue = "true")
+    public RedisCatalogInvalidationBus redisCatalogInvalidationBus(StringRedisTemplate redis) {
+        return new RedisCatalogInvalidationBus(redis);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.catalog.cache.redis.enabled", havingValue = "true")
+    public RedisMessageListenerContainer catalogInvalidationListener(RedisConnectionFactory connections,
+                                                                     RedisCatalogInvalidationBus bus,
+                                                                     CatalogCache cache) {
+        bus.onReceive(cache::evictLocal);
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connections);
+        container.addMessageListener(bus, new ChannelTopic(RedisCatalogInvalidationBus.CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,47 @@
+package com.nousware.config;
+
+import com.nousware.service.ContactDedupeStore;
+import com.nousware.service.RedisContactDedupeStore;
+import com.nousware.service.TimeBucketedDedupeStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Picks the admin contact-notification dedupe store.
+ * Default is per-node memory; set app.contact.dedupe.redis.enabled=true to share it across nodes.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ContactDedupeConfig {
+
+    @Value("${app.contact.dedupe.window-minutes:15}")
+    private long windowMinutes;
+
+    @Bean
+    @ConditionalOnProperty(name = "app.contact.dedupe.redis.enabled", havingValue = "false", matchIfMissing = true)
+    public ContactDedupeStore inMemoryContactDedupeStore(
+            @Value("${app.contact.dedupe.bucket-capacity:1024}") int bucketCapacity,
+            MeterRegistry meters) {
+        TimeBucketedDedupeStore store = new TimeBucketedDedupeStore(
+                Duration.ofMinutes(windowMinutes).toMillis(),
+                Duration.ofMinutes(1).toMillis(),
+                bucketCapacity,
+                System::currentTimeMillis);
+        FunctionCounter.builder("contact.dedupe.overflow", store, TimeBucketedDedupeStore::overflowCount)
+                .description("Contact submissions that evicted another from a full dedupe bucket")
+                .register(meters);
+        return store;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.contact.dedupe.redis.enabled", havingValue = "true")
+    public ContactDedupeStore redisContactDedupeStore(StringRedisTemplate redis) {
+        return new RedisContactDedupeStore(redis, Duration.ofMinutes(windowMinutes));
+    }
+}
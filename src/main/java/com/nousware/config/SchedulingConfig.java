@@ -0,0 +1,12 @@
+package com.nousware.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (email outbox dispatcher, etc.).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
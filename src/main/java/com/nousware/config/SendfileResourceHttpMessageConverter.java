@@ -0,0 +1,64 @@
+package com.nousware.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Hands large file bodies to Tomcat's sendfile instead of copying them through the JVM.
+ * Tomcat advertises support per request (NIO/NIO2 connector, plain HTTP/1.1 response); the body is
+ * then written by the connector with FileChannel.transferTo after the response is committed.
+ * Anything else (small files, ranges, non-file resources, other containers) streams as usual.
+ */
+class SendfileResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+    private static final String SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String START = "org.apache.tomcat.sendfile.start";
+    private static final String END = "org.apache.tomcat.sendfile.end";
+
+    private final long minBytes;
+
+    SendfileResourceHttpMessageConverter(long minBytes) {
+        this.minBytes = minBytes;
+    }
+
+    @Override
+    protected void writeContent(Resource resource, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        HttpServletRequest request = currentRequest();
+        if (request != null && Boolean.TRUE.equals(request.getAttribute(SUPPORT))) {
+            File file = fileOf(resource);
+            if (file != null && file.length() >= minBytes) {
+                request.setAttribute(FILENAME, file.getAbsolutePath());
+                request.setAttribute(START, 0L);
+                request.setAttribute(END, file.length());
+                return; // Content-Length is already set; the connector writes the body
+            }
+        }
+        super.writeContent(resource, outputMessage);
+    }
+
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        return attrs instanceof ServletRequestAttributes sra ? sra.getRequest() : null;
+    }
+
+    /** The file behind the resource (also for precompressed .gz/.br variants), or null. */
+    private static File fileOf(Resource resource) {
+        try {
+            File file = resource.getFile();
+            return file.isFile() ? file : null;
+        } catch (IOException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
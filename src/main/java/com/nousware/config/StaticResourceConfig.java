@@ -1,24 +1,94 @@
-// src/main/java/com/nousware/config/StaticResourceConfig.java
 package com.nousware.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
 
+import java.io.IOException;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Serves /uploads/** from the upload directory.
+ * <ul>
+ *   <li>media/ (content-addressed) and avatars/ (one folder per upload version) never change in
+ *       place, so they are cacheable for a year with {@code immutable}; everything else must
+ *       revalidate.</li>
+ *   <li>ETag (mtime-size) and Last-Modified answer revalidations with 304; Range requests get 206.</li>
+ *   <li>A precompressed sibling ({@code .br}/{@code .gz}) is served when the client accepts it.</li>
+ *   <li>Large bodies go out through Tomcat sendfile (zero-copy).</li>
+ * </ul>
+ * Only for the local BlobStore; with S3 storage /uploads/** redirects to the bucket instead.
+ */
 @Configuration
-public class StaticResourceConfig implements WebMvcConfigurer {
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+public class StaticResourceConfig {
 
     @Value("${app.upload.base-dir:uploads}")
     private String baseDir;
 
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Map /uploads/** -> file:{absolute path to uploads}/
-        String location = "file:" + Paths.get(baseDir).toAbsolutePath().toString() + "/";
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations(location);
+    @Value("${app.upload.serve.sendfile-min-bytes:49152}")
+    private long sendfileMinBytes;
+
+    @Value("${app.upload.serve.immutable-max-age-days:365}")
+    private long immutableMaxAgeDays;
+
+    @Bean
+    public ResourceHttpRequestHandler uploadMediaHandler() {
+        return handler("media/", immutable());
+    }
+
+    @Bean
+    public ResourceHttpRequestHandler uploadAvatarHandler() {
+        return handler("avatars/", immutable());
+    }
+
+    @Bean
+    public ResourceHttpRequestHandler uploadOtherHandler() {
+        return handler("", CacheControl.noCache().cachePublic());
+    }
+
+    /** Ahead of Spring's default resource mapping (which would otherwise claim /**). */
+    @Bean
+    public SimpleUrlHandlerMapping uploadHandlerMapping() {
+        SimpleUrlHandlerMapping mapping = new SimpleUrlHandlerMapping(Map.of(
+                "/uploads/media/**", uploadMediaHandler(),
+                "/uploads/avatars/**", uploadAvatarHandler(),
+                "/uploads/**", uploadOtherHandler()));
+        mapping.setOrder(Ordered.LOWEST_PRECEDENCE - 2);
+        return mapping;
+    }
+
+    private CacheControl immutable() {
+        return CacheControl.maxAge(Duration.ofDays(immutableMaxAgeDays)).cachePublic().immutable();
+    }
+
+    private ResourceHttpRequestHandler handler(String subdir, CacheControl cacheControl) {
+        ResourceHttpRequestHandler h = new ResourceHttpRequestHandler();
+        h.setLocationValues(List.of("file:" + Paths.get(baseDir).toAbsolutePath().normalize() + "/" + subdir));
+        h.setResourceResolvers(List.of(new EncodedResourceResolver(), new PathResourceResolver()));
+        h.setCacheControl(cacheControl);
+        h.setEtagGenerator(StaticResourceConfig::etag);
+        h.setResourceHttpMessageConverter(new SendfileResourceHttpMessageConverter(sendfileMinBytes));
+        return h;
+    }
+
+    /** Like nginx: last-modified and length in hex; differs per encoded variant. */
+    static String etag(Resource resource) {
+        try {
+            return Long.toHexString(resource.lastModified()) + "-" + Long.toHexString(resource.contentLength());
+        } catch (IOException e) {
+            return null;
+        }
     }
 }
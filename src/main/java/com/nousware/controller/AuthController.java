@@ -4,6 +4,8 @@ import com.nousware.dto.LoginRequest;
 import com.nousware.dto.RegistrationRequest;
 import com.nousware.entities.Role;
 import com.nousware.entities.User;
+import com.nousware.security.AuthenticatedUser;
+import com.nousware.service.RoleCatalog;
 import com.nousware.service.UserService;
 import com.nousware.service.UserService.VerifyResult; // ⬅️ make sure VerifyResult is exposed by the interface
 import jakarta.servlet.http.HttpServletRequest;
@@ -32,7 +34,6 @@ import org.springframework.web.util.UriComponentsBuilder;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,14 +45,17 @@ public class AuthController {
 
     private final UserService userService;
     private final AuthenticationManager authenticationManager;
+    private final RoleCatalog roleCatalog;
 
     // Frontend base URL to redirect to after verification (set in application.yml)
     @Value("${app.frontend-url:http://localhost:3000}")
     private String frontendUrl;
 
-    public AuthController(UserService userService, AuthenticationManager authenticationManager) {
+    public AuthController(UserService userService, AuthenticationManager authenticationManager,
+                          RoleCatalog roleCatalog) {
         this.userService = userService;
         this.authenticationManager = authenticationManager;
+        this.roleCatalog = roleCatalog;
     }
 
     // ---------- Registration / Verification ----------
@@ -130,7 +134,9 @@ public class AuthController {
                             httpRes
                     );
 
-            userService.markLoginSuccess(request.getEmail());
+            if (auth.getPrincipal() instanceof AuthenticatedUser principal) {
+                userService.markLoginSuccess(principal.getUserId());
+            }
             return ResponseEntity.noContent().build();
 
         } catch (DisabledException e) {
@@ -187,8 +193,8 @@ public class AuthController {
 
             // roles: prefer entity; else authorities
             List<String> roles = (u != null)
-                    ? normalizeAndSortRoles(roleNames(u.getRoles()))
-                    : normalizeAndSortRoles(authorityNames(oAuth2User.getAuthorities()));
+                    ? roleCatalog.codes(u.getRoles())
+                    : roleCatalog.codes(roleCatalog.maskOfCodes(authorityNames(oAuth2User.getAuthorities())));
 
             Map<String, Object> out = new LinkedHashMap<>();
             out.put("authenticated", true);
@@ -205,7 +211,7 @@ public class AuthController {
                 if (email != null) out.put("email", email);
             }
 
-            out.put("role", topRole(roles)); // ADMIN if present
+            out.put("role", RoleCatalog.topRole(roles)); // ADMIN if present
             out.put("roles", roles);
 
             if (avatar  != null) out.put("avatar", avatar);
@@ -224,9 +230,9 @@ public class AuthController {
                     : ((picture != null && !picture.isBlank()) ? picture : null);
 
             // roles: prefer entity; fallback to principal authorities
-            List<String> roles = normalizeAndSortRoles(roleNames(u.getRoles()));
+            List<String> roles = roleCatalog.codes(u.getRoles());
             if (roles.isEmpty()) {
-                roles = normalizeAndSortRoles(authorityNames(springUser.getAuthorities()));
+                roles = roleCatalog.codes(roleCatalog.maskOfCodes(authorityNames(springUser.getAuthorities())));
             }
 
             Map<String, Object> out = new LinkedHashMap<>();
@@ -239,7 +245,7 @@ public class AuthController {
                 out.put("lastName", u.getLastName());
             }
 
-            out.put("role", topRole(roles)); // ADMIN if present
+            out.put("role", RoleCatalog.topRole(roles)); // ADMIN if present
             out.put("roles", roles);
 
             if (avatar  != null) out.put("avatar", avatar);
@@ -345,15 +351,6 @@ public class AuthController {
         return new String[]{first, last};
     }
 
-    /** Convert entity roles to raw role-name list (may include ROLE_ prefix in some setups). */
-    private List<String> roleNames(List<Role> roles) {
-        if (roles == null) return List.of();
-        return roles.stream()
-                .filter(r -> r != null && r.getRoleName() != null)
-                .map(Role::getRoleName)
-                .collect(Collectors.toList());
-    }
-
     /** Convert authorities to raw role-name list. */
     private List<String> authorityNames(Collection<? extends GrantedAuthority> authorities) {
         if (authorities == null) return List.of();
@@ -361,30 +358,4 @@ public class AuthController {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList());
     }
-
-    /** Normalize a single role: strip ROLE_ prefix, uppercase. */
-    private String normalizeRole(String role) {
-        if (role == null) return null;
-        String s = role.trim().toUpperCase();
-        if (s.startsWith("ROLE_")) s = s.substring(5);
-        return s;
-    }
-
-    /** Normalize and sort roles with ADMIN first, then alphabetically. */
-    private List<String> normalizeAndSortRoles(List<String> raw) {
-        return raw.stream()
-                .map(this::normalizeRole)
-                .filter(s -> s != null && !s.isBlank())
-                .distinct()
-                .sorted(Comparator.comparing((String r) -> !r.equals("ADMIN")) // ADMIN -> false -> first
-                        .thenComparing(Comparator.naturalOrder()))
-                .collect(Collectors.toList());
-    }
-
-    /** Choose top role: ADMIN if present; else first; else CLIENT. */
-    private String topRole(List<String> roles) {
-        if (roles == null || roles.isEmpty()) return "CLIENT";
-        if (roles.stream().anyMatch(r -> "ADMIN".equalsIgnoreCase(r))) return "ADMIN";
-        return roles.get(0);
-    }
 }
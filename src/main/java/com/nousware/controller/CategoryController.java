@@ -1,14 +1,19 @@
 package com.nousware.controller;
 
 import com.nousware.entities.Category;
+import com.nousware.service.CatalogCache;
+import com.nousware.service.CatalogJsonCache;
 import com.nousware.service.CategoryItemService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -17,9 +22,11 @@ import java.util.Map;
 public class CategoryController {
 
     private final CategoryItemService service;
+    private final CatalogJsonCache json;
 
-    public CategoryController(CategoryItemService service) {
+    public CategoryController(CategoryItemService service, CatalogJsonCache json) {
         this.service = service;
+        this.json = json;
     }
 
     // Create — ADMIN only
@@ -39,13 +46,16 @@ public class CategoryController {
         return ResponseEntity.ok(service.get(id));
     }
 
-    // List/search — public (?q=keyword) with pagination
+    // List/search — public (?q=keyword) with pagination; cached JSON bytes with ETag/gzip
     @GetMapping
-    public ResponseEntity<Page<Category>> list(
+    public void list(
             @RequestParam(required = false) String q,
-            Pageable pageable
-    ) {
-        return ResponseEntity.ok(service.list(q, pageable));
+            Pageable pageable,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        json.render(CatalogCache.Segment.CATEGORIES, Arrays.asList("list", q, pageable),
+                () -> service.list(q, pageable)).writeTo(request, response);
     }
 
     // Update — ADMIN only
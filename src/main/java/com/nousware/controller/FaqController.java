@@ -1,14 +1,19 @@
 package com.nousware.controller;
 
 import com.nousware.entities.Faq;
+import com.nousware.service.CatalogCache;
+import com.nousware.service.CatalogJsonCache;
 import com.nousware.service.FaqService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -17,7 +22,12 @@ import java.util.Map;
 public class FaqController {
 
     private final FaqService service;
-    public FaqController(FaqService service) { this.service = service; }
+    private final CatalogJsonCache json;
+
+    public FaqController(FaqService service, CatalogJsonCache json) {
+        this.service = service;
+        this.json = json;
+    }
 
     // Create — ADMIN only
     @PreAuthorize("hasRole('ADMIN')")
@@ -38,8 +48,10 @@ public class FaqController {
 
     // List/search — public (?q=keyword) with pagination
     @GetMapping
-    public ResponseEntity<Page<Faq>> list(@RequestParam(required = false) String q, Pageable pageable) {
-        return ResponseEntity.ok(service.list(q, pageable));
+    public void list(@RequestParam(required = false) String q, Pageable pageable,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        json.render(CatalogCache.Segment.FAQS, Arrays.asList("list", q, pageable),
+                () -> service.list(q, pageable)).writeTo(request, response);
     }
 
     // Update — ADMIN only
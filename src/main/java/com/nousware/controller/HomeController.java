@@ -0,0 +1,56 @@
+package com.nousware.controller;
+
+import com.nousware.dto.HomeBundle;
+import com.nousware.dto.ServiceFilter;
+import com.nousware.service.CatalogCache;
+import com.nousware.service.CatalogJsonCache;
+import com.nousware.service.CategoryItemService;
+import com.nousware.service.FaqService;
+import com.nousware.service.ServiceItemService;
+import com.nousware.service.TestimonialService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PagedModel;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/home")
+public class HomeController {
+
+    private final ServiceItemService services;
+    private final CategoryItemService categories;
+    private final FaqService faqs;
+    private final TestimonialService testimonials;
+    private final CatalogJsonCache json;
+    private final Pageable firstPage;
+
+    public HomeController(ServiceItemService services, CategoryItemService categories, FaqService faqs,
+                          TestimonialService testimonials, CatalogJsonCache json,
+                          @Value("${app.home.page-size:20}") int pageSize) {
+        this.services = services;
+        this.categories = categories;
+        this.faqs = faqs;
+        this.testimonials = testimonials;
+        this.json = json;
+        this.firstPage = PageRequest.of(0, pageSize);
+    }
+
+    // Landing-page bundle — public; one cached JSON/gzip payload with one ETag, re-rendered after catalog writes
+    @GetMapping
+    public void home(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        json.render(CatalogCache.Segment.HOME, List.of("home"), () -> new HomeBundle(
+                new PagedModel<>(services.list(new ServiceFilter(null, null, null), firstPage)),
+                new PagedModel<>(categories.list(null, firstPage)),
+                new PagedModel<>(faqs.list(null, firstPage)),
+                new PagedModel<>(testimonials.listView(null, true, firstPage))
+        )).writeTo(request, response);
+    }
+}
@@ -0,0 +1,59 @@
+package com.nousware.controller;
+
+import com.nousware.dto.MailCampaignCreateRequest;
+import com.nousware.entities.MailCampaign;
+import com.nousware.service.MailCampaignService;
+import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** Admin: bulk announcement emails to all verified users. */
+@RestController
+@RequestMapping("/api/campaigns")
+@PreAuthorize("hasRole('ADMIN')")
+public class MailCampaignController {
+
+    private final MailCampaignService service;
+
+    public MailCampaignController(MailCampaignService service) {
+        this.service = service;
+    }
+
+    // Queue a campaign; sending happens in the background (progress at /actuator/mailcampaigns)
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> create(@Valid @RequestBody MailCampaignCreateRequest body,
+                                                      Authentication auth) {
+        MailCampaign created = service.create(body.subject, body.html, auth == null ? null : auth.getName());
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("message", "Campaign queued");
+        resp.put("campaign", created);
+        return ResponseEntity.status(202).body(resp);
+    }
+
+    @GetMapping
+    public ResponseEntity<Page<MailCampaign>> list(Pageable pageable) {
+        return ResponseEntity.ok(service.list(pageable));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<MailCampaign> get(@PathVariable Integer id) {
+        return ResponseEntity.ok(service.get(id));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<MailCampaign> cancel(@PathVariable Integer id) {
+        return ResponseEntity.ok(service.cancel(id));
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<MailCampaign> resume(@PathVariable Integer id) {
+        return ResponseEntity.ok(service.resume(id));
+    }
+}
@@ -2,10 +2,12 @@
 package com.nousware.controller;
 
 import com.nousware.dto.MeDto;
+import com.nousware.dto.StoredAvatar;
 import com.nousware.dto.UpdateUserRequest;
 import com.nousware.entities.User;
 import com.nousware.service.FileStorageService;
 import com.nousware.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.util.Map;
 
 @RestController
@@ -59,13 +62,31 @@ public class MeController {
     }
 
     @PostMapping("/avatar")
-    public ResponseEntity<Map<String, String>> uploadAvatar(Authentication auth,
+    public ResponseEntity<Map<String, Object>> uploadAvatar(Authentication auth,
                                                             @RequestParam("file") MultipartFile file) {
         String email = principalEmail(auth);
         if (email == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
         User u = userService.getByEmailOrThrow(email);
-        String url = fileStorageService.storeUserAvatar(u.getUserId(), file);
-        userService.updateAvatar(u.getUserId(), url);
-        return ResponseEntity.ok(Map.of("url", url));
+        return avatarResponse(u, fileStorageService.storeUserAvatar(u.getUserId(), file));
+    }
+
+    /** Raw image body (Content-Type image/*): streamed into the avatar pipeline without a multipart temp file. */
+    @PutMapping("/avatar")
+    public ResponseEntity<Map<String, Object>> putAvatar(Authentication auth, HttpServletRequest request)
+            throws IOException {
+        String email = principalEmail(auth);
+        if (email == null) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        User u = userService.getByEmailOrThrow(email);
+        StoredAvatar stored = fileStorageService.storeUserAvatar(u.getUserId(), request.getInputStream(),
+                request.getContentType(), request.getContentLengthLong());
+        return avatarResponse(u, stored);
+    }
+
+    private ResponseEntity<Map<String, Object>> avatarResponse(User u, StoredAvatar stored) {
+        userService.updateAvatar(u.getUserId(), stored.url());
+        return ResponseEntity.ok(Map.of(
+                "url", stored.url(),
+                "urlTemplate", stored.urlTemplate(),
+                "sizes", stored.sizes()));
     }
 }
@@ -0,0 +1,42 @@
+package com.nousware.controller;
+
+import com.nousware.dto.StoredMedia;
+import com.nousware.service.MediaService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/media")
+public class MediaController {
+
+    private final MediaService mediaService;
+
+    public MediaController(MediaService mediaService) {
+        this.mediaService = mediaService;
+    }
+
+    // Upload — ADMIN only; returns the hash-named URL to put into imageUrl / imgUrl
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    public ResponseEntity<StoredMedia> upload(@RequestParam("file") MultipartFile file) {
+        return respond(mediaService.store(file));
+    }
+
+    // Raw body upload — ADMIN only; streamed to the store without a multipart temp file
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping
+    public ResponseEntity<StoredMedia> put(HttpServletRequest request) throws IOException {
+        return respond(mediaService.store(request.getInputStream(), request.getContentType(),
+                request.getContentLengthLong()));
+    }
+
+    private static ResponseEntity<StoredMedia> respond(StoredMedia stored) {
+        return ResponseEntity.status(stored.deduplicated() ? HttpStatus.OK : HttpStatus.CREATED).body(stored);
+    }
+}
@@ -1,15 +1,24 @@
 package com.nousware.controller;
 
+import com.nousware.dto.ServiceFilter;
+import com.nousware.dto.ServiceSearchResult;
 import com.nousware.entities.Service;
+import com.nousware.service.CatalogCache;
+import com.nousware.service.CatalogJsonCache;
 import com.nousware.service.ServiceItemService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PagedModel;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -17,7 +26,12 @@ import java.util.Map;
 public class ServiceController {
 
     private final ServiceItemService service;
-    public ServiceController(ServiceItemService service) { this.service = service; }
+    private final CatalogJsonCache json;
+
+    public ServiceController(ServiceItemService service, CatalogJsonCache json) {
+        this.service = service;
+        this.json = json;
+    }
 
     // Create — ADMIN only
     @PreAuthorize("hasRole('ADMIN')")
@@ -36,14 +50,36 @@ public class ServiceController {
         return ResponseEntity.ok(service.get(id));
     }
 
-    // List/search — public (?q=keyword&category=slug) with pagination
+    // List/search — public (?q=keyword&category=slug&category=slug2&popular=true) with pagination;
+    // all filters combine (categories match any); cached JSON bytes with ETag/gzip
     @GetMapping
-    public ResponseEntity<Page<Service>> list(
+    public void list(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) Boolean popular,
+            Pageable pageable,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        ServiceFilter filter = ServiceFilter.of(q, category, popular);
+        json.render(CatalogCache.Segment.SERVICES, Arrays.asList("list", filter, pageable),
+                () -> service.list(filter, pageable)).writeTo(request, response);
+    }
+
+    // Search with facets — public, same params as list; the page plus per-category counts for a filter sidebar
+    @GetMapping("/search")
+    public void search(
             @RequestParam(required = false) String q,
-            @RequestParam(required = false) String category,
-            Pageable pageable
-    ) {
-        return ResponseEntity.ok(service.list(q, category, pageable));
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) Boolean popular,
+            Pageable pageable,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        ServiceFilter filter = ServiceFilter.of(q, category, popular);
+        json.render(CatalogCache.Segment.SERVICES, Arrays.asList("search", filter, pageable),
+                () -> new ServiceSearchResult(new PagedModel<>(service.list(filter, pageable)), service.facets(filter)))
+                .writeTo(request, response);
     }
 
     // Update — ADMIN only
@@ -2,15 +2,20 @@ package com.nousware.controller;
 
 import com.nousware.dto.ViewTestimonial;
 import com.nousware.entities.Testimonial;
+import com.nousware.service.CatalogCache;
+import com.nousware.service.CatalogJsonCache;
 import com.nousware.service.TestimonialServiceImpl;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Map;
 
 @RestController
@@ -18,9 +23,11 @@ import java.util.Map;
 public class TestimonialController {
 
     private final TestimonialServiceImpl service;
+    private final CatalogJsonCache json;
 
-    public TestimonialController(TestimonialServiceImpl service) {
+    public TestimonialController(TestimonialServiceImpl service, CatalogJsonCache json) {
         this.service = service;
+        this.json = json;
     }
 
     /* ---------- CREATE (Admin only) ---------- */
@@ -40,12 +47,15 @@ public class TestimonialController {
     /* ---------- LIST / SEARCH (Public) ---------- */
     // Supports ?q=keyword, ?favorite=true, and pageable params (?page=&size=&sort=createdAt,desc)
     @GetMapping
-    public ResponseEntity<Page<ViewTestimonial>> list(
+    public void list(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) Boolean favorite,
-            Pageable pageable
-    ) {
-        return ResponseEntity.ok(service.listView(q, favorite, pageable));
+            Pageable pageable,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        json.render(CatalogCache.Segment.TESTIMONIALS, Arrays.asList("list", q, favorite, pageable),
+                () -> service.listView(q, favorite, pageable)).writeTo(request, response);
     }
 
     /* ---------- UPDATE (Admin only) ---------- */
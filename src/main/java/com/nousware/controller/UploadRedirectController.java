@@ -0,0 +1,56 @@
+package com.nousware.controller;
+
+import com.nousware.service.BlobStore;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * With S3 storage the app serves no file bytes: /uploads/{key} answers 302 to a short-lived
+ * presigned URL, so stored /uploads/... URLs keep working. The URL only changes once an hour
+ * (see S3BlobStore#presignedGetUrl), so the browser's cached copy of the object keeps matching;
+ * the redirect itself is cached privately for half the URL lifetime.
+ */
+@RestController
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+public class UploadRedirectController {
+
+    private final BlobStore blobStore;
+    private final String publicPrefix;
+    private final Duration ttl;
+
+    public UploadRedirectController(BlobStore blobStore,
+                                    @Value("${app.upload.public-prefix:/uploads}") String publicPrefix,
+                                    @Value("${app.storage.s3.presign-ttl-seconds:3600}") long ttlSeconds) {
+        this.blobStore = blobStore;
+        this.publicPrefix = publicPrefix;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    @GetMapping("${app.upload.public-prefix:/uploads}/**")
+    public ResponseEntity<Void> redirect(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String key = UriUtils.decode(path.substring(Math.min(path.length(), publicPrefix.length() + 1)),
+                StandardCharsets.UTF_8);
+        if (key.isEmpty() || key.contains("..") || key.startsWith("/")) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        String url = blobStore.presignedGetUrl(key, ttl)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .header(HttpHeaders.LOCATION, url)
+                .cacheControl(CacheControl.maxAge(ttl.dividedBy(2)).cachePrivate())
+                .build();
+    }
+}
@@ -1,138 +1,158 @@
 package com.nousware.controller;
 
+import com.nousware.dto.BulkUserRequest;
+import com.nousware.dto.BulkUserResult;
 import com.nousware.dto.UpdateUserRequest;
-import com.nousware.entities.Role;
+import com.nousware.dto.UserSearchResult;
+import com.nousware.dto.UserView;
 import com.nousware.entities.User;
+import com.nousware.security.AuthenticatedUser;
+import com.nousware.security.LocalOidcUser;
+import com.nousware.service.UserDirectoryService;
 import com.nousware.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
     private final UserService userService;
+    private final UserDirectoryService userDirectory;
+
+    private static final String CSV_HEADER =
+            "id,email,firstName,lastName,enabled,provider,role,roles,phone,gender,createdAt,updatedAt,lastLoginAt\r\n";
 
     // If admin-only, uncomment:
     // @PreAuthorize("hasRole('ADMIN')")
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserDirectoryService userDirectory) {
         this.userService = userService;
+        this.userDirectory = userDirectory;
     }
 
-    /** GET /api/users?page=0&size=20&sort=createdAt,desc */
+    /**
+     * GET /api/users?page=0&size=20&sort=createdAt,desc
+     * sort keys: id, email, lastName, createdAt, lastLoginAt (anything else is 400).
+     */
     @GetMapping
-    public ResponseEntity<Page<Map<String, Object>>> listUsers(
+    public ResponseEntity<Page<UserView>> listUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt,desc") String sort
     ) {
-        String[] parts = sort.split(",", 2);
-        String prop = parts[0];
-        Sort.Direction dir = (parts.length > 1 && "asc".equalsIgnoreCase(parts[1]))
-                ? Sort.Direction.ASC
-                : Sort.Direction.DESC;
+        return ResponseEntity.ok(userDirectory.list(page, size, sort));
+    }
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(dir, prop));
-        Page<User> users = userService.findAll(pageable);
+    /** POST /api/users/bulk — {"userIds":[..], "operation":"ENABLE|DISABLE|GRANT_ROLE|REVOKE_ROLE", "role":"ADMIN"} */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkUserResult> bulkUpdate(@Valid @RequestBody BulkUserRequest req,
+                                                     Authentication auth) {
+        return ResponseEntity.ok(userService.bulkUpdate(req, actingUserId(auth)));
+    }
 
-        List<Map<String, Object>> content = users.getContent().stream()
-                .map(this::toUserMap)
-                .toList();
+    /** GET /api/users/search?q=jan&after=1234&size=20 — prefix + typo-tolerant, keyset-paged. */
+    @GetMapping("/search")
+    public ResponseEntity<UserSearchResult> searchUsers(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(userDirectory.search(q, after, size));
+    }
 
-        Page<Map<String, Object>> out = new PageImpl<>(content, pageable, users.getTotalElements());
-        return ResponseEntity.ok(out);
+    /**
+     * GET /api/users/export.csv — all users, streamed row by row straight to the response
+     * (synchronous, so no async request timeout applies to large exports).
+     */
+    @GetMapping(value = "/export.csv", produces = "text/csv")
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"");
+        Writer w = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), 16 * 1024);
+        w.write(CSV_HEADER);
+        try {
+            userDirectory.export(v -> {
+                try {
+                    writeCsvRow(w, v);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // client went away
+        }
+        w.flush();
     }
 
-    /** GET /api/users/{id} */
+    /** GET /api/users/{id} — the same UserView shape as the list rows */
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getUser(@PathVariable Integer id) {
+    public ResponseEntity<UserView> getUser(@PathVariable Integer id) {
         return userService.findById(id)
-                .map(u -> ResponseEntity.ok(toUserMap(u)))
+                .map(u -> ResponseEntity.ok(userDirectory.view(u)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /** PUT /api/users/{id} */
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> updateUser(
+    public ResponseEntity<UserView> updateUser(
             @PathVariable Integer id,
             @Valid @RequestBody UpdateUserRequest req
     ) {
         User updated = userService.updateUser(id, req);
-        return ResponseEntity.ok(toUserMap(updated));
-    }
-
-    // ---------- mapping helpers (kept local to avoid coupling) ----------
-
-    private Map<String, Object> toUserMap(User u) {
-        List<String> roles = normalizeAndSortRoles(roleNames(u.getRoles()));
-        String avatar = u.getAvatarUrl();
-        String picture = u.getPictureUrl();
-        String display = (avatar != null && !avatar.isBlank()) ? avatar
-                : ((picture != null && !picture.isBlank()) ? picture : null);
-
-        Map<String, Object> m = new LinkedHashMap<>();
-        m.put("id", u.getUserId());
-        m.put("email", u.getEmail());
-        m.put("firstName", u.getName());           // 'name' is first name in your model
-        if (u.getLastName() != null) m.put("lastName", u.getLastName());
-        m.put("enabled", u.isEnable());
-        m.put("provider", u.getProvider());
-        m.put("role", topRole(roles));
-        m.put("roles", roles);
-        if (avatar  != null) m.put("avatar", avatar);
-        if (picture != null) m.put("picture", picture);
-        if (display != null) m.put("displayPicture", display);
-        m.put("phone", u.getPhone());
-        m.put("gender", u.getGender());
-        m.put("createdAt", u.getCreatedAt());
-        m.put("updatedAt", u.getUpdatedAt());
-        m.put("lastLoginAt", u.getLastLoginAt());
-        return m;
-    }
-
-    private List<String> roleNames(List<Role> roles) {
-        if (roles == null) return List.of();
-        return roles.stream()
-                .filter(r -> r != null && r.getRoleName() != null)
-                .map(Role::getRoleName)
-                .collect(Collectors.toList());
+        return ResponseEntity.ok(userDirectory.view(updated));
     }
 
-    private String normalizeRole(String role) {
-        if (role == null) return null;
-        String s = role.trim().toUpperCase();
-        if (s.startsWith("ROLE_")) s = s.substring(5);
-        return s;
+    private static Integer actingUserId(Authentication auth) {
+        Object principal = auth == null ? null : auth.getPrincipal();
+        if (principal instanceof AuthenticatedUser u) return u.getUserId();
+        if (principal instanceof LocalOidcUser u) return u.getUserId();
+        return null;
     }
 
-    private List<String> normalizeAndSortRoles(List<String> raw) {
-        return raw.stream()
-                .map(this::normalizeRole)
-                .filter(s -> s != null && !s.isBlank())
-                .distinct()
-                .sorted((a, b) -> {
-                    // ADMIN first, then alphabetically
-                    if ("ADMIN".equals(a) && !"ADMIN".equals(b)) return -1;
-                    if (!"ADMIN".equals(a) && "ADMIN".equals(b)) return 1;
-                    return a.compareTo(b);
-                })
-                .toList();
+    // ---------- CSV ----------
+
+    private static void writeCsvRow(Writer w, UserView v) throws IOException {
+        csv(w, String.valueOf(v.id)); w.write(',');
+        csv(w, v.email); w.write(',');
+        csv(w, v.firstName); w.write(',');
+        csv(w, v.lastName); w.write(',');
+        csv(w, String.valueOf(v.enabled)); w.write(',');
+        csv(w, v.provider); w.write(',');
+        csv(w, v.role); w.write(',');
+        csv(w, String.join("|", v.roles)); w.write(',');
+        csv(w, v.phone); w.write(',');
+        csv(w, v.gender); w.write(',');
+        csv(w, v.createdAt == null ? null : v.createdAt.toString()); w.write(',');
+        csv(w, v.updatedAt == null ? null : v.updatedAt.toString()); w.write(',');
+        csv(w, v.lastLoginAt == null ? null : v.lastLoginAt.toString());
+        w.write("\r\n");
     }
 
-    private String topRole(List<String> roles) {
-        if (roles == null || roles.isEmpty()) return "CLIENT";
-        if (roles.stream().anyMatch("ADMIN"::equalsIgnoreCase)) return "ADMIN";
-        return roles.get(0);
+    /** RFC 4180 quoting; a leading = + - @ is prefixed with ' so spreadsheets don't evaluate it. */
+    private static void csv(Writer w, String value) throws IOException {
+        if (value == null || value.isEmpty()) return;
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') value = "'" + value;
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            w.write(value);
+            return;
+        }
+        w.write('"');
+        w.write(value.replace("\"", "\"\""));
+        w.write('"');
     }
 }
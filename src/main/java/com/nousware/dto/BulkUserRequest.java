@@ -0,0 +1,15 @@
+package com.nousware.dto;
+
+import com.nousware.enums.BulkUserOperation;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/** Admin bulk action over many users; role is required for GRANT_ROLE / REVOKE_ROLE. */
+public class BulkUserRequest {
+    @NotEmpty @Size(max = 1000) public List<@NotNull Integer> userIds;
+    @NotNull public BulkUserOperation operation;
+    public String role;             // e.g. "ADMIN"; ROLE_ prefix and case are ignored
+}
@@ -0,0 +1,16 @@
+package com.nousware.dto;
+
+import com.nousware.enums.BulkUserOperation;
+
+import java.util.Map;
+
+/**
+ * Outcome of a bulk action, per requested id:
+ * UPDATED, UNCHANGED (already in the target state), NOT_FOUND, or SKIPPED_SELF.
+ */
+public record BulkUserResult(
+        BulkUserOperation operation,
+        String role,
+        int updated,
+        Map<Integer, String> results
+) {}
@@ -0,0 +1,9 @@
+package com.nousware.dto;
+
+/** Number of services in a category that match the current keyword/popularity filter. */
+public record CategoryFacet(
+        Integer categoryId,
+        String slug,
+        String name,
+        Long count
+) {}
@@ -0,0 +1,17 @@
+package com.nousware.dto;
+
+import com.nousware.entities.Category;
+import com.nousware.entities.Faq;
+import com.nousware.entities.Service;
+import org.springframework.data.web.PagedModel;
+
+/**
+ * Everything the landing page needs in one response; each part has the same shape as the
+ * corresponding list endpoint (services, categories, faqs, testimonials?favorite=true).
+ */
+public record HomeBundle(
+        PagedModel<Service> services,
+        PagedModel<Category> categories,
+        PagedModel<Faq> faqs,
+        PagedModel<ViewTestimonial> testimonials
+) {}
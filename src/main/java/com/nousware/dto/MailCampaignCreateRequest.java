@@ -0,0 +1,9 @@
+package com.nousware.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class MailCampaignCreateRequest {
+    @NotBlank @Size(max = 255) public String subject;
+    @NotBlank public String html;   // may use {{firstName}}, {{lastName}}, {{email}}
+}
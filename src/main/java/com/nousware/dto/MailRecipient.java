@@ -0,0 +1,9 @@
+package com.nousware.dto;
+
+/** Minimal user row streamed by the campaign runner (no entity, no roles). */
+public record MailRecipient(
+        Integer userId,
+        String email,
+        String firstName,   // User.name
+        String lastName
+) {}
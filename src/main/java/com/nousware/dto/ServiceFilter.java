@@ -0,0 +1,37 @@
+package com.nousware.dto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Public service search: keyword (title/description), any of the category slugs, popularity.
+ * Normalized on construction (blank q dropped, slugs trimmed/lower-cased/sorted/deduplicated)
+ * so equal filters are equal cache keys.
+ */
+public record ServiceFilter(
+        String q,
+        List<String> categories,
+        Boolean mostPopular
+) {
+    public ServiceFilter {
+        q = q == null || q.isBlank() ? null : q.trim();
+        categories = categories == null ? List.of() : categories.stream()
+                .filter(Objects::nonNull)
+                .map(s -> s.trim().toLowerCase(Locale.ROOT))
+                .filter(s -> !s.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    public static ServiceFilter of(String q, Collection<String> categories, Boolean mostPopular) {
+        return new ServiceFilter(q, categories == null ? null : List.copyOf(categories), mostPopular);
+    }
+
+    /** The same filter minus the category selection; facet counts are computed against this. */
+    public ServiceFilter withoutCategories() {
+        return new ServiceFilter(q, List.of(), mostPopular);
+    }
+}
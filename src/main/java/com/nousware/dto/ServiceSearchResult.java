@@ -0,0 +1,12 @@
+package com.nousware.dto;
+
+import com.nousware.entities.Service;
+import org.springframework.data.web.PagedModel;
+
+import java.util.List;
+
+/** A page of services for a filter, plus per-category counts for the filter sidebar. */
+public record ServiceSearchResult(
+        PagedModel<Service> results,
+        List<CategoryFacet> facets
+) {}
@@ -0,0 +1,13 @@
+package com.nousware.dto;
+
+import java.util.List;
+
+/**
+ * Public URLs of a processed avatar. {@code urlTemplate} contains a literal {size} placeholder
+ * to be replaced with one of {@code sizes}; {@code url} is the default rendition.
+ */
+public record StoredAvatar(
+        String url,
+        String urlTemplate,
+        List<Integer> sizes
+) {}
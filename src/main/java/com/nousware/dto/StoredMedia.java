@@ -0,0 +1,10 @@
+package com.nousware.dto;
+
+/** Result of a media upload; {@code url} is immutable and content-addressed. */
+public record StoredMedia(
+        String url,
+        String sha256,
+        String contentType,
+        long sizeBytes,
+        boolean deduplicated
+) {}
@@ -0,0 +1,9 @@
+package com.nousware.dto;
+
+import java.util.List;
+
+/** One keyset page of admin search hits; pass nextAfter back as ?after= (null = last page). */
+public record UserSearchResult(
+        List<UserView> items,
+        Integer nextAfter
+) {}
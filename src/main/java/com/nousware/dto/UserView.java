@@ -27,8 +27,10 @@ public class UserView {
     public String phone;
     /** Optional gender. */
     public String gender;
-    /** Role names (e.g., ["ADMIN","CLIENT"]). */
+    /** Role names (e.g., ["ADMIN","CLIENT"]), ADMIN first. */
     public List<String> roles;
+    /** Top role: ADMIN if present, else first role, else CLIENT. */
+    public String role;
     /** Timestamps for auditing. */
     public LocalDateTime createdAt;
     public LocalDateTime updatedAt;
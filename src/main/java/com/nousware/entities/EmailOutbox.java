@@ -0,0 +1,68 @@
+package com.nousware.entities;
+
+import com.nousware.enums.EmailType;
+import com.nousware.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Email queued in the same transaction as the business write that triggers it.
+ * Delivered later by EmailOutboxDispatcher, so request threads never wait on the mail provider.
+ */
+@Entity
+@Table(
+        name = "email_outbox",
+        indexes = {
+                @Index(name = "idx_email_outbox_status_next", columnList = "status, next_attempt_at")
+        }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_id")
+    private long outboxId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "email_type", nullable = false, length = 32)
+    private EmailType emailType;
+
+    @Column(nullable = false, length = 190)
+    private String recipient;
+
+    // EMAIL_VERIFY / PASSWORD_RESET: the token to embed in the link
+    @Column(length = 128)
+    private String token;
+
+    // CONTACT_*: the contact form to render
+    @Column(name = "contact_id")
+    private Integer contactId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OutboxStatus status;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "last_error", length = 512)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
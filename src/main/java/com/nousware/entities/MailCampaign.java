@@ -0,0 +1,76 @@
+package com.nousware.entities;
+
+import com.nousware.enums.CampaignStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Admin-triggered announcement to all verified users.
+ * lastUserId is the checkpoint: recipients are walked in user_id order and a crashed
+ * or failed run resumes after the last batch that was accepted by the provider.
+ */
+@Entity
+@Table(
+        name = "mail_campaign",
+        indexes = {
+                @Index(name = "idx_mail_campaign_status", columnList = "status")
+        }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MailCampaign {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "campaign_id")
+    private int campaignId;
+
+    @Column(nullable = false, length = 255)
+    private String subject;
+
+    // HTML with {{firstName}} / {{lastName}} / {{email}} placeholders
+    @Column(name = "html_body", nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String htmlBody;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CampaignStatus status;
+
+    @Column(name = "last_user_id", nullable = false)
+    private int lastUserId;
+
+    @Column(name = "total_recipients")
+    private long totalRecipients;
+
+    @Column(name = "sent_count", nullable = false)
+    private long sentCount;
+
+    @Column(name = "last_error", length = 512)
+    private String lastError;
+
+    @Column(name = "created_by", length = 190)
+    private String createdBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    // refreshed every batch; a RUNNING campaign with a stale heartbeat is picked up by another runner
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    // new random value on every claim; checkpoint/finish require it, so a runner that was taken
+    // over (stale heartbeat) or re-queued stops at its next write instead of sending in parallel
+    @Column(name = "lease_token", length = 36)
+    private String leaseToken;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
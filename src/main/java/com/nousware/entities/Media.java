@@ -0,0 +1,53 @@
+package com.nousware.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored blob, keyed by the SHA-256 of its bytes. The file lives at
+ * media/{sha[0..2]}/{sha[2..4]}/{sha}.{ext} under the upload directory and is written once;
+ * uploading identical bytes again only finds this row.
+ * refCount is the number of entity columns (service images, testimonial images) currently
+ * pointing at the blob; refChangedAt is when it last changed, for grace-period cleanup.
+ */
+@Entity
+@Table(
+        name = "media",
+        uniqueConstraints = @UniqueConstraint(name = "uk_media_sha256", columnNames = "sha256"),
+        indexes = @Index(name = "idx_media_refs", columnList = "ref_count, ref_changed_at")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Media {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "media_id")
+    private long mediaId;
+
+    @Column(nullable = false, length = 64, columnDefinition = "CHAR(64)")
+    private String sha256;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(nullable = false, length = 8)
+    private String extension;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "ref_changed_at", nullable = false)
+    private LocalDateTime refChangedAt;
+}
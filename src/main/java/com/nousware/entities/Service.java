@@ -7,7 +7,10 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "service")
+@Table(
+        name = "service",
+        indexes = @Index(name = "idx_service_most_popular", columnList = "most_popular, service_id")
+)
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
@@ -46,7 +49,9 @@ public class Service {
     @JoinTable(
             name = "service_category",
             joinColumns = @JoinColumn(name = "service_id"),
-            inverseJoinColumns = @JoinColumn(name = "category_id")
+            inverseJoinColumns = @JoinColumn(name = "category_id"),
+            // reverse of the (service_id, category_id) key: category filters and facet counts
+            indexes = @Index(name = "idx_service_category_category", columnList = "category_id, service_id")
     )
     private Set<Category> categories = new HashSet<>();
 }
@@ -15,7 +15,16 @@ import java.util.List;
         name = "users",
         indexes = {
                 @Index(name = "idx_users_email", columnList = "email"),
-                @Index(name = "idx_users_google_sub", columnList = "google_sub")
+                @Index(name = "idx_users_google_sub", columnList = "google_sub"),
+                // admin directory sort keys (user_id is the tie-breaker)
+                @Index(name = "idx_users_created_at", columnList = "created_at, user_id"),
+                @Index(name = "idx_users_last_login_at", columnList = "last_login_at, user_id"),
+                @Index(name = "idx_users_last_name", columnList = "last_name, user_id"),
+                // admin search (prefix on names/phone digits, SOUNDEX equality for typos)
+                @Index(name = "idx_users_name", columnList = "name, user_id"),
+                @Index(name = "idx_users_phone_digits", columnList = "phone_digits"),
+                @Index(name = "idx_users_first_soundex", columnList = "first_soundex"),
+                @Index(name = "idx_users_last_soundex", columnList = "last_soundex")
         }
 )
 @Data
@@ -64,6 +73,23 @@ public class User {
     @Column(name = "last_login_at")
     private LocalDateTime lastLoginAt;
 
+    // ---- Search keys: STORED generated columns, so MySQL keeps them in sync on every write ----
+    @JsonIgnore
+    @Column(name = "phone_digits", insertable = false, updatable = false, columnDefinition =
+            "varchar(30) GENERATED ALWAYS AS (replace(replace(replace(replace(replace(replace("
+            + "phone, ' ', ''), '-', ''), '(', ''), ')', ''), '+', ''), '.', '')) STORED")
+    private String phoneDigits;
+
+    @JsonIgnore
+    @Column(name = "first_soundex", insertable = false, updatable = false,
+            columnDefinition = "varchar(32) GENERATED ALWAYS AS (soundex(name)) STORED")
+    private String firstSoundex;
+
+    @JsonIgnore
+    @Column(name = "last_soundex", insertable = false, updatable = false,
+            columnDefinition = "varchar(32) GENERATED ALWAYS AS (soundex(last_name)) STORED")
+    private String lastSoundex;
+
     // ---- Timestamps ----
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -14,6 +14,10 @@ import java.time.LocalDateTime;
         uniqueConstraints = {
                 @UniqueConstraint(name = "uk_verif_token__token", columnNames = "token"),
                 @UniqueConstraint(name = "uk_verif_token__user_type", columnNames = {"user_id", "token_type"})
+        },
+        indexes = {
+                // range scans for the scheduled purge of expired tokens
+                @Index(name = "idx_verif_token__expiry", columnList = "expiry_date")
         }
 )
 @Data
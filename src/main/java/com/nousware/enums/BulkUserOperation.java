@@ -0,0 +1,8 @@
+package com.nousware.enums;
+
+public enum BulkUserOperation {
+    ENABLE,
+    DISABLE,
+    GRANT_ROLE,
+    REVOKE_ROLE
+}
@@ -0,0 +1,10 @@
+package com.nousware.enums;
+
+/** Lifecycle of a bulk announcement mail campaign. */
+public enum CampaignStatus {
+    PENDING,     // queued, waiting for a runner
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED       // stopped on a provider error; can be resumed from its checkpoint
+}
@@ -0,0 +1,9 @@
+package com.nousware.enums;
+
+/** Which transactional email an outbox row will produce. */
+public enum EmailType {
+    EMAIL_VERIFY,
+    PASSWORD_RESET,
+    CONTACT_NOTIFICATION,
+    CONTACT_CONFIRMATION
+}
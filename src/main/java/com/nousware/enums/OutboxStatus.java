@@ -0,0 +1,9 @@
+package com.nousware.enums;
+
+/** Lifecycle of an email_outbox row. */
+public enum OutboxStatus {
+    PENDING,   // waiting for (re)delivery
+    SENDING,   // claimed by a dispatcher
+    SENT,
+    FAILED     // gave up after max attempts
+}
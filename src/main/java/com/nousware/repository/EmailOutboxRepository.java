@@ -0,0 +1,52 @@
+package com.nousware.repository;
+
+import com.nousware.entities.EmailOutbox;
+import com.nousware.enums.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Lock a batch of due rows. SKIP LOCKED lets several instances poll concurrently
+     * without blocking on (or double-sending) each other's rows.
+     * Rows stuck in SENDING past {@code staleBefore} (dispatcher crashed mid-send) are reclaimed.
+     */
+    @Query(value = """
+            SELECT * FROM email_outbox
+            WHERE (status = 'PENDING' AND next_attempt_at <= :now)
+               OR (status = 'SENDING' AND claimed_at < :staleBefore)
+            ORDER BY outbox_id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<EmailOutbox> lockDueBatch(@Param("now") LocalDateTime now,
+                                   @Param("staleBefore") LocalDateTime staleBefore,
+                                   @Param("limit") int limit);
+
+    @Modifying
+    @Query("""
+           UPDATE EmailOutbox o
+           SET o.status = :status, o.sentAt = :sentAt, o.lastError = null
+           WHERE o.outboxId = :id
+           """)
+    int markSent(@Param("id") long id,
+                 @Param("status") OutboxStatus status,
+                 @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("""
+           UPDATE EmailOutbox o
+           SET o.status = :status, o.nextAttemptAt = :nextAttemptAt, o.lastError = :error
+           WHERE o.outboxId = :id
+           """)
+    int markFailedAttempt(@Param("id") long id,
+                          @Param("status") OutboxStatus status,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error);
+}
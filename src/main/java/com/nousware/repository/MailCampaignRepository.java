@@ -0,0 +1,75 @@
+package com.nousware.repository;
+
+import com.nousware.entities.MailCampaign;
+import com.nousware.enums.CampaignStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface MailCampaignRepository extends JpaRepository<MailCampaign, Integer> {
+
+    Page<MailCampaign> findAllByOrderByCampaignIdDesc(Pageable pageable);
+
+    List<MailCampaign> findByStatusIn(List<CampaignStatus> statuses);
+
+    /** Lock the next runnable campaign (queued, or RUNNING with a dead runner). */
+    @Query(value = """
+            SELECT * FROM mail_campaign
+            WHERE status = 'PENDING'
+               OR (status = 'RUNNING' AND heartbeat_at < :staleBefore)
+            ORDER BY campaign_id
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    Optional<MailCampaign> lockNextRunnable(@Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Advance the checkpoint after a batch was accepted.
+     * Returns 0 if the campaign is no longer RUNNING (e.g. cancelled) or another runner holds the
+     * lease now, which stops this runner.
+     */
+    @Modifying
+    @Query("""
+           UPDATE MailCampaign c
+           SET c.lastUserId = :lastUserId, c.sentCount = c.sentCount + :sent, c.heartbeatAt = :now
+           WHERE c.campaignId = :id AND c.leaseToken = :lease
+             AND c.status = com.nousware.enums.CampaignStatus.RUNNING
+           """)
+    int checkpoint(@Param("id") int id,
+                   @Param("lease") String lease,
+                   @Param("lastUserId") int lastUserId,
+                   @Param("sent") long sent,
+                   @Param("now") LocalDateTime now);
+
+    /** Keep the lease alive while a batch is still being retried; 0 means it was lost. */
+    @Modifying
+    @Query("""
+           UPDATE MailCampaign c
+           SET c.heartbeatAt = :now
+           WHERE c.campaignId = :id AND c.leaseToken = :lease
+             AND c.status = com.nousware.enums.CampaignStatus.RUNNING
+           """)
+    int heartbeat(@Param("id") int id,
+                  @Param("lease") String lease,
+                  @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+           UPDATE MailCampaign c
+           SET c.status = :status, c.finishedAt = :now, c.lastError = :error
+           WHERE c.campaignId = :id AND c.leaseToken = :lease
+             AND c.status = com.nousware.enums.CampaignStatus.RUNNING
+           """)
+    int finish(@Param("id") int id,
+               @Param("lease") String lease,
+               @Param("status") CampaignStatus status,
+               @Param("now") LocalDateTime now,
+               @Param("error") String error);
+}
@@ -0,0 +1,60 @@
+package com.nousware.repository;
+
+import com.nousware.entities.Media;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface MediaRepository extends JpaRepository<Media, Long> {
+
+    Optional<Media> findBySha256(String sha256);
+
+    /**
+     * Register a blob (returns 1). For bytes already known only ref_changed_at is refreshed, which
+     * restarts the sweeper's grace period for an upload that was just handed back to a client.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO media (sha256, content_type, extension, size_bytes, ref_count, created_at, ref_changed_at)
+            VALUES (:sha, :contentType, :ext, :size, 0, :now, :now)
+            ON DUPLICATE KEY UPDATE ref_changed_at = :now
+            """, nativeQuery = true)
+    int insertOrTouch(@Param("sha") String sha256,
+                       @Param("contentType") String contentType,
+                       @Param("ext") String extension,
+                       @Param("size") long sizeBytes,
+                       @Param("now") LocalDateTime now);
+
+    /** Atomic ref-count change; never goes below zero. Returns 0 for unknown hashes. */
+    @Modifying
+    @Query(value = """
+            UPDATE media
+            SET ref_count = GREATEST(ref_count + :delta, 0), ref_changed_at = :now
+            WHERE sha256 = :sha
+            """, nativeQuery = true)
+    int adjustRefCount(@Param("sha") String sha256, @Param("delta") int delta, @Param("now") LocalDateTime now);
+
+    /** Of the given hashes, those still referenced or whose last reference change is within the grace period. */
+    @Query(value = """
+            SELECT sha256 FROM media
+            WHERE sha256 IN (:shas) AND (ref_count > 0 OR ref_changed_at >= :cutoff)
+            """, nativeQuery = true)
+    List<String> findRetained(@Param("shas") Collection<String> shas, @Param("cutoff") LocalDateTime cutoff);
+
+    @Query(value = "SELECT sha256 FROM media WHERE sha256 IN (:shas)", nativeQuery = true)
+    List<String> findExisting(@Param("shas") Collection<String> shas);
+
+    /** Drop the row only if it is still unreferenced; 1 means the blob may be deleted. */
+    @Modifying
+    @Query(value = """
+            DELETE FROM media
+            WHERE sha256 = :sha AND ref_count = 0 AND ref_changed_at < :cutoff
+            """, nativeQuery = true)
+    int deleteIfUnreferenced(@Param("sha") String sha256, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,36 +1,26 @@
 package com.nousware.repository;
 
 import com.nousware.entities.Service;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface ServiceRepository extends JpaRepository<Service, Integer> {
-
-    // 🔹 When searching by title/description, also fetch categories
-    @EntityGraph(attributePaths = "categories")
-    Page<Service> findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(
-            String t, String d, Pageable pageable);
+public interface ServiceRepository extends JpaRepository<Service, Integer>, ServiceSearchRepository {
 
     boolean existsByTitleIgnoreCase(String title);
 
-    // 🔹 Default list should fetch categories
-    @EntityGraph(attributePaths = "categories")
-    Page<Service> findAll(Pageable pageable);
-
     // 🔹 By id with categories (use this in get())
     @EntityGraph(attributePaths = "categories")
     Optional<Service> findById(Integer id);
 
-    // 🔹 Filter by category slug and fetch categories
+    // 🔹 Lists are two-phase: page over ids with ServiceSearchRepository.findIds (LIMIT in SQL), then
+    //    findWithCategoriesByIdIn. Fetch-joining a collection in a paged query makes Hibernate page in
+    //    memory (HHH90003004). This is the second phase: the whole page, categories included, in one
+    //    query; order is the caller's to restore
     @EntityGraph(attributePaths = "categories")
-    @Query("""
-           SELECT DISTINCT s FROM Service s
-           JOIN s.categories c
-           WHERE LOWER(c.slug) = LOWER(:slug)
-           """)
-    Page<Service> findByCategorySlug(@Param("slug") String slug, Pageable pageable);
+    @Query("SELECT s FROM Service s WHERE s.serviceId IN :ids")
+    List<Service> findWithCategoriesByIdIn(@Param("ids") Collection<Integer> ids);
 }
@@ -0,0 +1,21 @@
+package com.nousware.repository;
+
+import com.nousware.dto.CategoryFacet;
+import com.nousware.dto.ServiceFilter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/** Criteria-built service queries for combined filters; mixed into ServiceRepository. */
+public interface ServiceSearchRepository {
+
+    /** One page of ids matching every part of the filter, limited and sorted in SQL. */
+    Page<Integer> findIds(ServiceFilter filter, Pageable pageable);
+
+    /**
+     * Matching services per category, in one grouped query. The filter's own categories are
+     * ignored (counts say what picking another category would give); empty categories are omitted.
+     */
+    List<CategoryFacet> countByCategory(ServiceFilter filter);
+}
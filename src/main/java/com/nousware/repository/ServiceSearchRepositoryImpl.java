@@ -0,0 +1,101 @@
+package com.nousware.repository;
+
+import com.nousware.dto.CategoryFacet;
+import com.nousware.dto.ServiceFilter;
+import com.nousware.entities.Category;
+import com.nousware.entities.Service;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * All filter parts go into one WHERE: keyword LIKE on title/description, categories as an EXISTS
+ * over service_category with {@code slug IN (...)} (slugs are stored lower-case, so the unique
+ * slug index applies), and most_popular. Facets group the same predicates by category.
+ */
+public class ServiceSearchRepositoryImpl implements ServiceSearchRepository {
+
+    private final EntityManager em;
+
+    public ServiceSearchRepositoryImpl(EntityManager em) {
+        this.em = em;
+    }
+
+    @Override
+    public Page<Integer> findIds(ServiceFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Integer> query = cb.createQuery(Integer.class);
+        Root<Service> s = query.from(Service.class);
+        query.select(s.get("serviceId")).where(where(cb, query, s, filter));
+        if (pageable.getSort().isSorted()) query.orderBy(QueryUtils.toOrders(pageable.getSort(), s, cb));
+
+        TypedQuery<Integer> page = em.createQuery(query);
+        if (pageable.isPaged()) {
+            page.setFirstResult((int) pageable.getOffset());
+            page.setMaxResults(pageable.getPageSize());
+        }
+        // like Spring Data's own paging: no count when the page alone tells the total
+        return PageableExecutionUtils.getPage(page.getResultList(), pageable, () -> count(filter));
+    }
+
+    private long count(ServiceFilter filter) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Service> s = query.from(Service.class);
+        query.select(cb.count(s)).where(where(cb, query, s, filter));
+        return em.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public List<CategoryFacet> countByCategory(ServiceFilter filter) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<CategoryFacet> query = cb.createQuery(CategoryFacet.class);
+        Root<Service> s = query.from(Service.class);
+        Join<Service, Category> c = s.join("categories");
+        query.select(cb.construct(CategoryFacet.class,
+                        c.get("categoryId"), c.get("slug"), c.get("name"), cb.countDistinct(s)))
+                .where(where(cb, query, s, filter.withoutCategories()))
+                .groupBy(c.get("categoryId"), c.get("slug"), c.get("name"))
+                .orderBy(cb.asc(c.get("name")));
+        return em.createQuery(query).getResultList();
+    }
+
+    private static Predicate[] where(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Service> s, ServiceFilter f) {
+        List<Predicate> where = new ArrayList<>(3);
+        if (f.q() != null) {
+            String pattern = "%" + escapeLike(f.q().toLowerCase(Locale.ROOT)) + "%";
+            where.add(cb.or(
+                    cb.like(cb.lower(s.get("title")), pattern, '\\'),
+                    cb.like(cb.lower(s.get("description")), pattern, '\\')));
+        }
+        if (!f.categories().isEmpty()) {
+            // EXISTS rather than a join: one row per service, so paging and sorting stay exact
+            Subquery<Integer> inCategory = query.subquery(Integer.class);
+            Root<Service> sub = inCategory.correlate(s);
+            Join<Service, Category> c = sub.join("categories");
+            inCategory.select(cb.literal(1)).where(c.get("slug").in(f.categories()));
+            where.add(cb.exists(inCategory));
+        }
+        if (f.mostPopular() != null) {
+            where.add(cb.equal(s.get("mostPopular"), f.mostPopular()));
+        }
+        return where.toArray(Predicate[]::new);
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,187 @@
+package com.nousware.repository;
+
+import com.nousware.dto.UserView;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Read side of the admin user directory: UserView rows straight from SQL, no entities.
+ * Each row carries its role names via a correlated GROUP_CONCAT, which MySQL evaluates only
+ * for the rows that survive ORDER BY ... LIMIT, so a page is one statement with no N+1.
+ * Only the whitelisted, indexed sort keys in {@link #SORT_COLUMNS} are accepted.
+ */
+@Repository
+public class UserDirectoryRepository {
+
+    /** API sort key -> indexed column; user_id is appended as a tie-breaker for stable paging. */
+    public static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "u.user_id",
+            "email", "u.email",
+            "lastName", "u.last_name",
+            "createdAt", "u.created_at",
+            "lastLoginAt", "u.last_login_at");
+
+    private static final String SELECT = """
+            SELECT u.user_id, u.name, u.last_name, u.email, u.enable, u.provider,
+                   u.avatar_url, u.picture_url, u.phone, u.gender,
+                   u.created_at, u.updated_at, u.last_login_at,
+                   (SELECT GROUP_CONCAT(r.role_name SEPARATOR ',')
+                      FROM users_roles ur JOIN roles r ON r.role_id = ur.role_id
+                     WHERE ur.user_id = u.user_id) AS role_names
+            FROM users u
+            """;
+
+    private static final RowMapper<UserView> ROW = UserDirectoryRepository::mapRow;
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate named;
+
+    public UserDirectoryRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+        this.named = new NamedParameterJdbcTemplate(jdbc);
+    }
+
+    /**
+     * One page in the given order. {@code sortKey} must be a key of SORT_COLUMNS.
+     * Roles are raw role_name values; callers normalize them.
+     */
+    public List<UserView> page(String sortKey, boolean ascending, int offset, int limit) {
+        String column = SORT_COLUMNS.get(sortKey);
+        if (column == null) throw new IllegalArgumentException("Unsupported sort key: " + sortKey);
+        String dir = ascending ? "ASC" : "DESC";
+        String sql = SELECT + " ORDER BY " + column + " " + dir + ", u.user_id " + dir + " LIMIT ? OFFSET ?";
+        return jdbc.query(sql, ROW, limit, offset);
+    }
+
+    /**
+     * Ids of users matching {@code q}, ascending, strictly after {@code afterUserId}.
+     * Each branch is an index range scan (email / name / last_name / phone_digits prefix, or
+     * SOUNDEX equality for typo tolerance) limited on its own; the UNION dedupes and re-limits.
+     * Callers pass already-trimmed input; tokens are split on whitespace.
+     */
+    public List<Integer> searchIds(String q, int afterUserId, int limit) {
+        SearchQuery query = searchQuery(q, afterUserId, limit);
+        return named.queryForList(query.sql(), query.params(), Integer.class);
+    }
+
+    /** The statement searchIds runs; split out so the generated SQL can be checked without a database. */
+    record SearchQuery(String sql, MapSqlParameterSource params) {}
+
+    static SearchQuery searchQuery(String q, int afterUserId, int limit) {
+        String[] tokens = q.trim().toLowerCase().split("\\s+");
+        MapSqlParameterSource p = new MapSqlParameterSource()
+                .addValue("after", afterUserId)
+                .addValue("lim", limit)
+                .addValue("prefix", likePrefix(q.trim()));
+        List<String> branches = new ArrayList<>();
+        branches.add(branch("email LIKE :prefix"));
+        branches.add(branch("name LIKE :prefix"));
+        branches.add(branch("last_name LIKE :prefix"));
+
+        String digits = q.replaceAll("[^0-9]", "");
+        if (digits.length() >= 3 && digits.length() * 2 >= q.trim().length()) {
+            p.addValue("digits", digits + "%");
+            branches.add(branch("phone_digits LIKE :digits"));
+        }
+        if (tokens.length >= 2) {
+            // "jane do" -> first-name prefix AND last-name prefix
+            p.addValue("t1", likePrefix(tokens[0])).addValue("t2", likePrefix(tokens[tokens.length - 1]));
+            branches.add(branch("name LIKE :t1 AND last_name LIKE :t2"));
+        }
+        if (tokens.length == 1 && isSoundexable(tokens[0])) {
+            p.addValue("sx", tokens[0]);
+            branches.add(branch("first_soundex = SOUNDEX(:sx)"));
+            branches.add(branch("last_soundex = SOUNDEX(:sx)"));
+        } else if (tokens.length >= 2 && isSoundexable(tokens[0]) && isSoundexable(tokens[tokens.length - 1])) {
+            p.addValue("sx1", tokens[0]).addValue("sx2", tokens[tokens.length - 1]);
+            branches.add(branch("first_soundex = SOUNDEX(:sx1) AND last_soundex = SOUNDEX(:sx2)"));
+        }
+
+        String sql = "SELECT user_id FROM (" + String.join(" UNION ", branches) + ") hits ORDER BY user_id LIMIT :lim";
+        return new SearchQuery(sql, p);
+    }
+
+    /** UserView rows for these ids, in id order. */
+    public List<UserView> findViewsByIds(List<Integer> ids) {
+        if (ids.isEmpty()) return List.of();
+        return named.query(SELECT + " WHERE u.user_id IN (:ids) ORDER BY u.user_id",
+                new MapSqlParameterSource("ids", ids), ROW);
+    }
+
+    public long count() {
+        Long n = jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        return n == null ? 0 : n;
+    }
+
+    /**
+     * Every user in id order through a forward-only, row-streaming cursor
+     * (fetch size Integer.MIN_VALUE is Connector/J's streaming mode): memory stays constant
+     * regardless of table size. The connection is held until the consumer has seen every row.
+     */
+    public void streamAll(Consumer<UserView> consumer) {
+        jdbc.query(con -> {
+            var ps = con.prepareStatement(SELECT + " ORDER BY u.user_id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            return ps;
+        }, rs -> {
+            consumer.accept(mapRow(rs, 0));
+        });
+    }
+
+    private static String branch(String predicate) {
+        return "(SELECT user_id FROM users WHERE " + predicate
+                + " AND user_id > :after ORDER BY user_id LIMIT :lim)";
+    }
+
+    /** Escape LIKE wildcards in user input and append the prefix wildcard. */
+    static String likePrefix(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    /** SOUNDEX is only meaningful for words of 3+ letters. */
+    private static boolean isSoundexable(String token) {
+        if (token.length() < 3) return false;
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isLetter(token.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static UserView mapRow(ResultSet rs, int rowNum) throws SQLException {
+        UserView v = new UserView();
+        v.id = rs.getInt("user_id");
+        v.firstName = rs.getString("name");
+        v.lastName = rs.getString("last_name");
+        v.email = rs.getString("email");
+        v.enabled = rs.getBoolean("enable");
+        v.provider = rs.getString("provider");
+        v.avatarUrl = rs.getString("avatar_url");
+        v.pictureUrl = rs.getString("picture_url");
+        v.phone = rs.getString("phone");
+        v.gender = rs.getString("gender");
+        v.createdAt = toLocal(rs.getTimestamp("created_at"));
+        v.updatedAt = toLocal(rs.getTimestamp("updated_at"));
+        v.lastLoginAt = toLocal(rs.getTimestamp("last_login_at"));
+        String roleNames = rs.getString("role_names");
+        v.roles = roleNames == null ? List.of() : Arrays.asList(roleNames.split(","));
+        return v;
+    }
+
+    private static LocalDateTime toLocal(Timestamp ts) {
+        return ts == null ? null : ts.toLocalDateTime();
+    }
+}
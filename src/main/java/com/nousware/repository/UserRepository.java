@@ -1,8 +1,16 @@
 package com.nousware.repository;
 
+import com.nousware.dto.MailRecipient;
 import com.nousware.entities.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -27,4 +35,72 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 
     /** Find by email (case-insensitive) OR Google sub. */
     Optional<User> findByEmailIgnoreCaseOrGoogleSub(String email, String googleSub);
+
+    /** Count verified (enabled) users. */
+    long countByEnableTrue();
+
+    /**
+     * Keyset page of verified users after {@code afterUserId}, in id order, as lightweight rows.
+     * Pass PageRequest.of(0, n) as the limit; no count query is issued.
+     */
+    @Query("""
+           SELECT new com.nousware.dto.MailRecipient(u.userId, u.email, u.name, u.lastName)
+           FROM User u
+           WHERE u.enable = true AND u.userId > :afterUserId
+           ORDER BY u.userId
+           """)
+    List<MailRecipient> findVerifiedRecipientsAfter(@Param("afterUserId") int afterUserId, Pageable limit);
+
+    // ===================== Bulk admin operations (set-based) =====================
+
+    /** Minimal state read before a bulk action, to report per-id results and evict caches. */
+    interface BulkTarget {
+        Integer getUserId();
+        String getEmail();
+        Boolean getEnabled();
+    }
+
+    @Query("SELECT u.userId AS userId, u.email AS email, u.enable AS enabled FROM User u WHERE u.userId IN :ids")
+    List<BulkTarget> findBulkTargets(@Param("ids") Collection<Integer> ids);
+
+    /** Flip enable for the given ids; rows already in that state are not touched. */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "UPDATE users SET enable = :enable, updated_at = :now WHERE user_id IN (:ids) AND enable <> :enable",
+            nativeQuery = true)
+    int setEnabled(@Param("ids") Collection<Integer> ids, @Param("enable") boolean enable,
+                   @Param("now") LocalDateTime now);
+
+    /** Users holding the role under any of its ids (rows whose names normalize to the same code). */
+    @Query(value = "SELECT DISTINCT user_id FROM users_roles WHERE role_id IN (:roleIds) AND user_id IN (:ids)", nativeQuery = true)
+    List<Integer> findUserIdsWithRole(@Param("ids") Collection<Integer> ids, @Param("roleIds") Collection<Integer> roleIds);
+
+    /**
+     * Add role {@code roleId} to every listed user that exists and holds none of {@code roleIds}
+     * (its aliases, roleId included); users_roles has no unique key.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+           INSERT INTO users_roles (user_id, role_id)
+           SELECT u.user_id, :roleId FROM users u
+           WHERE u.user_id IN (:ids)
+             AND NOT EXISTS (SELECT 1 FROM users_roles ur WHERE ur.user_id = u.user_id AND ur.role_id IN (:roleIds))
+           """, nativeQuery = true)
+    int grantRole(@Param("ids") Collection<Integer> ids, @Param("roleId") int roleId,
+                  @Param("roleIds") Collection<Integer> roleIds);
+
+    /** Remove the role under every one of its ids; returns link rows deleted. */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "DELETE FROM users_roles WHERE role_id IN (:roleIds) AND user_id IN (:ids)", nativeQuery = true)
+    int revokeRole(@Param("ids") Collection<Integer> ids, @Param("roleIds") Collection<Integer> roleIds);
+
+    // ===================== Upload sweeper =====================
+
+    interface AvatarRef {
+        Integer getUserId();
+        String getAvatarUrl();
+    }
+
+    /** Current avatar URL of each given user (PK lookups only). */
+    @Query("SELECT u.userId AS userId, u.avatarUrl AS avatarUrl FROM User u WHERE u.userId IN :ids")
+    List<AvatarRef> findAvatarRefs(@Param("ids") Collection<Integer> ids);
 }
@@ -5,7 +5,9 @@ import com.nousware.enums.TokenType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,4 +26,15 @@ public interface VerificationTokenRepository extends JpaRepository<VerificationT
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("DELETE FROM VerificationToken v WHERE v.user.userId = :userId AND v.tokenType = :type")
     int deleteByUserIdAndType(Integer userId, TokenType type);
+
+    /**
+     * Delete at most {@code limit} expired tokens (MySQL DELETE ... LIMIT), walking idx_verif_token__expiry.
+     * Bounded chunks keep each statement's locks and undo log small.
+     *
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Query(value = "DELETE FROM verification_token WHERE expiry_date < :cutoff ORDER BY expiry_date LIMIT :limit",
+            nativeQuery = true)
+    int deleteExpiredChunk(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
 }
@@ -0,0 +1,27 @@
+package com.nousware.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Local-login principal that also carries the database id, so post-login bookkeeping
+ * (last-login timestamps, etc.) doesn't have to look the user up again by email.
+ */
+public class AuthenticatedUser extends User {
+
+    private final int userId;
+
+    public AuthenticatedUser(int userId, String email, String password,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(email, password, true, true, true, true, authorities);
+        this.userId = userId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    // equals/hashCode stay username-based (inherited), which session registries rely on
+}
@@ -0,0 +1,36 @@
+package com.nousware.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.OidcUserInfo;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+
+import java.util.Collection;
+
+/**
+ * OIDC principal linked to the local users row it was upserted into.
+ * Lets the success handler (and anything else downstream) use the id directly
+ * instead of upserting or looking the user up a second time.
+ */
+public class LocalOidcUser extends DefaultOidcUser {
+
+    private final int userId;
+    private final String localEmail;
+
+    public LocalOidcUser(int userId, String localEmail,
+                         Collection<? extends GrantedAuthority> authorities,
+                         OidcIdToken idToken, OidcUserInfo userInfo, String nameAttributeKey) {
+        super(authorities, idToken, userInfo, nameAttributeKey);
+        this.userId = userId;
+        this.localEmail = localEmail;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    /** Normalized email as stored in users.email. */
+    public String getLocalEmail() {
+        return localEmail;
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.security.web.authentication.AuthenticationSuccessHand
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
@@ -21,12 +22,14 @@ public class OAuth2JsonSuccessHandler implements AuthenticationSuccessHandler {
 
     private final ObjectMapper mapper = new ObjectMapper();
     private final UserService userService;
+    private final OidcLoginMetrics metrics;
 
     // ✅ Hardcoded production frontend URL
     private static final String FRONTEND_URL = "https://cks.software";
 
-    public OAuth2JsonSuccessHandler(UserService userService) {
+    public OAuth2JsonSuccessHandler(UserService userService, OidcLoginMetrics metrics) {
         this.userService = userService;
+        this.metrics = metrics;
     }
 
     @Override
@@ -36,26 +39,36 @@ public class OAuth2JsonSuccessHandler implements AuthenticationSuccessHandler {
 
         OAuth2User o = (OAuth2User) authentication.getPrincipal();
 
-        // Extract user info from Google attributes
-        String sub     = attr(o, "sub");
-        String email   = attr(o, "email");
-        String picture = attr(o, "picture");
-        String name    = firstNonBlank(attr(o, "name"),
-                ((attr(o, "given_name") == null ? "" : attr(o, "given_name")) + " " +
-                        (attr(o, "family_name") == null ? "" : attr(o, "family_name"))).trim());
-
-        // 🧩 Upsert local user (create if new, update if existing)
-        User saved = userService.upsertGoogleUser(sub, email, name, picture);
-
-        // ✅ Always redirect to production frontend
-        String url = FRONTEND_URL
-                + "/?authenticated=true"
-                + "&userId=" + enc(String.valueOf(saved.getUserId()))
-                + "&email=" + enc(saved.getEmail() == null ? "" : saved.getEmail())
-                + "&t=" + enc(Instant.now().toString());
-
-        // Send redirect
-        res.sendRedirect(url);
+        metrics.time(OidcLoginMetrics.REDIRECT, () -> {
+            int userId;
+            String email;
+            if (o instanceof LocalOidcUser local) {
+                // upserted once in DbRoleMappingOidcUserService; reuse its id
+                userId = local.getUserId();
+                email = local.getLocalEmail();
+            } else {
+                // non-OIDC OAuth2 principal (not used by the Google registration): resolve without writing
+                User u = userService.findByEmailOrGoogleSub(attr(o, "email"), attr(o, "sub"))
+                        .orElseThrow(() -> new IllegalStateException("OAuth2 user has no local account"));
+                userId = u.getUserId();
+                email = u.getEmail();
+            }
+
+            // ✅ Always redirect to production frontend
+            String url = FRONTEND_URL
+                    + "/?authenticated=true"
+                    + "&userId=" + enc(String.valueOf(userId))
+                    + "&email=" + enc(email == null ? "" : email)
+                    + "&t=" + enc(Instant.now().toString());
+
+            // Send redirect
+            try {
+                res.sendRedirect(url);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
     }
 
     // ---------------- Helper methods ----------------
@@ -67,10 +80,6 @@ public class OAuth2JsonSuccessHandler implements AuthenticationSuccessHandler {
         return s.isEmpty() ? null : s;
     }
 
-    private static String firstNonBlank(String a, String b) {
-        return (a != null && !a.isBlank()) ? a : ((b != null && !b.isBlank()) ? b : null);
-    }
-
     private static String enc(String s) {
         return URLEncoder.encode(s == null ? "" : s, StandardCharsets.UTF_8);
     }
@@ -0,0 +1,44 @@
+package com.nousware.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-stage timers for Google (OIDC) login: "auth.oidc.login.stage" tagged
+ * stage=token_exchange | userinfo | db_upsert | redirect, and outcome=success | error.
+ */
+@Component
+public class OidcLoginMetrics {
+
+    public static final String TOKEN_EXCHANGE = "token_exchange";
+    public static final String USERINFO = "userinfo";
+    public static final String DB_UPSERT = "db_upsert";
+    public static final String REDIRECT = "redirect";
+
+    private final MeterRegistry meters;
+
+    public OidcLoginMetrics(MeterRegistry meters) {
+        this.meters = meters;
+    }
+
+    public <T> T time(String stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = work.get();
+            outcome = "success";
+            return result;
+        } finally {
+            Timer.builder("auth.oidc.login.stage")
+                    .description("Latency of each Google login stage")
+                    .tag("stage", stage)
+                    .tag("outcome", outcome)
+                    .register(meters)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
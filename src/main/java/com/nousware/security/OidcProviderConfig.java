@@ -0,0 +1,110 @@
+package com.nousware.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.boot.autoconfigure.security.oauth2.client.OAuth2ClientProperties;
+import org.springframework.boot.autoconfigure.security.oauth2.client.OAuth2ClientPropertiesMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenDecoderFactory;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenValidator;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtDecoderFactory;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OAuth2 client wiring backed by {@link OidcProviderSnapshot} instead of issuer-uri discovery.
+ * Registrations come from spring.security.oauth2.client.* as usual; the snapshot's registration
+ * gets its endpoints and provider metadata from the snapshot, and ID tokens are verified
+ * against the snapshot's in-memory JWKS.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(OAuth2ClientProperties.class)
+public class OidcProviderConfig {
+
+    @Bean
+    public ClientRegistrationRepository clientRegistrationRepository(OAuth2ClientProperties properties,
+                                                                     OidcProviderSnapshot snapshot) {
+        return new SnapshotClientRegistrationRepository(
+                new OAuth2ClientPropertiesMapper(properties).asClientRegistrations(), snapshot);
+    }
+
+    @Bean
+    public JwtDecoderFactory<ClientRegistration> idTokenDecoderFactory(OidcProviderSnapshot snapshot) {
+        OidcIdTokenDecoderFactory fallback = new OidcIdTokenDecoderFactory();
+        Map<String, JwtDecoder> decoders = new ConcurrentHashMap<>();
+        return registration -> {
+            if (!registration.getRegistrationId().equals(snapshot.registrationId())) {
+                return fallback.createDecoder(registration);
+            }
+            return decoders.computeIfAbsent(registration.getRegistrationId(), id -> {
+                DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+                processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, snapshot.jwkSource()));
+                processor.setJWTClaimsSetVerifier((claims, context) -> { }); // validated below, as the default factory does
+                NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+                decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                        new JwtTimestampValidator(), new OidcIdTokenValidator(registration)));
+                decoder.setClaimSetConverter(OidcIdTokenDecoderFactory.createDefaultClaimTypeConverter());
+                return decoder;
+            });
+        };
+    }
+
+    /** Applies the current snapshot to its registration on lookup, so a refresh needs no restart. */
+    static final class SnapshotClientRegistrationRepository
+            implements ClientRegistrationRepository, Iterable<ClientRegistration> {
+
+        private final Map<String, ClientRegistration> base;
+        private final OidcProviderSnapshot snapshot;
+        private volatile Applied applied;
+
+        private record Applied(OidcProviderSnapshot.Snapshot from, ClientRegistration registration) {}
+
+        SnapshotClientRegistrationRepository(Map<String, ClientRegistration> base, OidcProviderSnapshot snapshot) {
+            this.base = Map.copyOf(base);
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public ClientRegistration findByRegistrationId(String registrationId) {
+            ClientRegistration registration = base.get(registrationId);
+            if (registration == null || !registrationId.equals(snapshot.registrationId())) return registration;
+
+            OidcProviderSnapshot.Snapshot s = snapshot.current();
+            if (s.metadata().isEmpty()) return registration;
+            Applied a = applied;
+            if (a == null || a.from() != s) {
+                a = new Applied(s, ClientRegistration.withClientRegistration(registration)
+                        .issuerUri(s.string("issuer"))
+                        .authorizationUri(s.string("authorization_endpoint"))
+                        .tokenUri(s.string("token_endpoint"))
+                        .userInfoUri(s.string("userinfo_endpoint"))
+                        .jwkSetUri(s.string("jwks_uri"))
+                        .providerConfigurationMetadata(s.metadata())
+                        .build());
+                applied = a;
+            }
+            return a.registration();
+        }
+
+        @Override
+        public Iterator<ClientRegistration> iterator() {
+            List<ClientRegistration> all = new ArrayList<>(base.size());
+            for (String id : base.keySet()) all.add(findByRegistrationId(id));
+            return all.iterator();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.nousware.security;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local snapshot of one OIDC provider's discovery document and JWKS.
+ * Loaded from snapshot-file at startup (falling back to the bundled classpath:oidc/&lt;registration&gt;.json
+ * discovery document), so boot never waits on the provider. A scheduled task re-fetches both once the
+ * snapshot is older than ttl-seconds and rewrites the file atomically; a failed refresh keeps the old one.
+ * {@link #jwkSource()} serves keys from memory and forces one rate-limited refresh on an unknown kid.
+ */
+@Component
+public class OidcProviderSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(OidcProviderSnapshot.class);
+    private static final Duration MIN_FORCED_REFRESH_INTERVAL = Duration.ofSeconds(60);
+
+    /** Immutable view of the provider; fetchedAt is EPOCH when only the bundled metadata is known. */
+    public record Snapshot(Map<String, Object> metadata, JWKSet jwks, Instant fetchedAt) {
+
+        public String string(String key) {
+            Object v = metadata.get(key);
+            return v == null ? null : v.toString();
+        }
+    }
+
+    private final String registrationId;
+    private final String issuer;
+    private final Path file;
+    private final Duration ttl;
+    private final Duration timeout;
+    private final ObjectMapper mapper;
+    private final HttpClient client;
+
+    private volatile Snapshot current;
+    private volatile Instant lastForcedRefresh = Instant.EPOCH;
+
+    public OidcProviderSnapshot(@Value("${app.oauth2.oidc.registration-id:google}") String registrationId,
+                                @Value("${app.oauth2.oidc.issuer:https://accounts.google.com}") String issuer,
+                                @Value("${app.oauth2.oidc.snapshot-file:data/oidc/google.json}") String file,
+                                @Value("${app.oauth2.oidc.ttl-seconds:43200}") long ttlSeconds,
+                                @Value("${app.oauth2.oidc.timeout-ms:5000}") long timeoutMs,
+                                ObjectMapper mapper) {
+        this.registrationId = registrationId;
+        this.issuer = issuer.replaceAll("/+$", "");
+        this.file = Path.of(file);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.mapper = mapper;
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.current = loadLocal();
+    }
+
+    public String registrationId() {
+        return registrationId;
+    }
+
+    public Snapshot current() {
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${app.oauth2.oidc.check-interval-ms:300000}")
+    public void refreshIfStale() {
+        if (current.fetchedAt().plus(ttl).isBefore(Instant.now())) {
+            refresh();
+        }
+    }
+
+    /** Fetch discovery + JWKS now. @return true if the snapshot was replaced */
+    public synchronized boolean refresh() {
+        try {
+            Map<String, Object> metadata = mapper.readValue(
+                    get(issuer + "/.well-known/openid-configuration"), new TypeReference<>() {});
+            Object advertised = metadata.get("issuer");
+            if (advertised == null || !issuer.equals(advertised.toString().replaceAll("/+$", ""))) {
+                throw new IllegalStateException("Discovery issuer " + advertised + " does not match " + issuer);
+            }
+            Object jwksUri = metadata.get("jwks_uri");
+            if (jwksUri == null) throw new IllegalStateException("Discovery document has no jwks_uri");
+            JWKSet jwks = JWKSet.parse(get(jwksUri.toString()));
+
+            Snapshot next = new Snapshot(Map.copyOf(metadata), jwks, Instant.now());
+            write(next);
+            current = next;
+            log.info("OIDC snapshot for {} refreshed ({} keys)", registrationId, jwks.getKeys().size());
+            return true;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            log.warn("OIDC snapshot refresh for {} failed, keeping snapshot from {}: {}",
+                    registrationId, current.fetchedAt(), e.toString());
+            return false;
+        }
+    }
+
+    /** JWKS backed by the in-memory snapshot; no network on the login path unless the kid is unknown. */
+    public JWKSource<SecurityContext> jwkSource() {
+        return (JWKSelector selector, SecurityContext ctx) -> {
+            List<JWK> keys = selector.select(current.jwks());
+            if (!keys.isEmpty()) return keys;
+            Instant now = Instant.now();
+            if (lastForcedRefresh.plus(MIN_FORCED_REFRESH_INTERVAL).isAfter(now)) return keys;
+            lastForcedRefresh = now;
+            if (!refresh()) throw new KeySourceException("No matching key and JWKS refresh failed");
+            return selector.select(current.jwks());
+        };
+    }
+
+    private Snapshot loadLocal() {
+        if (Files.isRegularFile(file)) {
+            try {
+                Map<String, Object> stored = mapper.readValue(file.toFile(), new TypeReference<>() {});
+                @SuppressWarnings("unchecked")
+                Map<String, Object> metadata = (Map<String, Object>) stored.get("metadata");
+                if (metadata != null && issuer.equals(String.valueOf(metadata.get("issuer")).replaceAll("/+$", ""))) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> jwks = (Map<String, Object>) stored.getOrDefault("jwks", Map.of());
+                    Instant fetchedAt = Instant.parse(String.valueOf(stored.get("fetchedAt")));
+                    log.info("OIDC snapshot for {} loaded from {} (fetched {})", registrationId, file, fetchedAt);
+                    return new Snapshot(Map.copyOf(metadata), JWKSet.parse(jwks), fetchedAt);
+                }
+                log.warn("OIDC snapshot {} is for another issuer; ignoring it", file);
+            } catch (Exception e) {
+                log.warn("OIDC snapshot {} is unreadable; ignoring it: {}", file, e.toString());
+            }
+        }
+
+        ClassPathResource bundled = new ClassPathResource("oidc/" + registrationId + ".json");
+        if (bundled.exists()) {
+            try (InputStream in = bundled.getInputStream()) {
+                Map<String, Object> metadata = mapper.readValue(in, new TypeReference<>() {});
+                if (issuer.equals(String.valueOf(metadata.get("issuer")))) {
+                    // keys rotate, so none are bundled; the first scheduled check fetches them
+                    return new Snapshot(Map.copyOf(metadata), new JWKSet(), Instant.EPOCH);
+                }
+            } catch (IOException e) {
+                log.warn("Bundled OIDC metadata for {} is unreadable: {}", registrationId, e.toString());
+            }
+        }
+        return new Snapshot(Map.of(), new JWKSet(), Instant.EPOCH);
+    }
+
+    private void write(Snapshot s) throws IOException {
+        Map<String, Object> stored = new LinkedHashMap<>();
+        stored.put("fetchedAt", s.fetchedAt().toString());
+        stored.put("metadata", s.metadata());
+        stored.put("jwks", s.jwks().toJSONObject(true)); // public keys only
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            mapper.writeValue(tmp.toFile(), stored);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private String get(String uri) throws IOException, InterruptedException {
+        HttpResponse<String> res = client.send(
+                HttpRequest.newBuilder(URI.create(uri)).timeout(timeout).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (res.statusCode() / 100 != 2) {
+            throw new IOException("GET " + uri + " responded " + res.statusCode());
+        }
+        return res.body();
+    }
+}
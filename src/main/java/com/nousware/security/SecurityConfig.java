@@ -44,6 +44,7 @@ public class SecurityConfig {
     private final OAuth2JsonSuccessHandler successHandler;
     private final PasswordEncoder passwordEncoder;
     private final DbRoleMappingOidcUserService dbRoleMappingOidcUserService;
+    private final TimedAuthorizationCodeTokenResponseClient tokenResponseClient;
 
     @Value("${app.cors.allowed-origins:}")
     private String corsAllowedOrigins;
@@ -53,13 +54,15 @@ public class SecurityConfig {
             OAuth2JsonFailureHandler failureHandler,
             OAuth2JsonSuccessHandler successHandler,
             PasswordEncoder passwordEncoder,
-            DbRoleMappingOidcUserService dbRoleMappingOidcUserService
+            DbRoleMappingOidcUserService dbRoleMappingOidcUserService,
+            TimedAuthorizationCodeTokenResponseClient tokenResponseClient
     ) {
         this.userDetailsService = userDetailsService;
         this.failureHandler = failureHandler;
         this.successHandler = successHandler;
         this.passwordEncoder = passwordEncoder;
         this.dbRoleMappingOidcUserService = dbRoleMappingOidcUserService;
+        this.tokenResponseClient = tokenResponseClient;
     }
 
     @Bean
@@ -170,13 +173,15 @@ public class SecurityConfig {
                         ).permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers(HttpMethod.GET,
+                                "/api/home",
                                 "/api/services/**",
                                 "/api/categories/**",
                                 "/api/faqs/**",
                                 "/api/testimonials/**",
                                 "/api/posts/**",
                                 "/api/comments/**",
-                                "/api/tags/**"
+                                "/api/tags/**",
+                                "/uploads/**"
                         ).permitAll()
                         .requestMatchers("/api/services/**",
                                 "/api/categories/**",
@@ -193,9 +198,13 @@ public class SecurityConfig {
                         .requestMatchers("/api/contact/**").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
                         .requestMatchers("/api/users/me", "/api/users/me/**").authenticated()
                         .requestMatchers("/api/users/**").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
+                        .requestMatchers("/api/campaigns/**").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
+                        .requestMatchers("/api/media/**").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
+                        .requestMatchers("/actuator/**").hasAnyAuthority("ADMIN", "ROLE_ADMIN")
                         .anyRequest().authenticated()
                 )
                 .oauth2Login(oauth -> oauth
+                        .tokenEndpoint(t -> t.accessTokenResponseClient(tokenResponseClient))
                         .userInfoEndpoint(u -> u.oidcUserService(dbRoleMappingOidcUserService))
                         .successHandler(successHandler)
                         .failureHandler(failureHandler)
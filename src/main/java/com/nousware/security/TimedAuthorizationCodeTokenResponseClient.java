@@ -0,0 +1,26 @@
+package com.nousware.security;
+
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AuthorizationCodeGrantRequest;
+import org.springframework.security.oauth2.client.endpoint.RestClientAuthorizationCodeTokenResponseClient;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AccessTokenResponse;
+import org.springframework.stereotype.Component;
+
+/** Default authorization-code token exchange, wrapped with the token_exchange stage timer. */
+@Component
+public class TimedAuthorizationCodeTokenResponseClient
+        implements OAuth2AccessTokenResponseClient<OAuth2AuthorizationCodeGrantRequest> {
+
+    private final OAuth2AccessTokenResponseClient<OAuth2AuthorizationCodeGrantRequest> delegate =
+            new RestClientAuthorizationCodeTokenResponseClient();
+    private final OidcLoginMetrics metrics;
+
+    public TimedAuthorizationCodeTokenResponseClient(OidcLoginMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public OAuth2AccessTokenResponse getTokenResponse(OAuth2AuthorizationCodeGrantRequest request) {
+        return metrics.time(OidcLoginMetrics.TOKEN_EXCHANGE, () -> delegate.getTokenResponse(request));
+    }
+}
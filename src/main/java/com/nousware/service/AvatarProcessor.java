@@ -0,0 +1,234 @@
+package com.nousware.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.event.IIOReadProgressListener;
+import javax.imageio.event.IIOWriteProgressListener;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes an uploaded avatar and renders fixed square JPEG renditions (center-cropped).
+ * Dimensions are read from the header before any pixels are decoded, so oversized images are
+ * rejected cheaply; re-encoding drops all source metadata (EXIF, GPS, ICC comments).
+ * Work runs on a small bounded pool with a short queue: at most pool-size images are decoded at
+ * once (bounding heap), and a burst beyond the queue is refused with 503 instead of piling up
+ * request threads.
+ * <p>
+ * ImageIO decoding/encoding ignores thread interrupts, so on timeout the worker is interrupted and
+ * the reader/writer progress listeners call abort(): the pool thread is released within one
+ * progress step (a band of scanlines), not when the whole image is done.
+ */
+@Component
+public class AvatarProcessor {
+
+    /** Formats accepted after sniffing the bytes (client names and content types are ignored). */
+    private static final Set<String> ACCEPTED_FORMATS = Set.of("jpeg", "png", "gif", "bmp");
+
+    private static final IIOReadProgressListener ABORT_READ_ON_INTERRUPT = new IIOReadProgressAdapter() {
+        @Override
+        public void imageProgress(ImageReader source, float percentageDone) {
+            if (Thread.currentThread().isInterrupted()) source.abort();
+        }
+    };
+
+    private static final IIOWriteProgressListener ABORT_WRITE_ON_INTERRUPT = new IIOWriteProgressAdapter() {
+        @Override
+        public void imageProgress(ImageWriter source, float percentageDone) {
+            if (Thread.currentThread().isInterrupted()) source.abort();
+        }
+    };
+
+    private final List<Integer> sizes;
+    private final int maxDimension;
+    private final long maxPixels;
+    private final float jpegQuality;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor pool;
+
+    public AvatarProcessor(@Value("${app.upload.avatar.sizes:48,128,512}") List<Integer> sizes,
+                           @Value("${app.upload.avatar.max-dimension:6000}") int maxDimension,
+                           @Value("${app.upload.avatar.max-pixels:24000000}") long maxPixels,
+                           @Value("${app.upload.avatar.jpeg-quality:0.85}") float jpegQuality,
+                           @Value("${app.upload.avatar.timeout-ms:10000}") long timeoutMs,
+                           @Value("${app.upload.avatar.pool-size:2}") int poolSize,
+                           @Value("${app.upload.avatar.queue-capacity:8}") int queueCapacity) {
+        this.sizes = List.copyOf(sizes);
+        this.maxDimension = maxDimension;
+        this.maxPixels = maxPixels;
+        this.jpegQuality = jpegQuality;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger n = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread t = new Thread(r, "avatar-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        ImageIO.setUseCache(false); // decode in memory, not via temp files
+    }
+
+    public List<Integer> sizes() {
+        return sizes;
+    }
+
+    /**
+     * Render every configured size from {@code image}; blocks the caller for at most timeout-ms.
+     * The bytes must already be in memory: the pool only does CPU work, never network reads, so a
+     * slow client cannot hold a worker or spend the timeout.
+     * @return size -> JPEG bytes, in configured order
+     * @throws ResponseStatusException 400 unsupported/oversized image, 503 pool saturated, 504 timeout
+     */
+    public Map<Integer, byte[]> process(byte[] image) {
+        Future<Map<Integer, byte[]>> f;
+        try {
+            f = pool.submit(() -> render(decode(new ByteArrayInputStream(image))));
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Image processing is busy; retry shortly");
+        }
+        try {
+            return f.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            f.cancel(true); // interrupts the worker; the progress listeners abort the read/write
+            throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Image processing timed out");
+        } catch (InterruptedException e) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ResponseStatusException rse) throw rse;
+            throw new IllegalStateException("Avatar processing failed", e.getCause());
+        }
+    }
+
+    BufferedImage decode(InputStream in) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = iis == null ? null : ImageIO.getImageReaders(iis);
+            if (readers == null || !readers.hasNext()) throw unsupported();
+            ImageReader reader = readers.next();
+            try {
+                String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                if (!ACCEPTED_FORMATS.contains(format)) throw unsupported();
+                reader.setInput(iis, true, true); // ignoreMetadata: never parse EXIF/ICC blocks
+                reader.addIIOReadProgressListener(ABORT_READ_ON_INTERRUPT);
+                int w = reader.getWidth(0);
+                int h = reader.getHeight(0);
+                if (w < 1 || h < 1 || w > maxDimension || h > maxDimension || (long) w * h > maxPixels) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Image must be at most " + maxDimension + "px per side (got " + w + "x" + h + ")");
+                }
+                BufferedImage img = reader.read(0);
+                if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException("Avatar decode aborted");
+                if (img == null) throw unsupported();
+                return img;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    Map<Integer, byte[]> render(BufferedImage src) throws IOException {
+        int side = Math.min(src.getWidth(), src.getHeight());
+        int x = (src.getWidth() - side) / 2;
+        int y = (src.getHeight() - side) / 2;
+        Map<Integer, byte[]> out = new LinkedHashMap<>();
+        for (int size : sizes) {
+            int target = Math.min(size, side); // never upscale
+            BufferedImage dst = new BufferedImage(target, target, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = dst.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.setColor(Color.WHITE); // flatten transparency
+                g.fillRect(0, 0, target, target);
+                g.drawImage(src, 0, 0, target, target, x, y, x + side, y + side, null);
+            } finally {
+                g.dispose();
+            }
+            out.put(size, encodeJpeg(dst));
+            if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException("Avatar render aborted");
+        }
+        return out;
+    }
+
+    private byte[] encodeJpeg(BufferedImage img) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        try (MemoryCacheImageOutputStream ios = new MemoryCacheImageOutputStream(bytes)) {
+            writer.setOutput(ios);
+            writer.addIIOWriteProgressListener(ABORT_WRITE_ON_INTERRUPT);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(img, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ResponseStatusException unsupported() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported image; use JPEG, PNG, GIF or BMP");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /** No-op IIOReadProgressListener to override from. */
+    private static class IIOReadProgressAdapter implements IIOReadProgressListener {
+        public void sequenceStarted(ImageReader source, int minIndex) {}
+        public void sequenceComplete(ImageReader source) {}
+        public void imageStarted(ImageReader source, int imageIndex) {}
+        public void imageProgress(ImageReader source, float percentageDone) {}
+        public void imageComplete(ImageReader source) {}
+        public void thumbnailStarted(ImageReader source, int imageIndex, int thumbnailIndex) {}
+        public void thumbnailProgress(ImageReader source, float percentageDone) {}
+        public void thumbnailComplete(ImageReader source) {}
+        public void readAborted(ImageReader source) {}
+    }
+
+    /** No-op IIOWriteProgressListener to override from. */
+    private static class IIOWriteProgressAdapter implements IIOWriteProgressListener {
+        public void imageStarted(ImageWriter source, int imageIndex) {}
+        public void imageProgress(ImageWriter source, float percentageDone) {}
+        public void imageComplete(ImageWriter source) {}
+        public void thumbnailStarted(ImageWriter source, int imageIndex, int thumbnailIndex) {}
+        public void thumbnailProgress(ImageWriter source, float percentageDone) {}
+        public void thumbnailComplete(ImageWriter source) {}
+        public void writeAborted(ImageWriter source) {}
+    }
+}
@@ -0,0 +1,49 @@
+package com.nousware.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Where uploaded bytes live. Keys are '/'-separated relative paths (avatars/7/abc/128.jpg,
+ * media/2c/f2/{sha}.png) and every object is written once, completely, or not at all.
+ * Implementations: {@link LocalBlobStore} (app.storage.type=local, default) and
+ * {@link S3BlobStore} (app.storage.type=s3, any S3-compatible service).
+ */
+public interface BlobStore {
+
+    /** One stored object, as returned by {@link #list}. */
+    record BlobInfo(String key, long size, Instant lastModified) {}
+
+    /** Store the whole stream under {@code key}, replacing any object there; returns bytes written. */
+    long put(String key, InputStream body, String contentType) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    /** Rename within the store; the destination appears complete or not at all. */
+    void move(String fromKey, String toKey) throws IOException;
+
+    /** @return false if nothing was stored under the key */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Up to {@code limit} objects after {@code afterKey} (null/empty = from the start) in a stable
+     * order, so the last key returned works as a resumable cursor.
+     */
+    List<BlobInfo> list(String afterKey, int limit) throws IOException;
+
+    /**
+     * Stable URL prefix stored in the database (no trailing slash); the object for key k is
+     * publicBaseUrl() + "/" + k.
+     */
+    String publicBaseUrl();
+
+    /**
+     * Direct download URL valid for at least {@code ttl}, when the store can serve bytes without
+     * the app. Repeated calls should return the same URL for a while, so caches keyed on it hit.
+     */
+    Optional<String> presignedGetUrl(String key, Duration ttl);
+}
@@ -0,0 +1,160 @@
+package com.nousware.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outbound transport for the Brevo transactional email API.
+ * One shared java.net.http.HttpClient (keep-alive pool, HTTP/2 when offered), connect and
+ * per-request timeouts, and a semaphore capping concurrent requests to the provider.
+ * Latency is recorded as the "mail.transport.send" timer tagged by outcome.
+ */
+@Component
+public class BrevoMailTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(BrevoMailTransport.class);
+
+    private final URI sendUri;
+    private final String apiKey;
+    private final Duration requestTimeout;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+    private final HttpClient client;
+    private final ObjectMapper mapper;
+    private final MeterRegistry meters;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public BrevoMailTransport(@Value("${app.mail.brevo.base-url:https://api.brevo.com}") String baseUrl,
+                              @Value("${BREVO_API_KEY}") String apiKey,
+                              @Value("${app.mail.brevo.connect-timeout-ms:3000}") long connectTimeoutMs,
+                              @Value("${app.mail.brevo.request-timeout-ms:10000}") long requestTimeoutMs,
+                              @Value("${app.mail.brevo.max-concurrent:8}") int maxConcurrent,
+                              ObjectMapper mapper,
+                              MeterRegistry meters) {
+        this.sendUri = URI.create(baseUrl.replaceAll("/+$", "") + "/v3/smtp/email");
+        this.apiKey = apiKey;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.permits = new Semaphore(maxConcurrent);
+        // Java 17: a small fixed pool stands in for virtual threads; the client multiplexes I/O on it
+        this.executor = Executors.newFixedThreadPool(Math.max(2, maxConcurrent), r -> {
+            Thread t = new Thread(r, "brevo-http");
+            t.setDaemon(true);
+            return t;
+        });
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(executor)
+                .build();
+        this.mapper = mapper;
+        this.meters = meters;
+        meters.gauge("mail.transport.in_flight", inFlight);
+    }
+
+    /** Blocking send; throws if the provider rejects the message, times out, or is unreachable. */
+    public void send(String fromEmail, String fromName, String to, String subject, String html) {
+        try {
+            sendAsync(fromEmail, fromName, to, subject, html).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Brevo send failed", e.getCause());
+        }
+    }
+
+    public CompletableFuture<Void> sendAsync(String fromEmail, String fromName, String to, String subject, String html) {
+        Map<String, Object> payload = Map.of(
+                "sender", Map.of("email", fromEmail, "name", fromName),
+                "to", List.of(Map.of("email", to)),
+                "subject", subject,
+                "htmlContent", html);
+        return postJson(payload).thenAccept(status ->
+                log.info("Brevo email sent [{} → {}]: {}", subject, to, status));
+    }
+
+    /**
+     * POST an arbitrary /v3/smtp/email payload (e.g. messageVersions batches). Completes with the
+     * HTTP status; returns without blocking, already failed if max-concurrent requests are in flight.
+     */
+    public CompletableFuture<Integer> postJson(Map<String, Object> payload) {
+        byte[] body;
+        try {
+            body = mapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Unserializable mail payload", e));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(sendUri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .header("api-key", apiKey)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+
+        // never wait for a permit on the caller's thread: when saturated, fail now and let the
+        // caller's retry (outbox, campaign runner) come back later
+        if (!permits.tryAcquire()) {
+            record(0, "saturated");
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Brevo concurrency limit reached; try again later"));
+        }
+
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    permits.release();
+                    inFlight.decrementAndGet();
+                    long elapsed = System.nanoTime() - start;
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        record(elapsed, cause instanceof HttpTimeoutException ? "timeout" : "io_error");
+                        throw new IllegalStateException("Brevo request failed: " + cause, cause);
+                    }
+                    int status = response.statusCode();
+                    if (status / 100 != 2) {
+                        record(elapsed, status >= 500 ? "server_error" : "client_error");
+                        throw new IllegalStateException("Brevo responded " + status + ": " + response.body());
+                    }
+                    record(elapsed, "success");
+                    return status;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private void record(long nanos, String outcome) {
+        Timer.builder("mail.transport.send")
+                .description("Latency of Brevo transactional email requests")
+                .tag("outcome", outcome)
+                .register(meters)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,181 @@
+package com.nousware.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * In-process read-through cache of the public catalog lists (services, categories, FAQs,
+ * testimonials, and the /api/home bundle of them), one bounded LRU per segment keyed by
+ * query + page.
+ * <p>
+ * Correctness rules, as in UserDetailsCache:
+ * <ul>
+ *   <li>Writers call {@link #invalidate} for every segment whose JSON they change; inside a
+ *       transaction the eviction is repeated when it completes, and other nodes are told through
+ *       the CatalogInvalidationBus only after commit.</li>
+ *   <li>Each segment has a version, bumped by every eviction; a load that started before an
+ *       eviction is returned to its caller but not cached.</li>
+ *   <li>Entries also expire after ttl-seconds as a safety net for writes made outside the services.</li>
+ * </ul>
+ * A hit touches no transaction and no connection; misses load in a read-only transaction.
+ * {@link #onEvicted} listeners run once an eviction is final (after completion, or on receipt
+ * from another node), e.g. to re-warm the segment.
+ */
+@Component
+public class CatalogCache {
+
+    /** HOME bundles the other four, so invalidating any segment also drops it. */
+    public enum Segment { SERVICES, CATEGORIES, FAQS, TESTIMONIALS, HOME }
+
+    private record Entry(Object value, long expiresAtMs) {}
+
+    private static final class Region {
+        final LinkedHashMap<Object, Entry> entries;
+        long version; // guarded by this
+
+        Region(int maxEntries) {
+            this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final TransactionTemplate readOnlyTx;
+    private final CatalogInvalidationBus bus;
+    private final Map<Segment, Region> regions = new EnumMap<>(Segment.class);
+    private final List<Consumer<Set<Segment>>> evictionListeners = new CopyOnWriteArrayList<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public CatalogCache(@Value("${app.catalog.cache.max-entries-per-segment:256}") int maxEntries,
+                        @Value("${app.catalog.cache.ttl-seconds:3600}") long ttlSeconds,
+                        PlatformTransactionManager txManager,
+                        CatalogInvalidationBus bus,
+                        MeterRegistry meters) {
+        this(maxEntries, ttlSeconds * 1000, System::currentTimeMillis, txManager, bus, meters);
+    }
+
+    CatalogCache(int maxEntries, long ttlMs, LongSupplier clock, PlatformTransactionManager txManager,
+                 CatalogInvalidationBus bus, MeterRegistry meters) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.bus = bus;
+        for (Segment s : Segment.values()) regions.put(s, new Region(maxEntries));
+        this.hits = Counter.builder("catalog.cache.requests").tag("result", "hit")
+                .description("Catalog list reads served from memory").register(meters);
+        this.misses = Counter.builder("catalog.cache.requests").tag("result", "miss")
+                .description("Catalog list reads that went to the database").register(meters);
+    }
+
+    /**
+     * The cached value for {@code key}, or {@code loader}'s result (run in a read-only transaction).
+     * Keys must have value equality; cached values are shared and must not be mutated.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Segment segment, Object key, Supplier<T> loader) {
+        Region r = regions.get(segment);
+        long version;
+        synchronized (r) {
+            Entry e = r.entries.get(key);
+            if (e != null && e.expiresAtMs() > clock.getAsLong()) {
+                hits.increment();
+                return (T) e.value();
+            }
+            if (e != null) r.entries.remove(key);
+            version = r.version;
+        }
+        misses.increment();
+        T value = readOnlyTx.execute(status -> loader.get());
+        synchronized (r) {
+            if (maxEntries > 0 && r.version == version) {
+                r.entries.put(key, new Entry(value, clock.getAsLong() + ttlMs));
+            }
+        }
+        return value;
+    }
+
+    /** Bumped by every eviction of the segment on this node. */
+    public long version(Segment segment) {
+        Region r = regions.get(segment);
+        synchronized (r) {
+            return r.version;
+        }
+    }
+
+    /**
+     * Drop the segments now and, when called inside a transaction, again when it completes;
+     * other nodes are notified once the change is visible to them (after commit).
+     */
+    public void invalidate(Segment... segments) {
+        Set<Segment> set = segments.length == 0 ? EnumSet.noneOf(Segment.class) : EnumSet.of(segments[0], segments);
+        if (!set.isEmpty()) set.add(Segment.HOME);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(set);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictLocal(set);
+                    if (status == STATUS_COMMITTED) bus.publish(set);
+                }
+            });
+        } else {
+            evictLocal(set);
+            bus.publish(set);
+        }
+    }
+
+    /** Evict on this node only and notify listeners; also used for invalidations from other nodes. */
+    public void evictLocal(Set<Segment> segments) {
+        evict(segments);
+        for (Consumer<Set<Segment>> listener : evictionListeners) listener.accept(segments);
+    }
+
+    public void onEvicted(Consumer<Set<Segment>> listener) {
+        evictionListeners.add(listener);
+    }
+
+    private void evict(Set<Segment> segments) {
+        for (Segment s : segments) {
+            Region r = regions.get(s);
+            synchronized (r) {
+                r.version++;
+                r.entries.clear();
+            }
+        }
+    }
+
+    public int size(Segment segment) {
+        Region r = regions.get(segment);
+        synchronized (r) {
+            return r.entries.size();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.nousware.service;
+
+import java.util.Set;
+
+/**
+ * Tells the other nodes which CatalogCache segments changed.
+ * Single-node deployments use the no-op bus; app.catalog.cache.redis.enabled=true uses Redis pub/sub.
+ */
+public interface CatalogInvalidationBus {
+
+    CatalogInvalidationBus NONE = segments -> {};
+
+    /** Called after the writing transaction committed; must not throw. */
+    void publish(Set<CatalogCache.Segment> segments);
+}
@@ -0,0 +1,192 @@
+package com.nousware.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Finished catalog responses: the JSON bytes, a gzip copy and a content-hash ETag, cached in
+ * CatalogCache next to the entities, so a hit is a header check and one write of a byte array
+ * (no Jackson, no per-request buffers).
+ * <p>
+ * Recently missed keys are remembered per segment (bounded) and re-rendered on a background
+ * thread as soon as an eviction is final, so the first visitor after an admin write is not the
+ * one paying for the query and serialization.
+ */
+@Component
+public class CatalogJsonCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogJsonCache.class);
+    private static final String JSON = MediaType.APPLICATION_JSON_VALUE;
+
+    /** A serialized response; {@code gzip} is null when compression would not make it smaller. */
+    public record Rendered(byte[] json, byte[] gzip, String etag) {
+
+        /** 304 if the client has it; otherwise the (gzipped, if accepted) bytes with their length. */
+        public void writeTo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            boolean gzipped = gzip != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            String tag = gzipped ? etag.substring(0, etag.length() - 1) + "-gz\"" : etag;
+            response.setHeader(HttpHeaders.ETAG, tag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            if (gzip != null) response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), tag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            byte[] body = gzipped ? gzip : json;
+            response.setContentType(JSON);
+            if (gzipped) response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private final CatalogCache cache;
+    private final ObjectMapper mapper;
+    private final int rebuildKeys;
+    private final Map<CatalogCache.Segment, LinkedHashMap<Object, Supplier<?>>> hotKeys =
+            new EnumMap<>(CatalogCache.Segment.class);
+    private final ThreadPoolExecutor rebuilder;
+
+    public CatalogJsonCache(CatalogCache cache,
+                            ObjectMapper mapper,
+                            @Value("${app.catalog.json.rebuild-keys-per-segment:32}") int rebuildKeys) {
+        this.cache = cache;
+        this.mapper = mapper;
+        this.rebuildKeys = rebuildKeys;
+        for (CatalogCache.Segment s : CatalogCache.Segment.values()) {
+            hotKeys.put(s, new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Supplier<?>> eldest) {
+                    return size() > CatalogJsonCache.this.rebuildKeys;
+                }
+            });
+        }
+        // one thread; a burst of writes queues a few rebuilds and drops the rest (they'd redo the same work)
+        this.rebuilder = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(4), r -> {
+            Thread t = new Thread(r, "catalog-json-rebuild");
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        cache.onEvicted(this::rebuild);
+    }
+
+    /**
+     * The cached response for {@code key} in {@code segment}, serializing {@code body} on a miss.
+     * Pages are written as PagedModel (the VIA_DTO shape the endpoints already returned).
+     */
+    public Rendered render(CatalogCache.Segment segment, Object key, Supplier<?> body) {
+        return cache.get(segment, List.of("json", key), () -> {
+            remember(segment, key, body);
+            Object value = body.get();
+            return serialize(value instanceof Page<?> page ? new PagedModel<>(page) : value);
+        });
+    }
+
+    private Rendered serialize(Object value) {
+        try {
+            byte[] json = mapper.writeValueAsBytes(value);
+            byte[] gzip = gzip(json);
+            String etag = "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json), 0, 16) + "\"";
+            return new Rendered(json, gzip.length < json.length ? gzip : null, etag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Catalog response not serializable", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private void remember(CatalogCache.Segment segment, Object key, Supplier<?> body) {
+        Map<Object, Supplier<?>> keys = hotKeys.get(segment);
+        synchronized (keys) {
+            keys.put(key, body);
+        }
+    }
+
+    private void rebuild(Set<CatalogCache.Segment> segments) {
+        for (CatalogCache.Segment segment : segments) {
+            Map<Object, Supplier<?>> keys = hotKeys.get(segment);
+            List<Map.Entry<Object, Supplier<?>>> snapshot;
+            synchronized (keys) {
+                snapshot = new ArrayList<>(keys.size());
+                keys.forEach((k, v) -> snapshot.add(Map.entry(k, v)));
+            }
+            if (snapshot.isEmpty()) continue;
+            rebuilder.execute(() -> {
+                for (Map.Entry<Object, Supplier<?>> e : snapshot) {
+                    try {
+                        render(segment, e.getKey(), e.getValue());
+                    } catch (RuntimeException ex) {
+                        log.warn("Catalog {} rebuild of {} failed: {}", segment, e.getKey(), ex.toString());
+                    }
+                }
+            });
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] p = part.trim().split(";");
+            if (!p[0].trim().equalsIgnoreCase("gzip")) continue;
+            for (int i = 1; i < p.length; i++) {
+                if (p[i].trim().replace(" ", "").matches("q=0(\\.0{0,3})?")) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.startsWith("W/")) c = c.substring(2);
+            if (c.equals("*") || c.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+}
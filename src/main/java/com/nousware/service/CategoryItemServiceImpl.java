@@ -8,6 +8,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.text.Normalizer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.regex.Pattern;
@@ -17,9 +18,11 @@ import java.util.stream.Collectors;
 public class CategoryItemServiceImpl implements CategoryItemService {
 
     private final CategoryRepository repo;
+    private final CatalogCache cache;
 
-    public CategoryItemServiceImpl(CategoryRepository repo) {
+    public CategoryItemServiceImpl(CategoryRepository repo, CatalogCache cache) {
         this.repo = repo;
+        this.cache = cache;
     }
 
     @Transactional
@@ -43,6 +46,7 @@ public class CategoryItemServiceImpl implements CategoryItemService {
         Category c = new Category();
         c.setName(name.trim());
         c.setSlug(slug);
+        cache.invalidate(CatalogCache.Segment.CATEGORIES);
         return repo.save(c);
     }
 
@@ -68,6 +72,8 @@ public class CategoryItemServiceImpl implements CategoryItemService {
 
         existing.setName(name.trim());
         existing.setSlug(desiredSlug);
+        // services embed their categories
+        cache.invalidate(CatalogCache.Segment.CATEGORIES, CatalogCache.Segment.SERVICES);
         return repo.save(existing);
     }
 
@@ -77,6 +83,7 @@ public class CategoryItemServiceImpl implements CategoryItemService {
         if (!repo.existsById(id)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found");
         }
+        cache.invalidate(CatalogCache.Segment.CATEGORIES, CatalogCache.Segment.SERVICES);
         repo.deleteById(id);
         // If you want FK cascade from service_category, make sure the join table has ON DELETE CASCADE
     }
@@ -88,9 +95,13 @@ public class CategoryItemServiceImpl implements CategoryItemService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
     }
 
-    @Transactional(readOnly = true)
     @Override
     public Page<Category> list(String q, Pageable pageable) {
+        String kw = q == null || q.isBlank() ? null : q.trim().toLowerCase(Locale.ROOT);
+        return cache.get(CatalogCache.Segment.CATEGORIES, Arrays.asList(kw, pageable), () -> load(kw, pageable));
+    }
+
+    private Page<Category> load(String q, Pageable pageable) {
         // If you add a repo method like:
         // Page<Category> findByNameContainingIgnoreCaseOrSlugContainingIgnoreCase(String n, String s, Pageable p);
         // you can use it here. Until then, do a safe in-memory filter with proper paging.
@@ -0,0 +1,33 @@
+package com.nousware.service;
+
+/**
+ * Remembers recently notified contact submissions so admins aren't emailed twice
+ * for the same (email, message) within the dedupe window.
+ * Implementations store only a 64-bit hash of the key, never the message itself.
+ */
+public interface ContactDedupeStore {
+
+    /**
+     * Atomically record the key as notified now. False if it was already recorded within the
+     * window, i.e. this submission is a duplicate; of two concurrent identical calls only one wins.
+     */
+    boolean claim(String email, String message);
+
+    /** Forget a claim whose notification could not be sent, so a retry is not taken for a duplicate. */
+    void release(String email, String message);
+
+    /** 64-bit FNV-1a over "email|message" (email lower-cased/trimmed, message trimmed), then mixed. */
+    static long hash(String email, String message) {
+        long h = 0xcbf29ce484222325L;
+        String e = email == null ? "" : email.trim().toLowerCase();
+        String m = message == null ? "" : message.trim();
+        for (int i = 0; i < e.length(); i++) h = (h ^ e.charAt(i)) * 0x100000001b3L;
+        h = (h ^ '|') * 0x100000001b3L;
+        for (int i = 0; i < m.length(); i++) h = (h ^ m.charAt(i)) * 0x100000001b3L;
+        // splitmix64 finalizer spreads FNV's weak low bits before we mask into a table
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        h ^= h >>> 31;
+        return h == 0 ? 1 : h; // 0 marks an empty slot
+    }
+}
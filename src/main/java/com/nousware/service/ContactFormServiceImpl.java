@@ -15,11 +15,11 @@ import java.time.LocalDateTime;
 public class ContactFormServiceImpl implements ContactFormService {
 
     private final ContactFormRepository repo;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutbox;
 
-    public ContactFormServiceImpl(ContactFormRepository repo, EmailService emailService) {
+    public ContactFormServiceImpl(ContactFormRepository repo, EmailOutboxService emailOutbox) {
         this.repo = repo;
-        this.emailService = emailService;
+        this.emailOutbox = emailOutbox;
     }
 
     @Transactional
@@ -37,8 +37,8 @@ public class ContactFormServiceImpl implements ContactFormService {
 
         ContactForm saved = repo.save(input);
 
-        // notify via email
-        emailService.sendContactNotification(saved);
+        // notify via email (queued; delivered after commit by the outbox dispatcher)
+        emailOutbox.enqueueContactNotification(saved);
 
         return saved;
     }
@@ -2,33 +2,37 @@ package com.nousware.service;
 
 import com.nousware.entities.User;
 import com.nousware.repository.UserRepository;
+import com.nousware.security.AuthenticatedUser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 @Service
-@Transactional(readOnly = true)
 public class CustomUserDetailsService implements UserDetailsService {
 
     private static final Logger log = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     private final UserRepository userRepository;
+    private final RoleCatalog roleCatalog;
+    private final UserDetailsCache cache;
+    private final TransactionTemplate readOnlyTx;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, RoleCatalog roleCatalog,
+                                    UserDetailsCache cache, PlatformTransactionManager txManager) {
         this.userRepository = userRepository;
+        this.roleCatalog = roleCatalog;
+        this.cache = cache;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
         log.info("CustomUserDetailsService initialized");
     }
 
@@ -39,43 +43,33 @@ public class CustomUserDetailsService implements UserDetailsService {
         }
         String normalized = email.trim().toLowerCase();
 
-        User user = userRepository.findByEmailIgnoreCase(normalized)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + normalized));
-
-        if (!user.isEnable()) {
-            throw new DisabledException("User account is not verified yet");
+        // cache hit: no transaction, no connection
+        UserDetailsCache.Entry e = cache.get(normalized);
+        if (e == null) {
+            long epoch = cache.epoch();
+            e = readOnlyTx.execute(s -> {
+                User user = userRepository.findByEmailIgnoreCase(normalized)
+                        .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + normalized));
+                // precomputed per role combination; no role -> ROLE_CLIENT
+                List<GrantedAuthority> authorities = roleCatalog.authorities(roleCatalog.mask(user.getRoles()));
+                return new UserDetailsCache.Entry(user.getUserId(), user.getEmail(), user.getPassword(),
+                        user.isEnable(), authorities, 0L);
+            });
+            cache.put(epoch, e.userId(), e.email(), e.passwordHash(), e.enabled(), e.authorities());
+            log.debug("Loaded user={}, enable={}, authorities={}", e.email(), e.enabled(), e.authorities());
         }
 
-        Collection<? extends GrantedAuthority> authorities = getAuthorities(user);
-        List<String> roleNames = authorities.stream().map(GrantedAuthority::getAuthority).toList();
-        log.debug("Loaded user={}, enable={}, authorities={}", user.getEmail(), user.isEnable(), roleNames);
-
-        // We already checked 'enable', so mark as not disabled here.
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getEmail())
-                .password(user.getPassword() == null ? "{noop}" : user.getPassword())
-                .authorities(authorities)
-                .accountExpired(false)
-                .accountLocked(false)
-                .credentialsExpired(false)
-                .disabled(false)
-                .build();
-    }
-
-    private Collection<? extends GrantedAuthority> getAuthorities(User user) {
-        if (user.getRoles() == null || user.getRoles().isEmpty()) {
-            // Safe default so authenticated users still have a role
-            return Collections.singletonList(new SimpleGrantedAuthority("ROLE_CLIENT"));
+        if (!e.enabled()) {
+            throw new DisabledException("User account is not verified yet");
         }
 
-        return user.getRoles().stream()
-                .map(r -> r == null ? null : r.getRoleName())
-                .filter(Objects::nonNull)
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .map(name -> name.startsWith("ROLE_") ? name : "ROLE_" + name)
-                .distinct()
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+        // We already checked 'enable', so the principal is built enabled/unlocked.
+        // AuthenticatedUser carries the id so login bookkeeping needs no second lookup.
+        // Always a new instance: the returned principal has its credentials erased after authentication.
+        return new AuthenticatedUser(
+                e.userId(),
+                e.email(),
+                e.passwordHash() == null ? "{noop}" : e.passwordHash(),
+                e.authorities());
     }
 }
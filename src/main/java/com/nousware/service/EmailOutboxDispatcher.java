@@ -0,0 +1,127 @@
+package com.nousware.service;
+
+import com.nousware.entities.ContactForm;
+import com.nousware.entities.EmailOutbox;
+import com.nousware.enums.OutboxStatus;
+import com.nousware.repository.ContactFormRepository;
+import com.nousware.repository.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Background sender for the email outbox.
+ * Each tick: claim a batch in a short transaction (FOR UPDATE SKIP LOCKED), commit,
+ * then call the mail provider with no DB connection held, and record the outcome per row.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxRepository outboxRepo;
+    private final ContactFormRepository contactRepo;
+    private final EmailService emailService;
+    private final TransactionTemplate tx;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    /** First retry delay; doubles per attempt up to maxBackoffSeconds. */
+    private final long baseBackoffSeconds;
+    private final long maxBackoffSeconds;
+    /** A SENDING row older than this is assumed orphaned by a crashed dispatcher. */
+    private final long claimTimeoutSeconds;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepo,
+                                 ContactFormRepository contactRepo,
+                                 EmailService emailService,
+                                 PlatformTransactionManager txManager,
+                                 @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                                 @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${app.mail.outbox.base-backoff-seconds:30}") long baseBackoffSeconds,
+                                 @Value("${app.mail.outbox.max-backoff-seconds:3600}") long maxBackoffSeconds,
+                                 @Value("${app.mail.outbox.claim-timeout-seconds:300}") long claimTimeoutSeconds) {
+        this.outboxRepo = outboxRepo;
+        this.contactRepo = contactRepo;
+        this.emailService = emailService;
+        this.tx = new TransactionTemplate(txManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffSeconds = baseBackoffSeconds;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+        this.claimTimeoutSeconds = claimTimeoutSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        List<EmailOutbox> batch;
+        do {
+            batch = claimBatch();
+            for (EmailOutbox row : batch) {
+                deliver(row);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private List<EmailOutbox> claimBatch() {
+        return tx.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> rows = outboxRepo.lockDueBatch(
+                    now, now.minusSeconds(claimTimeoutSeconds), batchSize);
+            for (EmailOutbox row : rows) {
+                row.setStatus(OutboxStatus.SENDING);
+                row.setClaimedAt(now);
+                row.setAttempts(row.getAttempts() + 1);
+            }
+            return rows; // dirty-checked and flushed on commit
+        });
+    }
+
+    private void deliver(EmailOutbox row) {
+        try {
+            switch (row.getEmailType()) {
+                case EMAIL_VERIFY -> emailService.sendVerificationEmail(row.getRecipient(), row.getToken());
+                case PASSWORD_RESET -> emailService.sendPasswordResetEmail(row.getRecipient(), row.getToken());
+                case CONTACT_NOTIFICATION -> emailService.sendContactNotification(loadContact(row));
+                case CONTACT_CONFIRMATION -> emailService.sendContactConfirmation(loadContact(row));
+            }
+            tx.executeWithoutResult(s ->
+                    outboxRepo.markSent(row.getOutboxId(), OutboxStatus.SENT, LocalDateTime.now()));
+        } catch (Exception e) {
+            recordFailure(row, e);
+        }
+    }
+
+    private ContactForm loadContact(EmailOutbox row) {
+        return contactRepo.findById(row.getContactId())
+                .orElseThrow(() -> new IllegalStateException("Contact form " + row.getContactId() + " no longer exists"));
+    }
+
+    private void recordFailure(EmailOutbox row, Exception e) {
+        boolean giveUp = row.getAttempts() >= maxAttempts;
+        long backoff = Math.min(maxBackoffSeconds,
+                baseBackoffSeconds << Math.min(row.getAttempts() - 1, 20));
+        String error = String.valueOf(e.getMessage());
+        if (error.length() > 512) error = error.substring(0, 512);
+
+        OutboxStatus next = giveUp ? OutboxStatus.FAILED : OutboxStatus.PENDING;
+        String lastError = error;
+        tx.executeWithoutResult(s -> outboxRepo.markFailedAttempt(
+                row.getOutboxId(), next, LocalDateTime.now().plusSeconds(backoff), lastError));
+
+        if (giveUp) {
+            log.error("Email outbox {} ({}) failed permanently after {} attempts",
+                    row.getOutboxId(), row.getEmailType(), row.getAttempts(), e);
+        } else {
+            log.warn("Email outbox {} ({}) attempt {} failed, retrying in {}s: {}",
+                    row.getOutboxId(), row.getEmailType(), row.getAttempts(), backoff, error);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.nousware.service;
+
+import com.nousware.entities.ContactForm;
+
+/**
+ * Queues transactional emails in the caller's transaction.
+ * Delivery happens asynchronously (see EmailOutboxDispatcher), so the row commits or
+ * rolls back together with the user/token/contact write that produced it.
+ */
+public interface EmailOutboxService {
+    void enqueueVerificationEmail(String to, String token);
+    void enqueuePasswordResetEmail(String to, String token);
+    void enqueueContactNotification(ContactForm form);
+    void enqueueContactConfirmation(ContactForm form);
+}
@@ -0,0 +1,64 @@
+package com.nousware.service;
+
+import com.nousware.entities.ContactForm;
+import com.nousware.entities.EmailOutbox;
+import com.nousware.enums.EmailType;
+import com.nousware.enums.OutboxStatus;
+import com.nousware.repository.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    private final EmailOutboxRepository repo;
+
+    /** Contact admin notifications go here (same property EmailServiceImpl uses). */
+    @Value("${app.contact.notify-to:${MAIL_FROM}}")
+    private String contactNotifyTo;
+
+    public EmailOutboxServiceImpl(EmailOutboxRepository repo) {
+        this.repo = repo;
+    }
+
+    @Transactional
+    @Override
+    public void enqueueVerificationEmail(String to, String token) {
+        repo.save(newRow(EmailType.EMAIL_VERIFY, to, token, null));
+    }
+
+    @Transactional
+    @Override
+    public void enqueuePasswordResetEmail(String to, String token) {
+        repo.save(newRow(EmailType.PASSWORD_RESET, to, token, null));
+    }
+
+    @Transactional
+    @Override
+    public void enqueueContactNotification(ContactForm form) {
+        repo.save(newRow(EmailType.CONTACT_NOTIFICATION, contactNotifyTo, null, form.getId()));
+    }
+
+    @Transactional
+    @Override
+    public void enqueueContactConfirmation(ContactForm form) {
+        repo.save(newRow(EmailType.CONTACT_CONFIRMATION, form.getEmail(), null, form.getId()));
+    }
+
+    private EmailOutbox newRow(EmailType type, String recipient, String token, Integer contactId) {
+        LocalDateTime now = LocalDateTime.now();
+        EmailOutbox o = new EmailOutbox();
+        o.setEmailType(type);
+        o.setRecipient(recipient);
+        o.setToken(token);
+        o.setContactId(contactId);
+        o.setStatus(OutboxStatus.PENDING);
+        o.setAttempts(0);
+        o.setNextAttemptAt(now);
+        o.setCreatedAt(now);
+        return o;
+    }
+}
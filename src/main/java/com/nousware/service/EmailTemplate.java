@@ -0,0 +1,90 @@
+package com.nousware.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HTML email template parsed once into literal segments and {{placeholder}} slots.
+ * Rendering is a single pass into a pre-sized builder, HTML-escaping values as they are copied.
+ */
+public final class EmailTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String name;
+    private final String[] literals;   // literals.length == slots.length + 1
+    private final String[] slots;
+    private final int literalLength;
+
+    private EmailTemplate(String name, String[] literals, String[] slots) {
+        this.name = name;
+        this.literals = literals;
+        this.slots = slots;
+        int len = 0;
+        for (String l : literals) len += l.length();
+        this.literalLength = len;
+    }
+
+    /** Split the source into literals and slots. Unterminated "{{" is kept as literal text. */
+    public static EmailTemplate compile(String name, String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int pos = 0;
+        StringBuilder literal = new StringBuilder();
+        while (true) {
+            int open = source.indexOf(OPEN, pos);
+            int close = open < 0 ? -1 : source.indexOf(CLOSE, open + OPEN.length());
+            if (open < 0 || close < 0) {
+                literal.append(source, pos, source.length());
+                break;
+            }
+            literal.append(source, pos, open);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            slots.add(source.substring(open + OPEN.length(), close).trim());
+            pos = close + CLOSE.length();
+        }
+        literals.add(literal.toString());
+        return new EmailTemplate(name, literals.toArray(String[]::new), slots.toArray(String[]::new));
+    }
+
+    public String name() { return name; }
+
+    /** Render with every value HTML-escaped. Missing/null values render as empty. */
+    public String render(Map<String, String> values) {
+        int estimate = literalLength;
+        for (String slot : slots) {
+            String v = values.get(slot);
+            if (v != null) estimate += v.length() + (v.length() >> 3); // headroom for entities
+        }
+        StringBuilder out = new StringBuilder(estimate);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            appendEscaped(out, values.get(slots[i]));
+        }
+        out.append(literals[slots.length]);
+        return out.toString();
+    }
+
+    static void appendEscaped(StringBuilder out, String s) {
+        if (s == null) return;
+        int start = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            String entity = switch (s.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (entity != null) {
+                out.append(s, start, i).append(entity);
+                start = i + 1;
+            }
+        }
+        out.append(s, start, s.length());
+    }
+}
@@ -0,0 +1,59 @@
+package com.nousware.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads classpath:templates/*.html once at startup and keeps the compiled form.
+ * With app.mail.templates.hot-reload=true (dev), templates are re-read on every render.
+ */
+@Component
+public class EmailTemplateEngine {
+
+    private static final String LOCATION = "templates/";
+
+    private final boolean hotReload;
+    private final Map<String, EmailTemplate> compiled = new ConcurrentHashMap<>();
+
+    public EmailTemplateEngine(@Value("${app.mail.templates.hot-reload:false}") boolean hotReload) throws IOException {
+        this.hotReload = hotReload;
+        Resource[] resources = new PathMatchingResourcePatternResolver()
+                .getResources("classpath:" + LOCATION + "*.html");
+        for (Resource r : resources) {
+            String file = r.getFilename();
+            if (file == null) continue;
+            String name = file.substring(0, file.length() - ".html".length());
+            compiled.put(name, EmailTemplate.compile(name, read(r)));
+        }
+    }
+
+    public String render(String name, Map<String, String> values) {
+        return template(name).render(values);
+    }
+
+    public EmailTemplate template(String name) {
+        if (hotReload) {
+            return EmailTemplate.compile(name, read(new ClassPathResource(LOCATION + name + ".html")));
+        }
+        return compiled.computeIfAbsent(name,
+                n -> EmailTemplate.compile(n, read(new ClassPathResource(LOCATION + n + ".html"))));
+    }
+
+    private static String read(Resource res) {
+        try (var in = res.getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load email template: " + res.getFilename(), e);
+        }
+    }
+}
@@ -9,12 +9,18 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Arrays;
+
 @Service
 public class FaqServiceImpl implements FaqService {
 
     private final FaqRepository repo;
+    private final CatalogCache cache;
 
-    public FaqServiceImpl(FaqRepository repo) { this.repo = repo; }
+    public FaqServiceImpl(FaqRepository repo, CatalogCache cache) {
+        this.repo = repo;
+        this.cache = cache;
+    }
 
     @Transactional
     @Override
@@ -27,6 +33,7 @@ public class FaqServiceImpl implements FaqService {
         Faq faq = new Faq();
         faq.setQuestion(q);
         faq.setAnswer(a);
+        cache.invalidate(CatalogCache.Segment.FAQS);
         return repo.save(faq);
     }
 
@@ -42,6 +49,7 @@ public class FaqServiceImpl implements FaqService {
         }
         existing.setQuestion(q);
         existing.setAnswer(a);
+        cache.invalidate(CatalogCache.Segment.FAQS);
         return repo.save(existing);
     }
 
@@ -49,6 +57,7 @@ public class FaqServiceImpl implements FaqService {
     @Override
     public void delete(Integer id) {
         if (!repo.existsById(id)) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "FAQ not found");
+        cache.invalidate(CatalogCache.Segment.FAQS);
         repo.deleteById(id);
     }
 
@@ -59,14 +68,12 @@ public class FaqServiceImpl implements FaqService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "FAQ not found"));
     }
 
-    @Transactional(readOnly = true)
     @Override
     public Page<Faq> list(String q, Pageable pageable) {
-        if (q != null && !q.isBlank()) {
-            String kw = q.trim();
-            return repo.findByQuestionContainingIgnoreCaseOrAnswerContainingIgnoreCase(kw, kw, pageable);
-        }
-        return repo.findAll(pageable);
+        String kw = q == null || q.isBlank() ? null : q.trim();
+        return cache.get(CatalogCache.Segment.FAQS, Arrays.asList(kw, pageable), () -> kw == null
+                ? repo.findAll(pageable)
+                : repo.findByQuestionContainingIgnoreCaseOrAnswerContainingIgnoreCase(kw, kw, pageable));
     }
 
     private String sanitize(String s) {
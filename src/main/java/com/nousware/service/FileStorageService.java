@@ -1,9 +1,14 @@
-// src/main/java/com/nousware/service/FileStorageService.java
 package com.nousware.service;
 
+import com.nousware.dto.StoredAvatar;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+
 public interface FileStorageService {
-    /** Store the avatar and return a public URL */
-    String storeUserAvatar(Integer userId, MultipartFile file);
+    /** Validate and process the avatar into fixed renditions and return their public URLs */
+    StoredAvatar storeUserAvatar(Integer userId, MultipartFile file);
+
+    /** Same, from a raw request body ({@code contentLength} -1 if unknown) */
+    StoredAvatar storeUserAvatar(Integer userId, InputStream body, String contentType, long contentLength);
 }
@@ -0,0 +1,93 @@
+package com.nousware.service;
+
+import com.nousware.dto.StoredAvatar;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service // <-- this is the bean MeController needs
+public class FileStorageServiceImpl implements FileStorageService {
+
+    @Value("${app.upload.avatar.default-size:128}")
+    private int defaultSize;             // rendition stored as the user's avatar_url
+
+    private final AvatarProcessor avatarProcessor;
+    private final UploadPolicy uploadPolicy;
+    private final BlobStore blobStore;   // local disk or S3, per app.storage.type
+
+    public FileStorageServiceImpl(AvatarProcessor avatarProcessor, UploadPolicy uploadPolicy, BlobStore blobStore) {
+        this.avatarProcessor = avatarProcessor;
+        this.uploadPolicy = uploadPolicy;
+        this.blobStore = blobStore;
+    }
+
+    @Override
+    public StoredAvatar storeUserAvatar(Integer userId, MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Empty file");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return storeUserAvatar(userId, in, file.getContentType(), file.getSize());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read avatar", e);
+        }
+    }
+
+    /**
+     * The size cap and signature check run on the request thread before the body is read further;
+     * the capped body is then read into memory on the request thread (at most the image cap), so
+     * the avatar pool only decodes and encodes. Each rendition is stored as
+     * avatars/{userId}/{version}/{size}.jpg, where the version is unique per upload, so two uploads
+     * never share a folder. The URLs are only handed out once every rendition is stored; if any put
+     * fails, the renditions already written are deleted (UploadSweeper removes whatever that misses).
+     */
+    @Override
+    public StoredAvatar storeUserAvatar(Integer userId, InputStream body, String contentType, long contentLength) {
+        byte[] image;
+        try {
+            UploadPolicy.Admitted upload = uploadPolicy.admit(body, contentType, contentLength, UploadPolicy.AVATAR_TYPES);
+            image = upload.body().readAllBytes(); // 413 from the capped stream if the client lied about the length
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read avatar", e);
+        }
+        Map<Integer, byte[]> renditions = avatarProcessor.process(image);
+
+        String version = Long.toString(System.currentTimeMillis(), 36)
+                + "-" + Integer.toString(ThreadLocalRandom.current().nextInt(36 * 36 * 36), 36);
+        String dir = "avatars/" + userId + "/" + version + "/";
+        List<String> written = new ArrayList<>(renditions.size());
+        boolean complete = false;
+        try {
+            for (Map.Entry<Integer, byte[]> r : renditions.entrySet()) {
+                String key = dir + r.getKey() + ".jpg";
+                written.add(key);
+                blobStore.put(key, new ByteArrayInputStream(r.getValue()), "image/jpeg");
+            }
+            complete = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store avatar", e);
+        } finally {
+            if (!complete) {
+                for (String key : written) {
+                    try { blobStore.delete(key); } catch (IOException | RuntimeException ignored) { }
+                }
+            }
+        }
+
+        // URLs returned to the frontend
+        String base = blobStore.publicBaseUrl() + "/" + dir;
+        int size = renditions.containsKey(defaultSize) ? defaultSize : renditions.keySet().iterator().next();
+        return new StoredAvatar(base + size + ".jpg", base + "{size}.jpg", avatarProcessor.sizes());
+    }
+}
@@ -0,0 +1,161 @@
+package com.nousware.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Blobs as files under app.upload.base-dir, served by StaticResourceConfig.
+ * Writes stream through a FileChannel with one 64 KiB buffer into a temp file in the destination
+ * folder and are renamed into place, so readers never see a partial file. Listing walks the tree in key order one directory at a time; only the
+ * listings of the folders on the current path are held in memory.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final Path root;
+    private final String publicPrefix;
+
+    public LocalBlobStore(@Value("${app.upload.base-dir:uploads}") String baseDir,
+                          @Value("${app.upload.public-prefix:/uploads}") String publicPrefix) {
+        this.root = Paths.get(baseDir).toAbsolutePath().normalize();
+        this.publicPrefix = publicPrefix;
+    }
+
+    @Override
+    public long put(String key, InputStream body, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            long size = 0;
+            try (ReadableByteChannel in = Channels.newChannel(body);
+                 FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buf = ByteBuffer.allocate(COPY_BUFFER_BYTES);
+                while (in.read(buf) >= 0) {
+                    buf.flip();
+                    while (buf.hasRemaining()) size += out.write(buf);
+                    buf.clear();
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            return size;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public void move(String fromKey, String toKey) throws IOException {
+        Path target = resolve(toKey);
+        Files.createDirectories(target.getParent());
+        Files.move(resolve(fromKey), target, StandardCopyOption.ATOMIC_MOVE);
+        pruneEmptyParents(resolve(fromKey).getParent());
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        Path file = resolve(key);
+        boolean deleted = Files.deleteIfExists(file);
+        if (deleted) pruneEmptyParents(file.getParent());
+        return deleted;
+    }
+
+    @Override
+    public List<BlobInfo> list(String afterKey, int limit) throws IOException {
+        List<BlobInfo> out = new ArrayList<>(limit);
+        if (!Files.isDirectory(root)) return out;
+        String[] after = afterKey == null || afterKey.isEmpty() ? new String[0] : afterKey.split("/");
+        collect(root, after, 0, after.length > 0, out, limit);
+        return out;
+    }
+
+    @Override
+    public String publicBaseUrl() {
+        return publicPrefix;
+    }
+
+    /** Local files are served by the app itself (with sendfile); there is nothing to presign. */
+    @Override
+    public Optional<String> presignedGetUrl(String key, Duration ttl) {
+        return Optional.empty();
+    }
+
+    private void collect(Path dir, String[] after, int depth, boolean onCursorPath,
+                         List<BlobInfo> out, int limit) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path p : entries) names.add(p.getFileName().toString());
+        }
+        Collections.sort(names);
+        for (String name : names) {
+            if (out.size() >= limit) return;
+            boolean childOnPath = false;
+            if (onCursorPath && depth < after.length) {
+                int c = name.compareTo(after[depth]);
+                if (c < 0) continue;
+                if (c == 0) {
+                    if (depth == after.length - 1) continue; // the cursor entry itself was already returned
+                    childOnPath = true;
+                }
+            }
+            Path p = dir.resolve(name);
+            if (Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) {
+                collect(p, after, depth + 1, childOnPath, out, limit);
+            } else if (Files.isRegularFile(p, LinkOption.NOFOLLOW_LINKS)) {
+                String key = root.relativize(p).toString().replace('\\', '/');
+                out.add(new BlobInfo(key, Files.size(p), Files.getLastModifiedTime(p, LinkOption.NOFOLLOW_LINKS).toInstant()));
+            }
+        }
+    }
+
+    /** Remove now-empty version / user / shard folders, stopping below the top-level folders. */
+    private void pruneEmptyParents(Path dir) {
+        while (dir != null && dir.startsWith(root) && dir.getNameCount() - root.getNameCount() >= 2) {
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                if (entries.iterator().hasNext()) return;
+            } catch (IOException e) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(dir);
+            } catch (IOException e) {
+                return; // e.g. an upload just created a file in it
+            }
+            dir = dir.getParent();
+        }
+    }
+
+    private Path resolve(String key) {
+        Path p = root.resolve(key).normalize();
+        if (!p.startsWith(root) || p.equals(root)) throw new IllegalArgumentException("Invalid key: " + key);
+        return p;
+    }
+}
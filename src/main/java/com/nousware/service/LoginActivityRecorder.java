@@ -0,0 +1,79 @@
+package com.nousware.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for users.last_login_at.
+ * Logins only touch an in-memory map (latest timestamp wins per user); a scheduled flush
+ * writes all pending timestamps as one JDBC batch. A crash loses at most one flush interval
+ * of last-login bookkeeping, which is acceptable for this field.
+ */
+@Component
+public class LoginActivityRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginActivityRecorder.class);
+
+    // never moves last_login_at backwards if a stale value is flushed after a newer one
+    private static final String UPDATE_SQL = """
+            UPDATE users SET last_login_at = ?, updated_at = ?
+            WHERE user_id = ? AND (last_login_at IS NULL OR last_login_at < ?)
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final ConcurrentHashMap<Integer, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public LoginActivityRecorder(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void recordLogin(int userId) {
+        LocalDateTime now = LocalDateTime.now();
+        pending.merge(userId, now, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.last-login.flush-interval-ms:30000}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        List<Map.Entry<Integer, LocalDateTime>> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<Integer, LocalDateTime> e : pending.entrySet()) {
+            batch.add(Map.entry(e.getKey(), e.getValue()));
+        }
+
+        try {
+            jdbc.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, e) -> {
+                Timestamp ts = Timestamp.valueOf(e.getValue());
+                ps.setTimestamp(1, ts);
+                ps.setTimestamp(2, ts);
+                ps.setInt(3, e.getKey());
+                ps.setTimestamp(4, ts);
+            });
+        } catch (RuntimeException ex) {
+            // keep entries for the next tick
+            log.warn("Failed to flush {} last-login timestamps: {}", batch.size(), ex.getMessage());
+            return;
+        }
+
+        // drop only what we wrote; a newer login that arrived meanwhile stays queued
+        for (Map.Entry<Integer, LocalDateTime> e : batch) {
+            pending.remove(e.getKey(), e.getValue());
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,55 @@
+package com.nousware.service;
+
+import com.nousware.entities.MailCampaign;
+import com.nousware.enums.CampaignStatus;
+import com.nousware.repository.MailCampaignRepository;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** GET /actuator/mailcampaigns — progress and throughput of queued/running campaigns. */
+@Component
+@Endpoint(id = "mailcampaigns")
+public class MailCampaignEndpoint {
+
+    private final MailCampaignRepository repo;
+
+    public MailCampaignEndpoint(MailCampaignRepository repo) {
+        this.repo = repo;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> active() {
+        return repo.findByStatusIn(List.of(CampaignStatus.PENDING, CampaignStatus.RUNNING, CampaignStatus.FAILED))
+                .stream()
+                .map(this::toProgress)
+                .toList();
+    }
+
+    private Map<String, Object> toProgress(MailCampaign c) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", c.getCampaignId());
+        m.put("subject", c.getSubject());
+        m.put("status", c.getStatus());
+        m.put("sent", c.getSentCount());
+        m.put("totalRecipients", c.getTotalRecipients());
+        m.put("percent", c.getTotalRecipients() == 0 ? 100.0
+                : Math.min(100.0, 100.0 * c.getSentCount() / c.getTotalRecipients()));
+        m.put("checkpointUserId", c.getLastUserId());
+        if (c.getStartedAt() != null) {
+            LocalDateTime end = c.getHeartbeatAt() != null ? c.getHeartbeatAt() : LocalDateTime.now();
+            double seconds = Math.max(1, Duration.between(c.getStartedAt(), end).toSeconds());
+            m.put("recipientsPerSecond", c.getSentCount() / seconds);
+        }
+        m.put("startedAt", c.getStartedAt());
+        m.put("heartbeatAt", c.getHeartbeatAt());
+        if (c.getLastError() != null) m.put("lastError", c.getLastError());
+        return m;
+    }
+}
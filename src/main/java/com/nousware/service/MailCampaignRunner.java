@@ -0,0 +1,225 @@
+package com.nousware.service;
+
+import com.nousware.dto.MailRecipient;
+import com.nousware.entities.MailCampaign;
+import com.nousware.enums.CampaignStatus;
+import com.nousware.repository.MailCampaignRepository;
+import com.nousware.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Background runner for mail campaigns.
+ * Walks verified users with a keyset cursor (user_id > checkpoint, LIMIT batch-size) so only one
+ * batch of lightweight rows is ever in memory, renders each recipient's copy, and sends the batch
+ * as a single Brevo call using messageVersions. Sends are paced to rate-per-second, and the
+ * checkpoint is committed after every accepted batch, so a crash resumes where it left off.
+ * Each claim takes a fresh lease token that every checkpoint, heartbeat and finish must match;
+ * a runner whose lease was taken over stops at its next write (at most the batch in flight is
+ * sent twice).
+ */
+@Component
+public class MailCampaignRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MailCampaignRunner.class);
+
+    private final MailCampaignRepository campaignRepo;
+    private final UserRepository userRepository;
+    private final BrevoMailTransport transport;
+    private final TransactionTemplate tx;
+    private final Counter sentCounter;
+    private final Counter failedBatchCounter;
+    private final LongConsumer sleeper;
+
+    private final String fromEmail;
+    private final int batchSize;          // recipients per provider call (Brevo accepts up to 1000 messageVersions)
+    private final double ratePerSecond;   // upper bound on recipients sent per second
+    private final int maxBatchAttempts;
+    private final long staleAfterSeconds; // a RUNNING campaign whose heartbeat is older than this is taken over
+
+    /** This runner's lease was taken over or the campaign was cancelled/re-queued: stop without writing. */
+    private static final class LeaseLost extends RuntimeException {
+        LeaseLost() {
+            super(null, null, false, false);
+        }
+    }
+
+    @Autowired
+    public MailCampaignRunner(MailCampaignRepository campaignRepo,
+                              UserRepository userRepository,
+                              BrevoMailTransport transport,
+                              PlatformTransactionManager txManager,
+                              MeterRegistry meters,
+                              @Value("${MAIL_FROM}") String fromEmail,
+                              @Value("${app.mail.campaign.batch-size:100}") int batchSize,
+                              @Value("${app.mail.campaign.rate-per-second:20}") double ratePerSecond,
+                              @Value("${app.mail.campaign.max-batch-attempts:5}") int maxBatchAttempts,
+                              @Value("${app.mail.campaign.stale-after-seconds:300}") long staleAfterSeconds) {
+        this(campaignRepo, userRepository, transport, txManager, meters, fromEmail,
+                batchSize, ratePerSecond, maxBatchAttempts, staleAfterSeconds, MailCampaignRunner::sleepMillis);
+    }
+
+    MailCampaignRunner(MailCampaignRepository campaignRepo, UserRepository userRepository,
+                       BrevoMailTransport transport, PlatformTransactionManager txManager, MeterRegistry meters,
+                       String fromEmail, int batchSize, double ratePerSecond, int maxBatchAttempts,
+                       long staleAfterSeconds, LongConsumer sleeper) {
+        if (batchSize < 1 || maxBatchAttempts < 1 || ratePerSecond <= 0 || staleAfterSeconds < 1) {
+            throw new IllegalArgumentException("app.mail.campaign batch-size, max-batch-attempts, rate-per-second "
+                    + "and stale-after-seconds must be positive");
+        }
+        this.campaignRepo = campaignRepo;
+        this.userRepository = userRepository;
+        this.transport = transport;
+        this.tx = new TransactionTemplate(txManager);
+        this.sentCounter = meters.counter("mail.campaign.recipients.sent");
+        this.failedBatchCounter = meters.counter("mail.campaign.batches.failed");
+        this.fromEmail = fromEmail;
+        this.batchSize = batchSize;
+        this.ratePerSecond = ratePerSecond;
+        this.maxBatchAttempts = maxBatchAttempts;
+        this.staleAfterSeconds = staleAfterSeconds;
+        this.sleeper = sleeper;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.campaign.poll-interval-ms:10000}")
+    public void poll() {
+        MailCampaign campaign;
+        while ((campaign = claim()) != null) {
+            run(campaign);
+        }
+    }
+
+    MailCampaign claim() {
+        return tx.execute(s -> campaignRepo
+                .lockNextRunnable(LocalDateTime.now().minusSeconds(staleAfterSeconds))
+                .map(c -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    c.setStatus(CampaignStatus.RUNNING);
+                    if (c.getStartedAt() == null) c.setStartedAt(now);
+                    c.setHeartbeatAt(now);
+                    c.setLeaseToken(UUID.randomUUID().toString());
+                    return c;
+                })
+                .orElse(null));
+    }
+
+    void run(MailCampaign campaign) {
+        int id = campaign.getCampaignId();
+        String lease = campaign.getLeaseToken();
+        EmailTemplate body = EmailTemplate.compile("campaign-" + id, campaign.getHtmlBody());
+        int cursor = campaign.getLastUserId();
+        long nanosPerRecipient = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        log.info("Mail campaign {} running from user_id > {}", id, cursor);
+
+        try {
+            while (true) {
+                List<MailRecipient> batch = userRepository.findVerifiedRecipientsAfter(cursor, PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    finish(id, lease, CampaignStatus.COMPLETED, null);
+                    log.info("Mail campaign {} completed", id);
+                    return;
+                }
+
+                long started = System.nanoTime();
+                String error = sendWithRetry(campaign, lease, body, batch);
+                if (error != null) {
+                    finish(id, lease, CampaignStatus.FAILED, error);
+                    log.error("Mail campaign {} stopped at user_id > {}: {}", id, cursor, error);
+                    return;
+                }
+
+                cursor = batch.get(batch.size() - 1).userId();
+                int lastUserId = cursor;
+                Integer updated = tx.execute(s ->
+                        campaignRepo.checkpoint(id, lease, lastUserId, batch.size(), LocalDateTime.now()));
+                sentCounter.increment(batch.size()); // the provider accepted them either way
+                if (updated == null || updated == 0) throw new LeaseLost();
+
+                pace(started, nanosPerRecipient * batch.size());
+            }
+        } catch (LeaseLost e) {
+            log.info("Mail campaign {} cancelled or taken over; this runner stops after user_id {}", id, cursor);
+        }
+    }
+
+    /** @return null on success, else the last error message */
+    private String sendWithRetry(MailCampaign campaign, String lease, EmailTemplate body, List<MailRecipient> batch) {
+        Map<String, Object> payload = batchPayload(campaign, body, batch);
+        String lastError = null;
+        for (int attempt = 1; attempt <= maxBatchAttempts; attempt++) {
+            if (attempt > 1) {
+                // backoff plus request timeouts can outlast stale-after-seconds: renew, or stop if taken over
+                Integer alive = tx.execute(s ->
+                        campaignRepo.heartbeat(campaign.getCampaignId(), lease, LocalDateTime.now()));
+                if (alive == null || alive == 0) throw new LeaseLost();
+            }
+            try {
+                transport.postJson(payload).join();
+                return null;
+            } catch (RuntimeException e) {
+                failedBatchCounter.increment();
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                lastError = String.valueOf(cause.getMessage());
+                log.warn("Mail campaign {} batch attempt {} failed: {}", campaign.getCampaignId(), attempt, lastError);
+                if (attempt < maxBatchAttempts) sleeper.accept(Math.min(60_000L, 1_000L << attempt));
+            }
+        }
+        return lastError.length() > 512 ? lastError.substring(0, 512) : lastError;
+    }
+
+    private Map<String, Object> batchPayload(MailCampaign campaign, EmailTemplate body, List<MailRecipient> batch) {
+        List<Map<String, Object>> versions = new ArrayList<>(batch.size());
+        String firstHtml = null;
+        for (MailRecipient r : batch) {
+            Map<String, String> values = new HashMap<>(4);
+            values.put("firstName", r.firstName());
+            values.put("lastName", r.lastName());
+            values.put("email", r.email());
+            String html = body.render(values);
+            if (firstHtml == null) firstHtml = html;
+            versions.add(Map.of(
+                    "to", List.of(Map.of("email", r.email())),
+                    "htmlContent", html));
+        }
+        return Map.of(
+                "sender", Map.of("email", fromEmail, "name", "CKS"),
+                "subject", campaign.getSubject(),
+                "htmlContent", firstHtml, // required at top level; each version overrides it
+                "messageVersions", versions);
+    }
+
+    private void finish(int id, String lease, CampaignStatus status, String error) {
+        tx.executeWithoutResult(s -> campaignRepo.finish(id, lease, status, LocalDateTime.now(), error));
+    }
+
+    private void pace(long startedNanos, long budgetNanos) {
+        long remaining = budgetNanos - (System.nanoTime() - startedNanos);
+        if (remaining > 0) sleeper.accept(TimeUnit.NANOSECONDS.toMillis(remaining));
+    }
+
+    private static void sleepMillis(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.nousware.service;
+
+import com.nousware.entities.MailCampaign;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface MailCampaignService {
+    /** Queue an announcement to all verified users; the background runner picks it up. */
+    MailCampaign create(String subject, String html, String createdBy);
+    MailCampaign get(Integer id);
+    Page<MailCampaign> list(Pageable pageable);
+    /** Stop a queued or running campaign after its current batch. */
+    MailCampaign cancel(Integer id);
+    /** Re-queue a FAILED or CANCELLED campaign; it continues from its checkpoint. */
+    MailCampaign resume(Integer id);
+}
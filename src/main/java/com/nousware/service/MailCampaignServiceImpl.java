@@ -0,0 +1,82 @@
+package com.nousware.service;
+
+import com.nousware.entities.MailCampaign;
+import com.nousware.enums.CampaignStatus;
+import com.nousware.repository.MailCampaignRepository;
+import com.nousware.repository.UserRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+
+@Service
+public class MailCampaignServiceImpl implements MailCampaignService {
+
+    private final MailCampaignRepository repo;
+    private final UserRepository userRepository;
+
+    public MailCampaignServiceImpl(MailCampaignRepository repo, UserRepository userRepository) {
+        this.repo = repo;
+        this.userRepository = userRepository;
+    }
+
+    @Transactional
+    @Override
+    public MailCampaign create(String subject, String html, String createdBy) {
+        if (subject == null || subject.isBlank()) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Subject is required");
+        if (html == null || html.isBlank()) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "HTML body is required");
+
+        MailCampaign c = new MailCampaign();
+        c.setSubject(subject.trim());
+        c.setHtmlBody(html);
+        c.setStatus(CampaignStatus.PENDING);
+        c.setLastUserId(0);
+        c.setSentCount(0);
+        c.setTotalRecipients(userRepository.countByEnableTrue()); // estimate for progress reporting
+        c.setCreatedBy(createdBy);
+        c.setCreatedAt(LocalDateTime.now());
+        return repo.save(c);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public MailCampaign get(Integer id) {
+        return repo.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Campaign not found"));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Page<MailCampaign> list(Pageable pageable) {
+        return repo.findAllByOrderByCampaignIdDesc(pageable);
+    }
+
+    @Transactional
+    @Override
+    public MailCampaign cancel(Integer id) {
+        MailCampaign c = get(id);
+        if (c.getStatus() != CampaignStatus.PENDING && c.getStatus() != CampaignStatus.RUNNING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Campaign is already " + c.getStatus());
+        }
+        c.setStatus(CampaignStatus.CANCELLED);
+        c.setFinishedAt(LocalDateTime.now());
+        return repo.save(c);
+    }
+
+    @Transactional
+    @Override
+    public MailCampaign resume(Integer id) {
+        MailCampaign c = get(id);
+        if (c.getStatus() != CampaignStatus.FAILED && c.getStatus() != CampaignStatus.CANCELLED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Only failed or cancelled campaigns can be resumed");
+        }
+        c.setStatus(CampaignStatus.PENDING);
+        c.setFinishedAt(null);
+        c.setLastError(null);
+        return repo.save(c);
+    }
+}
@@ -0,0 +1,27 @@
+package com.nousware.service;
+
+import com.nousware.dto.StoredMedia;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+
+public interface MediaService {
+
+    /** Store the file once per distinct content and return its hash-named public URL. */
+    StoredMedia store(MultipartFile file);
+
+    /**
+     * Store a raw request body. {@code contentType} may be null or application/octet-stream,
+     * in which case the sniffed type is used; {@code contentLength} is -1 if unknown.
+     */
+    StoredMedia store(InputStream body, String contentType, long contentLength);
+
+    /** True if the URL points into the media store (i.e. is reference counted). */
+    boolean isMediaUrl(String url);
+
+    /**
+     * Move one reference from {@code oldUrl} to {@code newUrl} inside the caller's transaction.
+     * Either may be null or a non-media URL, in which case that side is ignored.
+     */
+    void replaceReference(String oldUrl, String newUrl);
+}
@@ -0,0 +1,146 @@
+package com.nousware.service;
+
+import com.nousware.dto.StoredMedia;
+import com.nousware.entities.Media;
+import com.nousware.repository.MediaRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed media store on top of the configured BlobStore.
+ * Uploads pass UploadPolicy (size cap, magic-byte sniffing), then stream through a SHA-256 digest
+ * into a temp key and are renamed to media/{aa}/{bb}/{sha}.{ext}; the extension comes from the
+ * sniffed type, never from the client. If that key already exists the temp copy is dropped, so
+ * identical uploads share one blob and one `media` row. Blob files are never rewritten, which is
+ * what makes their URLs safe to cache forever.
+ * Only the row write runs in a transaction: streaming, hashing and the blob put/rename happen
+ * outside it, so a slow client never holds a pooled connection open.
+ */
+@Service
+public class MediaServiceImpl implements MediaService {
+
+    private final MediaRepository repo;
+    private final UploadPolicy uploadPolicy;
+    private final BlobStore blobStore;
+    private final TransactionTemplate tx;
+    private final String publicBase;
+    private final Pattern mediaUrl;
+
+    public MediaServiceImpl(MediaRepository repo, UploadPolicy uploadPolicy, BlobStore blobStore,
+                            PlatformTransactionManager txManager) {
+        this.repo = repo;
+        this.uploadPolicy = uploadPolicy;
+        this.blobStore = blobStore;
+        this.tx = new TransactionTemplate(txManager);
+        this.publicBase = blobStore.publicBaseUrl() + "/media/";
+        this.mediaUrl = Pattern.compile("^" + Pattern.quote(publicBase)
+                + "[0-9a-f]{2}/[0-9a-f]{2}/([0-9a-f]{64})\\.[a-z0-9]{1,8}$");
+    }
+
+    @Override
+    public StoredMedia store(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Empty file");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return store(in, file.getContentType(), file.getSize());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store media", e);
+        }
+    }
+
+    @Override
+    public StoredMedia store(InputStream body, String contentType, long contentLength) {
+        String tmpKey = null;
+        try {
+            UploadPolicy.Admitted upload = uploadPolicy.admit(body, contentType, contentLength, UploadPolicy.MEDIA_TYPES);
+            String type = upload.contentType();
+            String ext = UploadPolicy.EXTENSIONS.get(type);
+
+            // one write under a temp key, hashed on the way through, then a rename to the hash name
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            String candidate = "media/.upload-" + UUID.randomUUID() + ".tmp";
+            long size = blobStore.put(candidate, new DigestInputStream(upload.body(), sha), type);
+            tmpKey = candidate;
+            String hash = HexFormat.of().formatHex(sha.digest());
+
+            // register (or touch) the row before the blob is in place, so the sweeper's grace period
+            // covers it; a row stored earlier keeps its extension and type, one blob per hash
+            String sniffedType = type, sniffedExt = ext;
+            Media row = tx.execute(s -> {
+                if (repo.insertOrTouch(hash, sniffedType, sniffedExt, size, LocalDateTime.now()) == 1) return null;
+                return repo.findBySha256(hash).orElse(null);
+            });
+            if (row != null) {
+                ext = row.getExtension();
+                type = row.getContentType();
+            }
+
+            String key = blobKey(hash, ext);
+            boolean existed = blobStore.exists(key);
+            if (existed) {
+                blobStore.delete(tmpKey);
+            } else {
+                // same bytes -> same key, so losing a race to a concurrent identical upload is harmless
+                blobStore.move(tmpKey, key);
+            }
+            tmpKey = null;
+
+            return new StoredMedia(publicBase + key.substring("media/".length()), hash, type, size, existed);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store media", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            if (tmpKey != null) {
+                try { blobStore.delete(tmpKey); } catch (IOException ignored) { }
+            }
+        }
+    }
+
+    @Override
+    public boolean isMediaUrl(String url) {
+        return hashOf(url) != null;
+    }
+
+    @Transactional
+    @Override
+    public void replaceReference(String oldUrl, String newUrl) {
+        String oldHash = hashOf(oldUrl);
+        String newHash = hashOf(newUrl);
+        if (oldHash != null && oldHash.equals(newHash)) return;
+        LocalDateTime now = LocalDateTime.now();
+        if (newHash != null && repo.adjustRefCount(newHash, 1, now) == 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown media URL");
+        }
+        if (oldHash != null) repo.adjustRefCount(oldHash, -1, now);
+    }
+
+    /** media/{aa}/{bb}/{sha}.{ext}: two levels of 256 keep directories small at any realistic count. */
+    static String blobKey(String hash, String ext) {
+        return "media/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + "." + ext;
+    }
+
+    private String hashOf(String url) {
+        if (url == null) return null;
+        Matcher m = mediaUrl.matcher(url.trim());
+        return m.matches() ? m.group(1) : null;
+    }
+}
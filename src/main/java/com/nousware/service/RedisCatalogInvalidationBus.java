@@ -0,0 +1,67 @@
+package com.nousware.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Catalog invalidations over one Redis pub/sub channel. Messages are "{nodeId} {SEGMENT,...}";
+ * a node ignores its own messages (it already evicted locally).
+ * Pub/sub is fire-and-forget: a node that is disconnected at publish time misses the message
+ * and relies on the cache TTL.
+ */
+public class RedisCatalogInvalidationBus implements CatalogInvalidationBus, MessageListener {
+
+    public static final String CHANNEL = "catalog:invalidate";
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCatalogInvalidationBus.class);
+
+    private final StringRedisTemplate redis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile Consumer<Set<CatalogCache.Segment>> receiver = segments -> {};
+
+    public RedisCatalogInvalidationBus(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    /** Where invalidations from other nodes are delivered (CatalogCache#evictLocal). */
+    public void onReceive(Consumer<Set<CatalogCache.Segment>> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void publish(Set<CatalogCache.Segment> segments) {
+        if (segments.isEmpty()) return;
+        String names = segments.stream().map(Enum::name).collect(Collectors.joining(","));
+        try {
+            redis.convertAndSend(CHANNEL, nodeId + " " + names);
+        } catch (RuntimeException e) {
+            log.warn("Catalog invalidation {} not published: {}", names, e.toString());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int space = body.indexOf(' ');
+        if (space < 0 || body.substring(0, space).equals(nodeId)) return;
+        Set<CatalogCache.Segment> segments = EnumSet.noneOf(CatalogCache.Segment.class);
+        for (String name : body.substring(space + 1).split(",")) {
+            try {
+                segments.add(CatalogCache.Segment.valueOf(name.trim()));
+            } catch (IllegalArgumentException unknown) {
+                // sent by a newer version; nothing cached under that name here
+            }
+        }
+        if (!segments.isEmpty()) receiver.accept(segments);
+    }
+}
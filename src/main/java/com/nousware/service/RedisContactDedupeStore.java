@@ -0,0 +1,37 @@
+package com.nousware.service;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Cluster-wide dedupe: one Redis key per 64-bit hash, expiring after the window.
+ * Redis evicts by TTL, so memory tracks submissions per window, not total traffic.
+ */
+public class RedisContactDedupeStore implements ContactDedupeStore {
+
+    private static final String PREFIX = "contact:dedupe:";
+
+    private final StringRedisTemplate redis;
+    private final Duration window;
+
+    public RedisContactDedupeStore(StringRedisTemplate redis, Duration window) {
+        this.redis = redis;
+        this.window = window;
+    }
+
+    // SET NX EX: check and record in one round trip, so concurrent duplicates can't both pass
+    @Override
+    public boolean claim(String email, String message) {
+        return Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(key(email, message), "1", window));
+    }
+
+    @Override
+    public void release(String email, String message) {
+        redis.delete(key(email, message));
+    }
+
+    private static String key(String email, String message) {
+        return PREFIX + Long.toHexString(ContactDedupeStore.hash(email, message));
+    }
+}
@@ -0,0 +1,324 @@
+package com.nousware.service;
+
+import com.nousware.entities.Role;
+import com.nousware.repository.RoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Immutable in-memory snapshot of the roles table.
+ * Role codes are normalized (trimmed, upper-case, no ROLE_ prefix), interned and ordered ADMIN first,
+ * then alphabetically; a user's roles collapse to a bit mask over that order, and the authority and
+ * code lists for every mask are built once per snapshot. The snapshot is loaded when the application
+ * is ready and swapped on reload(): on a schedule, and at most once per minute when a role id or code
+ * is not in the current snapshot. Rows whose names normalize to the same code (ADMIN and ROLE_ADMIN)
+ * share that code's bit, so neither id is dropped; the lowest id is the one assigned, and the
+ * collision is logged.
+ */
+@Component
+public class RoleCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(RoleCatalog.class);
+
+    public static final String ADMIN = "ADMIN";
+    public static final String CLIENT = "CLIENT";
+
+    /** 2^10 precomputed lists per kind; larger catalogs build lists per call. */
+    private static final int MAX_PRECOMPUTED_ROLES = 10;
+    /** Masks are longs. */
+    private static final int MAX_ROLES = 63;
+    private static final long MISS_RELOAD_INTERVAL_MS = 60_000;
+    private static final List<GrantedAuthority> DEFAULT_AUTHORITIES =
+            List.of(new SimpleGrantedAuthority("ROLE_" + CLIENT));
+
+    private final RoleRepository roleRepository;
+    private volatile Snapshot snapshot;
+    private volatile long lastMissReload;
+
+    public RoleCatalog(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    /** Strip ROLE_, trim, upper-case; null/blank -> null. */
+    public static String normalize(String role) {
+        if (role == null) return null;
+        String s = role.trim().toUpperCase();
+        if (s.startsWith("ROLE_")) s = s.substring(5);
+        return s.isEmpty() ? null : s;
+    }
+
+    /** ADMIN if present (codes are ADMIN-first); else the first code; else CLIENT. */
+    public static String topRole(List<String> codes) {
+        return codes == null || codes.isEmpty() ? CLIENT : codes.get(0);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAtStartup() {
+        reload();
+    }
+
+    // first run one interval after the startup load
+    @Scheduled(fixedDelayString = "${app.auth.roles.refresh-interval-ms:600000}",
+            initialDelayString = "${app.auth.roles.refresh-interval-ms:600000}")
+    public void reload() {
+        List<Role> rows = roleRepository.findAll();
+        Snapshot next = Snapshot.build(rows);
+        snapshot = next;
+        log.debug("Role catalog loaded: {}", Arrays.toString(next.codes));
+    }
+
+    public long mask(Collection<Role> roles) {
+        if (roles == null || roles.isEmpty()) return 0L;
+        Snapshot s = snapshot();
+        long mask = 0L;
+        for (Role r : roles) {
+            if (r == null) continue;
+            int i = s.indexOfId(r.getRoleId());
+            if (i < 0 && reloadOnMiss()) {
+                s = snapshot;
+                i = s.indexOfId(r.getRoleId());
+            }
+            if (i >= 0) mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    /** Mask from role names or authority strings (ROLE_X or X); unknown codes are ignored. */
+    public long maskOfCodes(Collection<String> names) {
+        if (names == null || names.isEmpty()) return 0L;
+        Snapshot s = snapshot();
+        long mask = 0L;
+        for (String name : names) {
+            String code = normalize(name);
+            Integer i = code == null ? null : s.indexByCode.get(code);
+            if (i != null) mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    /** ROLE_X authorities for UserDetails; no roles -> ROLE_CLIENT. */
+    public List<GrantedAuthority> authorities(long mask) {
+        if (mask == 0L) return DEFAULT_AUTHORITIES;
+        return snapshot().authorities(mask, false);
+    }
+
+    /** ROLE_X and bare X authorities, as granted to OIDC principals. */
+    public List<GrantedAuthority> oidcAuthorities(long mask) {
+        return snapshot().authorities(mask, true);
+    }
+
+    /** Normalized codes, ADMIN first then alphabetical. */
+    public List<String> codes(long mask) {
+        return snapshot().codes(mask);
+    }
+
+    public List<String> codes(Collection<Role> roles) {
+        return codes(mask(roles));
+    }
+
+    /** Role id for this code (ROLE_ prefix and case ignored); unknown codes -> empty. */
+    public OptionalInt idOf(String code) {
+        String normalized = normalize(code);
+        if (normalized == null) return OptionalInt.empty();
+        Snapshot s = snapshot();
+        Integer i = s.indexByCode.get(normalized);
+        if (i == null && reloadOnMiss()) {
+            s = snapshot;
+            i = s.indexByCode.get(normalized);
+        }
+        return i == null ? OptionalInt.empty() : OptionalInt.of(s.roleIds[i]);
+    }
+
+    /**
+     * Every role id that normalizes to this code, the assigned one first (ids ascending); unknown
+     * codes -> empty. Queries that test or remove a role must match all of them.
+     */
+    public List<Integer> idsOf(String code) {
+        String normalized = normalize(code);
+        if (normalized == null) return List.of();
+        Snapshot s = snapshot();
+        Integer i = s.indexByCode.get(normalized);
+        if (i == null && reloadOnMiss()) {
+            s = snapshot;
+            i = s.indexByCode.get(normalized);
+        }
+        return i == null ? List.of() : s.aliasIds.get(i);
+    }
+
+    /**
+     * Managed reference to the role with this code (no SELECT); must be called inside a transaction.
+     * Unknown codes -> empty.
+     */
+    public Optional<Role> reference(String code) {
+        OptionalInt id = idOf(code);
+        return id.isPresent() ? Optional.of(roleRepository.getReferenceById(id.getAsInt())) : Optional.empty();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                if (snapshot == null) reload();
+                s = snapshot;
+            }
+        }
+        return s;
+    }
+
+    private boolean reloadOnMiss() {
+        long now = System.currentTimeMillis();
+        if (now - lastMissReload < MISS_RELOAD_INTERVAL_MS) return false;
+        lastMissReload = now;
+        reload();
+        return true;
+    }
+
+    static final class Snapshot {
+        final String[] codes;
+        final int[] roleIds;
+        /** Per code, every row id that normalizes to it, ascending (so roleIds[i] comes first). */
+        final List<List<Integer>> aliasIds;
+        /** All role ids (aliases included) ascending, and the index into codes for each. */
+        final int[] sortedIds;
+        final int[] indexAtSortedId;
+        final Map<String, Integer> indexByCode;
+        final GrantedAuthority[] prefixed;
+        final GrantedAuthority[] bare;
+        /** Indexed by mask; null when the catalog is too large to precompute. */
+        final List<GrantedAuthority>[] authoritiesByMask;
+        final List<GrantedAuthority>[] oidcAuthoritiesByMask;
+        final List<String>[] codesByMask;
+
+        /** {@code roleIds[i]} is the assigned id for codes[i]; {@code aliasIds} are colliding rows' ids per code. */
+        private Snapshot(String[] codes, int[] roleIds, int[][] aliasIds) {
+            this.codes = codes;
+            this.roleIds = roleIds;
+            this.aliasIds = Arrays.stream(aliasIds).map(ids -> Arrays.stream(ids).boxed().toList()).toList();
+            int total = 0;
+            for (int[] ids : aliasIds) total += ids.length;
+            long[] idAndIndex = new long[total];
+            int n = 0;
+            for (int i = 0; i < codes.length; i++) {
+                for (int id : aliasIds[i]) idAndIndex[n++] = ((long) id << 32) | i;
+            }
+            Arrays.sort(idAndIndex);
+            this.sortedIds = new int[total];
+            this.indexAtSortedId = new int[total];
+            for (int k = 0; k < total; k++) {
+                sortedIds[k] = (int) (idAndIndex[k] >> 32);
+                indexAtSortedId[k] = (int) idAndIndex[k];
+            }
+            Map<String, Integer> byCode = new HashMap<>();
+            this.prefixed = new GrantedAuthority[codes.length];
+            this.bare = new GrantedAuthority[codes.length];
+            for (int i = 0; i < codes.length; i++) {
+                byCode.put(codes[i], i);
+                prefixed[i] = new SimpleGrantedAuthority(("ROLE_" + codes[i]).intern());
+                bare[i] = new SimpleGrantedAuthority(codes[i]);
+            }
+            this.indexByCode = Map.copyOf(byCode);
+
+            if (codes.length <= MAX_PRECOMPUTED_ROLES) {
+                int combos = 1 << codes.length;
+                this.authoritiesByMask = newListArray(combos);
+                this.oidcAuthoritiesByMask = newListArray(combos);
+                this.codesByMask = newListArray(combos);
+                for (int m = 0; m < combos; m++) {
+                    authoritiesByMask[m] = buildAuthorities(m, false);
+                    oidcAuthoritiesByMask[m] = buildAuthorities(m, true);
+                    codesByMask[m] = buildCodes(m);
+                }
+            } else {
+                this.authoritiesByMask = null;
+                this.oidcAuthoritiesByMask = null;
+                this.codesByMask = null;
+            }
+        }
+
+        static Snapshot build(List<Role> rows) {
+            Map<String, List<Role>> rowsByCode = new HashMap<>();
+            for (Role r : rows) {
+                String code = normalize(r.getRoleName());
+                if (code == null) continue;
+                rowsByCode.computeIfAbsent(code.intern(), c -> new ArrayList<>()).add(r);
+            }
+            rowsByCode.forEach((code, same) -> {
+                if (same.size() > 1) {
+                    same.sort(Comparator.comparingInt(Role::getRoleId));
+                    log.warn("Roles {} all normalize to {}; they share it and role id {} is assigned",
+                            same.stream().map(r -> r.getRoleId() + "=" + r.getRoleName()).toList(),
+                            code, same.get(0).getRoleId());
+                }
+            });
+            List<String> ordered = new ArrayList<>(rowsByCode.keySet());
+            ordered.sort(Comparator.comparing((String c) -> !ADMIN.equals(c)).thenComparing(Comparator.naturalOrder()));
+            if (ordered.size() > MAX_ROLES) {
+                log.warn("Role catalog has {} roles; only the first {} are mapped", ordered.size(), MAX_ROLES);
+                ordered = ordered.subList(0, MAX_ROLES);
+            }
+            String[] codes = ordered.toArray(new String[0]);
+            int[] ids = new int[codes.length];
+            int[][] aliases = new int[codes.length][];
+            for (int i = 0; i < codes.length; i++) {
+                aliases[i] = rowsByCode.get(codes[i]).stream().mapToInt(Role::getRoleId).toArray();
+                ids[i] = aliases[i][0];
+            }
+            return new Snapshot(codes, ids, aliases);
+        }
+
+        int indexOfId(int roleId) {
+            int at = Arrays.binarySearch(sortedIds, roleId);
+            return at >= 0 ? indexAtSortedId[at] : -1;
+        }
+
+        List<GrantedAuthority> authorities(long mask, boolean includeBare) {
+            if (authoritiesByMask != null) {
+                return (includeBare ? oidcAuthoritiesByMask : authoritiesByMask)[(int) mask];
+            }
+            return buildAuthorities(mask, includeBare);
+        }
+
+        List<String> codes(long mask) {
+            return codesByMask != null ? codesByMask[(int) mask] : buildCodes(mask);
+        }
+
+        private List<GrantedAuthority> buildAuthorities(long mask, boolean includeBare) {
+            List<GrantedAuthority> out = new ArrayList<>(Long.bitCount(mask) * (includeBare ? 2 : 1));
+            for (int i = 0; i < codes.length; i++) {
+                if ((mask & (1L << i)) == 0) continue;
+                out.add(prefixed[i]);
+                if (includeBare) out.add(bare[i]);
+            }
+            return List.copyOf(out);
+        }
+
+        private List<String> buildCodes(long mask) {
+            List<String> out = new ArrayList<>(Long.bitCount(mask));
+            for (int i = 0; i < codes.length; i++) {
+                if ((mask & (1L << i)) != 0) out.add(codes[i]);
+            }
+            return List.copyOf(out);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> List<T>[] newListArray(int size) {
+            return (List<T>[]) new List[size];
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.nousware.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Blobs in an S3-compatible bucket (AWS S3, MinIO, R2, ...) over the plain REST API with SigV4.
+ * <ul>
+ *   <li>Bodies are read in part-size chunks: a body that fits one chunk is a single PutObject,
+ *       anything larger becomes a multipart upload (aborted on failure), so memory per upload is
+ *       bounded by part-size whatever the file size.</li>
+ *   <li>move = server-side CopyObject + DeleteObject; the bytes never come back through the app.</li>
+ *   <li>Browsers download with presigned GET URLs (or straight from public-base-url, e.g. a CDN
+ *       in front of the bucket), so the app serves no file bytes.</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+public class S3BlobStore implements BlobStore {
+
+    private final URI endpoint;
+    private final String bucket;
+    private final boolean pathStyle;
+    private final int partSize;
+    private final Duration requestTimeout;
+    private final String publicBaseUrl;
+    private final S3RequestSigner signer;
+    private final Clock clock;
+    private final HttpClient client;
+
+    @Autowired
+    public S3BlobStore(@Value("${app.storage.s3.endpoint}") String endpoint,
+                       @Value("${app.storage.s3.region:us-east-1}") String region,
+                       @Value("${app.storage.s3.bucket}") String bucket,
+                       @Value("${app.storage.s3.access-key}") String accessKey,
+                       @Value("${app.storage.s3.secret-key}") String secretKey,
+                       @Value("${app.storage.s3.path-style:true}") boolean pathStyle,
+                       @Value("${app.storage.s3.part-size-bytes:8388608}") int partSize,
+                       @Value("${app.storage.s3.request-timeout-ms:30000}") long requestTimeoutMs,
+                       @Value("${app.storage.s3.public-base-url:}") String publicBaseUrl,
+                       @Value("${app.upload.public-prefix:/uploads}") String publicPrefix) {
+        this(endpoint, region, bucket, accessKey, secretKey, pathStyle, partSize, requestTimeoutMs,
+                publicBaseUrl.isBlank() ? publicPrefix : publicBaseUrl.replaceAll("/+$", ""), Clock.systemUTC());
+    }
+
+    S3BlobStore(String endpoint, String region, String bucket, String accessKey, String secretKey,
+                boolean pathStyle, int partSize, long requestTimeoutMs, String publicBaseUrl, Clock clock) {
+        URI base = URI.create(endpoint.replaceAll("/+$", ""));
+        this.endpoint = pathStyle ? base
+                : URI.create(base.getScheme() + "://" + bucket + "." + S3RequestSigner.hostHeader(base));
+        this.bucket = bucket;
+        this.pathStyle = pathStyle;
+        this.partSize = Math.max(partSize, 5 * 1024 * 1024); // S3 minimum for all but the last part
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.publicBaseUrl = publicBaseUrl;
+        this.signer = new S3RequestSigner(accessKey, secretKey, region, clock);
+        this.clock = clock;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @Override
+    public long put(String key, InputStream body, String contentType) throws IOException {
+        byte[] chunk = body.readNBytes(partSize);
+        if (chunk.length < partSize) {
+            Map<String, String> headers = contentType == null ? Map.of() : Map.of("content-type", contentType);
+            expect(send("PUT", objectPath(key), Map.of(), headers, chunk), 200);
+            return chunk.length;
+        }
+
+        Map<String, String> create = new TreeMap<>();
+        create.put("uploads", "");
+        Map<String, String> headers = contentType == null ? Map.of() : Map.of("content-type", contentType);
+        String uploadId = text(xml(expect(send("POST", objectPath(key), create, headers, new byte[0]), 200)), "UploadId");
+        try {
+            List<String> etags = new ArrayList<>();
+            long total = 0;
+            while (chunk.length > 0) {
+                Map<String, String> q = new TreeMap<>();
+                q.put("partNumber", Integer.toString(etags.size() + 1));
+                q.put("uploadId", uploadId);
+                HttpResponse<byte[]> part = expect(send("PUT", objectPath(key), q, Map.of(), chunk), 200);
+                etags.add(part.headers().firstValue("ETag").orElseThrow(() -> new IOException("S3 part without ETag")));
+                total += chunk.length;
+                chunk = body.readNBytes(partSize);
+            }
+            StringBuilder complete = new StringBuilder("<CompleteMultipartUpload>");
+            for (int i = 0; i < etags.size(); i++) {
+                complete.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                        .append(etags.get(i)).append("</ETag></Part>");
+            }
+            complete.append("</CompleteMultipartUpload>");
+            HttpResponse<byte[]> done = expect(send("POST", objectPath(key), Map.of("uploadId", uploadId),
+                    Map.of("content-type", "application/xml"), complete.toString().getBytes(StandardCharsets.UTF_8)), 200);
+            failOnEmbeddedError(done); // S3 may report a failed completion inside a 200
+            return total;
+        } catch (IOException | RuntimeException e) {
+            try {
+                send("DELETE", objectPath(key), Map.of("uploadId", uploadId), Map.of(), new byte[0]);
+            } catch (IOException abortFailure) {
+                e.addSuppressed(abortFailure);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        int status = send("HEAD", objectPath(key), Map.of(), Map.of(), new byte[0]).statusCode();
+        if (status == 404) return false;
+        if (status == 200) return true;
+        throw new IOException("S3 HEAD " + key + " failed: " + status);
+    }
+
+    @Override
+    public void move(String fromKey, String toKey) throws IOException {
+        String source = "/" + bucket + "/" + S3RequestSigner.encodePath(fromKey);
+        failOnEmbeddedError(expect(send("PUT", objectPath(toKey), Map.of(),
+                Map.of("x-amz-copy-source", source), new byte[0]), 200));
+        delete(fromKey);
+    }
+
+    /** S3 answers 204 whether or not the key existed, so this is true unless the call fails. */
+    @Override
+    public boolean delete(String key) throws IOException {
+        expect(send("DELETE", objectPath(key), Map.of(), Map.of(), new byte[0]), 204, 200);
+        return true;
+    }
+
+    @Override
+    public List<BlobInfo> list(String afterKey, int limit) throws IOException {
+        Map<String, String> q = new TreeMap<>();
+        q.put("list-type", "2");
+        q.put("max-keys", Integer.toString(Math.min(limit, 1000)));
+        if (afterKey != null && !afterKey.isEmpty()) q.put("start-after", afterKey);
+        Document doc = xml(expect(send("GET", bucketPath(), q, Map.of(), new byte[0]), 200));
+        NodeList contents = doc.getElementsByTagName("Contents");
+        List<BlobInfo> out = new ArrayList<>(contents.getLength());
+        for (int i = 0; i < contents.getLength(); i++) {
+            Element c = (Element) contents.item(i);
+            out.add(new BlobInfo(text(c, "Key"), Long.parseLong(text(c, "Size")), Instant.parse(text(c, "LastModified"))));
+        }
+        return out;
+    }
+
+    @Override
+    public String publicBaseUrl() {
+        return publicBaseUrl;
+    }
+
+    /**
+     * Signed at the start of the current hour and valid for ttl plus that hour: every request in
+     * the hour gets the same URL, so browser caches keyed on it keep hitting the immutable object,
+     * and whenever it is handed out it still has at least ttl to live.
+     */
+    @Override
+    public Optional<String> presignedGetUrl(String key, Duration ttl) {
+        Instant hour = clock.instant().truncatedTo(ChronoUnit.HOURS);
+        return Optional.of(signer.presign(endpoint, objectPath(key), hour, ttl.plusHours(1)).toString());
+    }
+
+    // ===================== HTTP =====================
+
+    private HttpResponse<byte[]> send(String method, String rawPath, Map<String, String> query,
+                                      Map<String, String> headers, byte[] body) throws IOException {
+        String payloadSha = body.length == 0 ? S3RequestSigner.EMPTY_SHA256 : S3RequestSigner.sha256Hex(body);
+        String queryString = S3RequestSigner.canonicalQuery(query);
+        URI uri = URI.create(S3RequestSigner.origin(endpoint) + rawPath + (queryString.isEmpty() ? "" : "?" + queryString));
+        HttpRequest.Builder req = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .method(method, body.length == 0 ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        headers.forEach(req::header);
+        signer.sign(method, endpoint, rawPath, query, headers, payloadSha).forEach(req::header);
+        try {
+            return client.send(req.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during S3 " + method, e);
+        }
+    }
+
+    private static HttpResponse<byte[]> expect(HttpResponse<byte[]> res, int... ok) throws IOException {
+        for (int s : ok) {
+            if (res.statusCode() == s) return res;
+        }
+        String body = new String(res.body(), StandardCharsets.UTF_8);
+        throw new IOException("S3 " + res.request().method() + " " + res.uri().getPath() + " failed: "
+                + res.statusCode() + " " + body.substring(0, Math.min(body.length(), 300)));
+    }
+
+    private static void failOnEmbeddedError(HttpResponse<byte[]> res) throws IOException {
+        String body = new String(res.body(), StandardCharsets.UTF_8);
+        if (body.contains("<Error>")) throw new IOException("S3 " + res.uri().getPath() + " failed: " + body);
+    }
+
+    private String bucketPath() {
+        return pathStyle ? "/" + bucket : "/";
+    }
+
+    private String objectPath(String key) {
+        return (pathStyle ? "/" + bucket + "/" : "/") + S3RequestSigner.encodePath(key);
+    }
+
+    private static Document xml(HttpResponse<byte[]> res) throws IOException {
+        try {
+            DocumentBuilderFactory f = DocumentBuilderFactory.newInstance();
+            f.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            f.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            return f.newDocumentBuilder().parse(new ByteArrayInputStream(res.body()));
+        } catch (Exception e) {
+            throw new IOException("Unreadable S3 response", e);
+        }
+    }
+
+    private static String text(Document doc, String tag) throws IOException {
+        return text(doc.getDocumentElement(), tag);
+    }
+
+    private static String text(Element parent, String tag) throws IOException {
+        NodeList nodes = parent.getElementsByTagName(tag);
+        if (nodes.getLength() == 0) throw new IOException("S3 response without " + tag);
+        return nodes.item(0).getTextContent();
+    }
+}
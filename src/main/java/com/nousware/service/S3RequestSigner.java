@@ -0,0 +1,167 @@
+package com.nousware.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * AWS Signature Version 4 for the S3 REST API: Authorization headers for requests made by
+ * S3BlobStore, and query-string presigning for GET URLs handed to browsers.
+ * Paths passed in must already be URI-encoded ({@link #encodePath}); query parameters are raw.
+ */
+final class S3RequestSigner {
+
+    static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    static final String EMPTY_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    static final long MAX_PRESIGN_SECONDS = 604_800;
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final DateTimeFormatter AMZ_DATE =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+    private final Clock clock;
+
+    S3RequestSigner(String accessKey, String secretKey, String region, Clock clock) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+        this.clock = clock;
+    }
+
+    /**
+     * Headers to add to the request: x-amz-date, x-amz-content-sha256 and Authorization.
+     * {@code headers} are extra headers to sign (e.g. content-type, x-amz-copy-source); names lower-case.
+     */
+    Map<String, String> sign(String method, URI endpoint, String rawPath, Map<String, String> query,
+                             Map<String, String> headers, String payloadSha256) {
+        String amzDate = AMZ_DATE.format(clock.instant());
+        TreeMap<String, String> signed = new TreeMap<>(headers);
+        signed.put("host", hostHeader(endpoint));
+        signed.put("x-amz-content-sha256", payloadSha256);
+        signed.put("x-amz-date", amzDate);
+
+        String signedHeaders = String.join(";", signed.keySet());
+        StringBuilder canonicalHeaders = new StringBuilder();
+        signed.forEach((k, v) -> canonicalHeaders.append(k).append(':').append(v.trim()).append('\n'));
+
+        String canonicalRequest = method + "\n" + rawPath + "\n" + canonicalQuery(query) + "\n"
+                + canonicalHeaders + "\n" + signedHeaders + "\n" + payloadSha256;
+        String scope = amzDate.substring(0, 8) + "/" + region + "/s3/aws4_request";
+        String signature = signature(amzDate, scope, canonicalRequest);
+
+        Map<String, String> out = new LinkedHashMap<>();
+        out.put("x-amz-date", amzDate);
+        out.put("x-amz-content-sha256", payloadSha256);
+        out.put("Authorization", ALGORITHM + " Credential=" + accessKey + "/" + scope
+                + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature);
+        return out;
+    }
+
+    /**
+     * A URL anyone can GET from {@code signedAt} until {@code expires} later (max 7 days), signed
+     * over the host header only. The same inputs always give the same URL.
+     */
+    URI presign(URI endpoint, String rawPath, Instant signedAt, Duration expires) {
+        String amzDate = AMZ_DATE.format(signedAt);
+        String scope = amzDate.substring(0, 8) + "/" + region + "/s3/aws4_request";
+        Map<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", ALGORITHM);
+        query.put("X-Amz-Credential", accessKey + "/" + scope);
+        query.put("X-Amz-Date", amzDate);
+        query.put("X-Amz-Expires", Long.toString(Math.min(expires.toSeconds(), MAX_PRESIGN_SECONDS)));
+        query.put("X-Amz-SignedHeaders", "host");
+
+        String canonicalRequest = "GET\n" + rawPath + "\n" + canonicalQuery(query) + "\n"
+                + "host:" + hostHeader(endpoint) + "\n\nhost\n" + UNSIGNED_PAYLOAD;
+        String signature = signature(amzDate, scope, canonicalRequest);
+        return URI.create(origin(endpoint) + rawPath + "?" + canonicalQuery(query) + "&X-Amz-Signature=" + signature);
+    }
+
+    static String canonicalQuery(Map<String, String> query) {
+        if (query == null || query.isEmpty()) return "";
+        TreeMap<String, String> sorted = new TreeMap<>();
+        query.forEach((k, v) -> sorted.put(encode(k, true), encode(v == null ? "" : v, true)));
+        StringBuilder sb = new StringBuilder();
+        sorted.forEach((k, v) -> {
+            if (sb.length() > 0) sb.append('&');
+            sb.append(k).append('=').append(v);
+        });
+        return sb.toString();
+    }
+
+    /** RFC 3986 encoding of each path segment, keeping the slashes. */
+    static String encodePath(String path) {
+        return encode(path, false);
+    }
+
+    static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String hostHeader(URI endpoint) {
+        int port = endpoint.getPort();
+        boolean defaultPort = port == -1
+                || ("https".equals(endpoint.getScheme()) && port == 443)
+                || ("http".equals(endpoint.getScheme()) && port == 80);
+        return defaultPort ? endpoint.getHost() : endpoint.getHost() + ":" + port;
+    }
+
+    static String origin(URI endpoint) {
+        return endpoint.getScheme() + "://" + hostHeader(endpoint);
+    }
+
+    private String signature(String amzDate, String scope, String canonicalRequest) {
+        String stringToSign = ALGORITHM + "\n" + amzDate + "\n" + scope + "\n"
+                + sha256Hex(canonicalRequest.getBytes(StandardCharsets.UTF_8));
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), amzDate.substring(0, 8));
+        key = hmac(key, region);
+        key = hmac(key, "s3");
+        key = hmac(key, "aws4_request");
+        return HexFormat.of().formatHex(hmac(key, stringToSign));
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String s, boolean encodeSlash) {
+        StringBuilder sb = new StringBuilder(s.length() + 16);
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (c == '/' && !encodeSlash)) {
+                sb.append(c);
+            } else {
+                sb.append('%').append(Character.toUpperCase(Character.forDigit((b >> 4) & 0xF, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(b & 0xF, 16)));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -1,15 +1,22 @@
 package com.nousware.service;
 
+import com.nousware.dto.CategoryFacet;
+import com.nousware.dto.ServiceFilter;
 import com.nousware.entities.Service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 public interface ServiceItemService {
     Service create(Service input);
     Service update(Integer id, Service input);
     void delete(Integer id);
     Service get(Integer id);
 
-    // UPDATED: allow optional category slug filter
-    Page<Service> list(String q, String categorySlug, Pageable pageable);
+    // Keyword + any of several categories + mostPopular, all applied together
+    Page<Service> list(ServiceFilter filter, Pageable pageable);
+
+    // Per-category counts for the filter's keyword/popularity (its own categories are ignored)
+    List<CategoryFacet> facets(ServiceFilter filter);
 }
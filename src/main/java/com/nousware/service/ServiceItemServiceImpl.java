@@ -1,17 +1,24 @@
 package com.nousware.service; // Package for service-layer classes
 
+import com.nousware.dto.CategoryFacet;
+import com.nousware.dto.ServiceFilter;
 import com.nousware.entities.Category;
 import com.nousware.entities.Service; // Import your JPA entity
 import com.nousware.repository.CategoryRepository;
 import com.nousware.repository.ServiceRepository; // Import JPA repository for Service
 import org.springframework.data.domain.Page; // Paging support
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable; // Paging request
 import org.springframework.http.HttpStatus; // HTTP status codes for errors
 import org.springframework.transaction.annotation.Transactional; // Transaction management
 import org.springframework.web.server.ResponseStatusException; // Throw web-friendly errors
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -20,11 +27,16 @@ public class ServiceItemServiceImpl implements ServiceItemService {
 
     private final ServiceRepository repo;          // Repository dependency
     private final CategoryRepository categoryRepo; // NEW: to resolve incoming category ids
+    private final MediaService mediaService;       // ref-counts hash-named image URLs
+    private final CatalogCache cache;              // list results, evicted by every write below
 
     // Constructor injection
-    public ServiceItemServiceImpl(ServiceRepository repo, CategoryRepository categoryRepo) {
+    public ServiceItemServiceImpl(ServiceRepository repo, CategoryRepository categoryRepo, MediaService mediaService,
+                                  CatalogCache cache) {
         this.repo = repo;
         this.categoryRepo = categoryRepo;
+        this.mediaService = mediaService;
+        this.cache = cache;
     }
 
     @Transactional
@@ -45,6 +57,8 @@ public class ServiceItemServiceImpl implements ServiceItemService {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Title already exists");
         }
 
+        mediaService.replaceReference(null, imageUrl);
+
         // Build
         Service s = new Service();
         s.setTitle(title);
@@ -60,6 +74,7 @@ public class ServiceItemServiceImpl implements ServiceItemService {
             s.setCategories(resolveCategoriesFromInput(input.getCategories()));
         }
 
+        cache.invalidate(CatalogCache.Segment.SERVICES);
         return repo.save(s);
     }
 
@@ -84,6 +99,8 @@ public class ServiceItemServiceImpl implements ServiceItemService {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Title already exists");
         }
 
+        mediaService.replaceReference(existing.getImageUrl(), imageUrl);
+
         // Apply updates
         existing.setTitle(title);
         existing.setDescription(desc);
@@ -102,16 +119,18 @@ public class ServiceItemServiceImpl implements ServiceItemService {
             }
         }
 
+        cache.invalidate(CatalogCache.Segment.SERVICES);
         return repo.save(existing);
     }
 
     @Transactional
     @Override
     public void delete(Integer id) {
-        if (!repo.existsById(id)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Service not found");
-        }
-        repo.deleteById(id);
+        Service existing = repo.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Service not found"));
+        mediaService.replaceReference(existing.getImageUrl(), null);
+        cache.invalidate(CatalogCache.Segment.SERVICES);
+        repo.delete(existing);
     }
 
     @Transactional(readOnly = true)
@@ -122,21 +141,28 @@ public class ServiceItemServiceImpl implements ServiceItemService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Service not found"));
     }
 
-    @Transactional(readOnly = true)
+    // Served from CatalogCache; a miss runs in a read-only transaction
     @Override
-    public Page<Service> list(String q, String categorySlug, Pageable pageable) {
-        boolean hasQ = q != null && !q.isBlank();
-        boolean hasCat = categorySlug != null && !categorySlug.isBlank();
-
-        if (hasQ && hasCat) {
-            return repo.findByCategorySlug(categorySlug.trim(), pageable);
-        } else if (hasCat) {
-            return repo.findByCategorySlug(categorySlug.trim(), pageable);
-        } else if (hasQ) {
-            String kw = q.trim();
-            return repo.findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(kw, kw, pageable);
-        }
-        return repo.findAll(pageable);
+    public Page<Service> list(ServiceFilter filter, Pageable pageable) {
+        return cache.get(CatalogCache.Segment.SERVICES, Arrays.asList(filter, pageable),
+                () -> withCategories(repo.findIds(filter, pageable)));
+    }
+
+    @Override
+    public List<CategoryFacet> facets(ServiceFilter filter) {
+        // only q/mostPopular shape the counts, so every category selection shares one entry
+        ServiceFilter key = filter.withoutCategories();
+        return cache.get(CatalogCache.Segment.SERVICES, Arrays.asList("facets", key),
+                () -> repo.countByCategory(key));
+    }
+
+    // Phase two: one IN query for the page, returned in the page's order
+    private Page<Service> withCategories(Page<Integer> ids) {
+        if (!ids.hasContent()) return new PageImpl<>(List.of(), ids.getPageable(), ids.getTotalElements());
+        Map<Integer, Service> byId = new HashMap<>();
+        for (Service s : repo.findWithCategoriesByIdIn(ids.getContent())) byId.put(s.getServiceId(), s);
+        List<Service> content = ids.getContent().stream().map(byId::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
     }
 
     // === Helpers ===
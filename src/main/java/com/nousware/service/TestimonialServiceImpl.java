@@ -11,15 +11,20 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.net.URI;
+import java.util.Arrays;
 import java.time.LocalDateTime;
 
 @Service
 public class TestimonialServiceImpl implements TestimonialService {
 
     private final TestimonialRepository repo;
+    private final MediaService mediaService;
+    private final CatalogCache cache;
 
-    public TestimonialServiceImpl(TestimonialRepository repo) {
+    public TestimonialServiceImpl(TestimonialRepository repo, MediaService mediaService, CatalogCache cache) {
         this.repo = repo;
+        this.mediaService = mediaService;
+        this.cache = cache;
     }
 
     /* ==================== CREATE ==================== */
@@ -33,7 +38,9 @@ public class TestimonialServiceImpl implements TestimonialService {
         t.setCreatedAt(LocalDateTime.now());
         t.setFavorite(input.isFavorite());
         t.setImgUrl(sanitizeUrl(input.getImgUrl()));
+        mediaService.replaceReference(null, t.getImgUrl());
 
+        cache.invalidate(CatalogCache.Segment.TESTIMONIALS);
         return repo.save(t);
     }
 
@@ -46,8 +53,11 @@ public class TestimonialServiceImpl implements TestimonialService {
 
         existing.setContent(requireText(input.getContent(), "Content is required"));
         existing.setFavorite(input.isFavorite());
-        existing.setImgUrl(sanitizeUrl(input.getImgUrl()));
+        String imgUrl = sanitizeUrl(input.getImgUrl());
+        mediaService.replaceReference(existing.getImgUrl(), imgUrl);
+        existing.setImgUrl(imgUrl);
 
+        cache.invalidate(CatalogCache.Segment.TESTIMONIALS);
         return repo.save(existing);
     }
 
@@ -55,10 +65,11 @@ public class TestimonialServiceImpl implements TestimonialService {
     @Transactional
     @Override
     public void delete(Integer id) {
-        if (!repo.existsById(id)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Testimonial not found");
-        }
-        repo.deleteById(id);
+        Testimonial existing = repo.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Testimonial not found"));
+        mediaService.replaceReference(existing.getImgUrl(), null);
+        cache.invalidate(CatalogCache.Segment.TESTIMONIALS);
+        repo.delete(existing);
     }
 
     /* ==================== GET ONE ==================== */
@@ -70,9 +81,15 @@ public class TestimonialServiceImpl implements TestimonialService {
     }
 
     /* ==================== LIST ENTITIES ==================== */
-    @Transactional(readOnly = true)
     @Override
     public Page<Testimonial> list(String q, Boolean favorite, Pageable pageable) {
+        String kw = q == null || q.isBlank() ? null : q.trim();
+        boolean fav = Boolean.TRUE.equals(favorite);
+        return cache.get(CatalogCache.Segment.TESTIMONIALS, Arrays.asList("entity", kw, fav, pageable),
+                () -> load(kw, fav, pageable));
+    }
+
+    private Page<Testimonial> load(String q, Boolean favorite, Pageable pageable) {
         if (Boolean.TRUE.equals(favorite)) {
             return repo.findByFavoriteTrue(pageable);
         }
@@ -83,10 +100,12 @@ public class TestimonialServiceImpl implements TestimonialService {
     }
 
     /* ==================== LIST VIEW (DTO) ==================== */
-    @Transactional(readOnly = true)
     @Override
     public Page<ViewTestimonial> listView(String q, Boolean favorite, Pageable pageable) {
-        return list(q, favorite, pageable).map(this::toView);
+        String kw = q == null || q.isBlank() ? null : q.trim();
+        boolean fav = Boolean.TRUE.equals(favorite);
+        return cache.get(CatalogCache.Segment.TESTIMONIALS, Arrays.asList("view", kw, fav, pageable),
+                () -> load(kw, fav, pageable).map(this::toView));
     }
 
     @Transactional(readOnly = true)
@@ -117,6 +136,7 @@ public class TestimonialServiceImpl implements TestimonialService {
     private String sanitizeUrl(String url) {
         if (url == null || url.isBlank()) return null;
         String trimmed = url.trim();
+        if (mediaService.isMediaUrl(trimmed)) return trimmed; // our own hash-named upload
         try {
             URI u = URI.create(trimmed);
             if (u.getScheme() == null || u.getHost() == null) return null;
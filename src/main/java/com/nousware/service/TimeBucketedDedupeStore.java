@@ -0,0 +1,126 @@
+package com.nousware.service;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory time wheel of hash sets. The window is split into fixed-width buckets, each a
+ * fixed-capacity open-addressing table of 64-bit hashes. When the wheel turns onto a bucket
+ * from an older lap, that bucket is wiped in one shot, so expiry costs nothing per entry and
+ * memory is buckets x capacity x 8 bytes no matter how much traffic arrives.
+ * A full bucket keeps recording by evicting an entry for the new one (counted in
+ * {@link #overflowCount()}): under a flood the latest submissions stay deduped and only an
+ * evicted one can be notified twice.
+ */
+public class TimeBucketedDedupeStore implements ContactDedupeStore {
+
+    private static final int MAX_LOAD_PERCENT = 75;
+
+    private final long bucketWidthMs;
+    final long[][] tables;
+    private final long[] bucketEpoch;   // which bucket-width slice each table currently holds
+    final int[] sizes;
+    private final int mask;
+    private final LongSupplier clock;
+    private long overflows;             // guarded by this
+
+    /**
+     * @param windowMs        dedupe window (e.g. 15 minutes)
+     * @param bucketWidthMs   time slice per bucket (e.g. 1 minute); expiry granularity
+     * @param bucketCapacity  slots per bucket, rounded up to a power of two
+     */
+    public TimeBucketedDedupeStore(long windowMs, long bucketWidthMs, int bucketCapacity, LongSupplier clock) {
+        if (windowMs <= 0 || bucketWidthMs <= 0 || bucketCapacity <= 0) {
+            throw new IllegalArgumentException("window, bucket width and capacity must be positive");
+        }
+        int buckets = (int) ((windowMs + bucketWidthMs - 1) / bucketWidthMs) + 1; // +1 for the partial current slice
+        int capacity = Integer.highestOneBit(Math.max(2, bucketCapacity - 1)) << 1;
+        this.bucketWidthMs = bucketWidthMs;
+        this.tables = new long[buckets][capacity];
+        this.bucketEpoch = new long[buckets];
+        Arrays.fill(bucketEpoch, Long.MIN_VALUE);
+        this.sizes = new int[buckets];
+        this.mask = capacity - 1;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized boolean claim(String email, String message) {
+        long h = ContactDedupeStore.hash(email, message);
+        long current = clock.getAsLong() / bucketWidthMs;
+        for (int b = 0; b < tables.length; b++) {
+            if (live(b, current) && indexOf(tables[b], h) >= 0) return false;
+        }
+        int b = (int) Math.floorMod(current, (long) tables.length);
+        if (bucketEpoch[b] != current) {
+            Arrays.fill(tables[b], 0L);
+            sizes[b] = 0;
+            bucketEpoch[b] = current;
+        }
+        if (sizes[b] * 100 >= tables[b].length * MAX_LOAD_PERCENT) {
+            // full: evict the first entry at or after h's home slot (effectively a random one)
+            int victim = (int) h & mask;
+            while (tables[b][victim] == 0) victim = (victim + 1) & mask;
+            remove(tables[b], tables[b][victim]);
+            sizes[b]--;
+            overflows++;
+        }
+        insert(tables[b], h);
+        sizes[b]++;
+        return true;
+    }
+
+    @Override
+    public synchronized void release(String email, String message) {
+        long h = ContactDedupeStore.hash(email, message);
+        long current = clock.getAsLong() / bucketWidthMs;
+        for (int b = 0; b < tables.length; b++) {
+            if (live(b, current) && remove(tables[b], h)) sizes[b]--;
+        }
+    }
+
+    /** Submissions recorded by evicting another hash because their bucket was full. */
+    public synchronized long overflowCount() {
+        return overflows;
+    }
+
+    /** Bytes held by the hash tables; constant for the lifetime of the store. */
+    public long footprintBytes() {
+        return (long) tables.length * tables[0].length * Long.BYTES;
+    }
+
+    private boolean live(int b, long current) {
+        return bucketEpoch[b] > current - tables.length;
+    }
+
+    private int indexOf(long[] table, long h) {
+        for (int i = (int) h & mask; ; i = (i + 1) & mask) {
+            long v = table[i];
+            if (v == h) return i;
+            if (v == 0) return -1;
+        }
+    }
+
+    private void insert(long[] table, long h) {
+        int i = (int) h & mask;
+        while (table[i] != 0) i = (i + 1) & mask;
+        table[i] = h;
+    }
+
+    /** Linear-probing delete with backward shift, so no tombstones are needed. */
+    private boolean remove(long[] table, long h) {
+        int hole = indexOf(table, h);
+        if (hole < 0) return false;
+        for (int j = (hole + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+            int home = (int) table[j] & mask;
+            // an entry may fill the hole unless its home lies cyclically in (hole, j]
+            boolean stays = hole <= j ? hole < home && home <= j : hole < home || home <= j;
+            if (!stays) {
+                table[hole] = table[j];
+                hole = j;
+            }
+        }
+        table[hole] = 0;
+        return true;
+    }
+}
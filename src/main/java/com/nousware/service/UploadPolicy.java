@@ -0,0 +1,167 @@
+package com.nousware.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Admission checks shared by every upload path, applied before anything touches the disk:
+ * the declared Content-Length against the per-type cap, then the first bytes against known file
+ * signatures (the declared type must agree), and finally a hard cap while the body streams, for
+ * clients that send no or a false length.
+ */
+@Component
+public class UploadPolicy {
+
+    public static final String JPEG = "image/jpeg";
+    public static final String PNG = "image/png";
+    public static final String GIF = "image/gif";
+    public static final String WEBP = "image/webp";
+    public static final String BMP = "image/bmp";
+    public static final String PDF = "application/pdf";
+
+    /** Sniffed types any upload endpoint may accept, by purpose. */
+    public static final Set<String> AVATAR_TYPES = Set.of(JPEG, PNG, GIF, BMP);
+    public static final Set<String> MEDIA_TYPES = Set.of(JPEG, PNG, GIF, WEBP, PDF);
+
+    /** Blob file extension per sniffed type. */
+    public static final Map<String, String> EXTENSIONS = Map.of(
+            JPEG, "jpg", PNG, "png", GIF, "gif", WEBP, "webp", BMP, "bmp", PDF, "pdf");
+
+    /** Longest signature we look at (WEBP: RIFF....WEBP). */
+    private static final int HEAD_BYTES = 12;
+
+    /** What a checked upload turned out to be; {@code body} replays the sniffed bytes and enforces the cap. */
+    public record Admitted(String contentType, long maxBytes, InputStream body) {}
+
+    private final long imageMaxBytes;
+    private final long pdfMaxBytes;
+
+    public UploadPolicy(@Value("${app.upload.limits.image-max-bytes:10485760}") long imageMaxBytes,
+                        @Value("${app.upload.limits.pdf-max-bytes:20971520}") long pdfMaxBytes) {
+        this.imageMaxBytes = imageMaxBytes;
+        this.pdfMaxBytes = pdfMaxBytes;
+    }
+
+    public long maxBytes(String contentType) {
+        return PDF.equals(contentType) ? pdfMaxBytes : imageMaxBytes;
+    }
+
+    /**
+     * @param declaredType  request Content-Type (may be null or application/octet-stream)
+     * @param contentLength declared length, or -1 if unknown
+     * @param allowed       sniffed types this endpoint accepts
+     * @throws ResponseStatusException 413 over the cap, 415 unknown or mismatching content
+     */
+    public Admitted admit(InputStream in, String declaredType, long contentLength, Set<String> allowed)
+            throws IOException {
+        String declared = normalize(declaredType);
+        boolean generic = declared == null || declared.equals("application/octet-stream");
+        if (!generic && !allowed.contains(declared)) throw unsupported();
+        if (!generic) checkLength(contentLength, maxBytes(declared));
+
+        byte[] head = in.readNBytes(HEAD_BYTES);
+        if (head.length == 0) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Empty file");
+        String sniffed = sniff(head);
+        if (sniffed == null || !allowed.contains(sniffed)) throw unsupported();
+        if (!generic && !declared.equals(sniffed)) {
+            throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                    "File content does not match " + declared);
+        }
+        long max = maxBytes(sniffed);
+        checkLength(contentLength, max);
+        InputStream body = new CappedInputStream(new SequenceInputStream(new ByteArrayInputStream(head), in), max);
+        return new Admitted(sniffed, max, body);
+    }
+
+    /** Type from the leading bytes, or null if not one we accept anywhere. */
+    static String sniff(byte[] b) {
+        if (startsWith(b, 0xFF, 0xD8, 0xFF)) return JPEG;
+        if (startsWith(b, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) return PNG;
+        if (startsWith(b, 'G', 'I', 'F', '8') && b.length >= 6 && (b[4] == '7' || b[4] == '9') && b[5] == 'a') return GIF;
+        if (startsWith(b, 'R', 'I', 'F', 'F') && b.length >= 12
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P') return WEBP;
+        if (startsWith(b, 'B', 'M')) return BMP;
+        if (startsWith(b, '%', 'P', 'D', 'F', '-')) return PDF;
+        return null;
+    }
+
+    private static boolean startsWith(byte[] b, int... sig) {
+        if (b.length < sig.length) return false;
+        for (int i = 0; i < sig.length; i++) {
+            if ((b[i] & 0xFF) != sig[i]) return false;
+        }
+        return true;
+    }
+
+    private static String normalize(String contentType) {
+        if (contentType == null || contentType.isBlank()) return null;
+        String t = contentType.toLowerCase(Locale.ROOT);
+        int semi = t.indexOf(';');
+        return (semi >= 0 ? t.substring(0, semi) : t).trim();
+    }
+
+    private static void checkLength(long contentLength, long max) {
+        if (contentLength > max) throw tooLarge(max);
+    }
+
+    private static ResponseStatusException tooLarge(long max) {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "File exceeds " + max + " bytes");
+    }
+
+    private static ResponseStatusException unsupported() {
+        return new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Unsupported file type");
+    }
+
+    /** Fails with 413 as soon as more than {@code max} bytes have been read. */
+    static final class CappedInputStream extends FilterInputStream {
+        private final long max;
+        private long count;
+
+        CappedInputStream(InputStream in, long max) {
+            super(in);
+            this.max = max;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) count(n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void count(long n) {
+            count += n;
+            if (count > max) throw tooLarge(max);
+        }
+    }
+}
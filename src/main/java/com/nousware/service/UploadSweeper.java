@@ -0,0 +1,268 @@
+package com.nousware.service;
+
+import com.nousware.repository.MediaRepository;
+import com.nousware.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Deletes upload files nothing points at any more.
+ * <p>
+ * The BlobStore is listed in key order a batch at a time (locally one directory listing at a
+ * time, never a full Files.walk), up to max-files-per-run files per run; the key of the last file
+ * checked is saved to cursor-file so the next run, or the next process, resumes after it. Each
+ * batch is checked with one query:
+ * <ul>
+ *   <li>avatars/{userId}/{version}/{size}.jpg: kept while that user's avatar_url points into the
+ *       version folder; legacy avatars/{userId}/{file}: kept while avatar_url is that file.</li>
+ *   <li>media/{aa}/{bb}/{sha}.{ext}[.gz|.br]: kept while the media row has references or changed
+ *       within the grace period; the row is deleted conditionally and the blobs are deleted in the
+ *       same transaction, so a concurrent new reference or re-upload of the same bytes wins.</li>
+ *   <li>Leftover temp files/folders of interrupted uploads are always removed.</li>
+ * </ul>
+ * Nothing modified within the grace period is touched, which covers uploads whose DB write has
+ * not committed yet. Results are exposed as counters and at /actuator/uploadsweeper.
+ */
+@Component
+public class UploadSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadSweeper.class);
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+    /** Totals and the last run, as reported by the actuator endpoint. */
+    public record Status(String cursor, long passesCompleted, LocalDateTime lastRunAt,
+                         int lastScanned, int lastDeleted, long lastReclaimedBytes,
+                         long totalDeleted, long totalReclaimedBytes) {}
+
+    private final BlobStore blobStore;
+    private final UserRepository userRepository;
+    private final MediaRepository mediaRepository;
+    private final TransactionTemplate tx;
+    private final Path cursorFile;
+    private final Duration grace;
+    private final int batchSize;
+    private final int maxFilesPerRun;
+    private final Counter deletedFiles;
+    private final Counter reclaimedBytes;
+
+    private volatile Status status;
+
+    public UploadSweeper(BlobStore blobStore,
+                         UserRepository userRepository,
+                         MediaRepository mediaRepository,
+                         PlatformTransactionManager txManager,
+                         MeterRegistry meters,
+                         @Value("${app.upload.sweeper.cursor-file:data/upload-sweeper.cursor}") String cursorFile,
+                         @Value("${app.upload.sweeper.grace-hours:24}") long graceHours,
+                         @Value("${app.upload.sweeper.batch-size:500}") int batchSize,
+                         @Value("${app.upload.sweeper.max-files-per-run:20000}") int maxFilesPerRun) {
+        this.blobStore = blobStore;
+        this.userRepository = userRepository;
+        this.mediaRepository = mediaRepository;
+        this.tx = new TransactionTemplate(txManager);
+        this.cursorFile = Paths.get(cursorFile).toAbsolutePath().normalize();
+        this.grace = Duration.ofHours(graceHours);
+        this.batchSize = batchSize;
+        this.maxFilesPerRun = maxFilesPerRun;
+        this.deletedFiles = Counter.builder("uploads.sweeper.deleted")
+                .description("Unreferenced upload files deleted")
+                .baseUnit("files")
+                .register(meters);
+        this.reclaimedBytes = Counter.builder("uploads.sweeper.reclaimed")
+                .description("Disk space freed by deleting unreferenced uploads")
+                .baseUnit("bytes")
+                .register(meters);
+        this.status = new Status(readCursor(), 0, null, 0, 0, 0, 0, 0);
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    @Scheduled(fixedDelayString = "${app.upload.sweeper.interval-ms:3600000}",
+            initialDelayString = "${app.upload.sweeper.initial-delay-ms:300000}")
+    public synchronized void sweep() {
+        long cutoffMillis = System.currentTimeMillis() - grace.toMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minus(grace);
+        String cursor = readCursor();
+        long passes = status.passesCompleted();
+        int scanned = 0;
+        int deleted = 0;
+        long bytes = 0;
+        try {
+            while (scanned < maxFilesPerRun) {
+                int want = Math.min(batchSize, maxFilesPerRun - scanned);
+                List<BlobStore.BlobInfo> batch = blobStore.list(cursor, want);
+                scanned += batch.size();
+                if (!batch.isEmpty()) {
+                    long[] freed = sweepBatch(batch, cutoffMillis, cutoff);
+                    deleted += (int) freed[0];
+                    bytes += freed[1];
+                    cursor = batch.get(batch.size() - 1).key();
+                }
+                if (batch.size() < want) { // reached the end of the tree; next run starts over
+                    cursor = "";
+                    passes++;
+                    writeCursor(cursor);
+                    break;
+                }
+                writeCursor(cursor);
+            }
+        } catch (IOException e) {
+            log.warn("Upload sweep stopped at '{}': {}", cursor, e.toString());
+        }
+        Status prev = status;
+        status = new Status(cursor, passes, LocalDateTime.now(), scanned, deleted, bytes,
+                prev.totalDeleted() + deleted, prev.totalReclaimedBytes() + bytes);
+        if (deleted > 0) {
+            log.info("Upload sweep deleted {} files ({} bytes), cursor '{}'", deleted, bytes, cursor);
+        }
+    }
+
+    /** @return {files deleted, bytes freed} */
+    private long[] sweepBatch(List<BlobStore.BlobInfo> batch, long cutoffMillis, LocalDateTime cutoff) throws IOException {
+        List<BlobStore.BlobInfo> temps = new ArrayList<>();
+        Map<BlobStore.BlobInfo, String[]> avatars = new LinkedHashMap<>();
+        Map<String, List<BlobStore.BlobInfo>> media = new LinkedHashMap<>(); // sha -> blob and its .gz/.br
+        Set<Integer> userIds = new HashSet<>();
+
+        for (BlobStore.BlobInfo file : batch) {
+            if (file.lastModified().toEpochMilli() >= cutoffMillis) continue;
+            String[] seg = file.key().split("/");
+            if (isTemp(seg)) {
+                temps.add(file);
+            } else if (seg[0].equals("avatars") && (seg.length == 3 || seg.length == 4) && isUserId(seg[1])) {
+                avatars.put(file, seg);
+                userIds.add(Integer.valueOf(seg[1]));
+            } else if (seg[0].equals("media") && seg.length == 4) {
+                String sha = seg[3].contains(".") ? seg[3].substring(0, seg[3].indexOf('.')) : seg[3];
+                if (SHA256.matcher(sha).matches()) media.computeIfAbsent(sha, k -> new ArrayList<>()).add(file);
+            }
+        }
+
+        List<BlobStore.BlobInfo> doomed = new ArrayList<>(temps);
+
+        if (!avatars.isEmpty()) {
+            Map<Integer, String> current = new HashMap<>();
+            for (UserRepository.AvatarRef ref : userRepository.findAvatarRefs(userIds)) {
+                if (ref.getAvatarUrl() != null) current.put(ref.getUserId(), ref.getAvatarUrl().trim());
+            }
+            for (Map.Entry<BlobStore.BlobInfo, String[]> e : avatars.entrySet()) {
+                String[] seg = e.getValue();
+                String url = current.get(Integer.valueOf(seg[1]));
+                String base = blobStore.publicBaseUrl() + "/avatars/" + seg[1] + "/";
+                boolean referenced = url != null && (seg.length == 4
+                        ? url.startsWith(base + seg[2] + "/")
+                        : url.equals(base + seg[2]));
+                if (!referenced) doomed.add(e.getKey());
+            }
+        }
+
+        long[] freed = new long[2];
+        for (BlobStore.BlobInfo file : doomed) deleteBlob(file, freed);
+
+        if (!media.isEmpty()) {
+            Set<String> retained = new HashSet<>(mediaRepository.findRetained(media.keySet(), cutoff));
+            Set<String> known = new HashSet<>(mediaRepository.findExisting(media.keySet()));
+            for (Map.Entry<String, List<BlobStore.BlobInfo>> e : media.entrySet()) {
+                if (!retained.contains(e.getKey())) {
+                    sweepMedia(e.getKey(), e.getValue(), known.contains(e.getKey()), cutoff, freed);
+                }
+            }
+        }
+        return freed;
+    }
+
+    /**
+     * Deletes a media row and its blobs in one transaction: the conditional DELETE locks the row
+     * (or, if there is none, the gap where it would go) until the blobs are gone and the
+     * transaction commits. A concurrent re-upload's insertOrTouch waits on that lock, then finds
+     * no blob and puts its own copy in place, instead of seeing the old blob, dropping its temp
+     * copy and losing the file to this sweep. A failed blob delete rolls the row delete back, so
+     * the next pass retries.
+     */
+    private void sweepMedia(String sha, List<BlobStore.BlobInfo> files, boolean hasRow,
+                            LocalDateTime cutoff, long[] freed) throws IOException {
+        try {
+            tx.executeWithoutResult(t -> {
+                boolean unreferenced = mediaRepository.deleteIfUnreferenced(sha, cutoff) == 1
+                        // no row before: delete only if none was inserted meanwhile (the gap is locked now)
+                        || (!hasRow && mediaRepository.findExisting(List.of(sha)).isEmpty());
+                if (!unreferenced) return;
+                try {
+                    for (BlobStore.BlobInfo file : files) deleteBlob(file, freed);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** @param freed {files deleted, bytes freed}, accumulated */
+    private void deleteBlob(BlobStore.BlobInfo file, long[] freed) throws IOException {
+        if (blobStore.delete(file.key())) {
+            freed[0]++;
+            freed[1] += file.size();
+            deletedFiles.increment();
+            reclaimedBytes.increment(file.size());
+        }
+    }
+
+    private static boolean isTemp(String[] seg) {
+        for (String s : seg) {
+            if (s.startsWith(".tmp-") || s.startsWith(".upload-")) return true;
+        }
+        return false;
+    }
+
+    private static boolean isUserId(String s) {
+        if (s.isEmpty() || s.length() > 9) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (!Character.isDigit(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private String readCursor() {
+        try {
+            return Files.exists(cursorFile) ? Files.readString(cursorFile, StandardCharsets.UTF_8).trim() : "";
+        } catch (IOException e) {
+            log.warn("Cannot read upload sweeper cursor {}: {}", cursorFile, e.toString());
+            return "";
+        }
+    }
+
+    private void writeCursor(String cursor) throws IOException {
+        Files.createDirectories(cursorFile.getParent());
+        Path tmp = cursorFile.resolveSibling(cursorFile.getFileName() + ".tmp");
+        Files.writeString(tmp, cursor, StandardCharsets.UTF_8);
+        Files.move(tmp, cursorFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,22 @@
+package com.nousware.service;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/** GET /actuator/uploadsweeper — cursor, last run and reclaimed totals of the orphaned-upload sweeper. */
+@Component
+@Endpoint(id = "uploadsweeper")
+public class UploadSweeperEndpoint {
+
+    private final UploadSweeper sweeper;
+
+    public UploadSweeperEndpoint(UploadSweeper sweeper) {
+        this.sweeper = sweeper;
+    }
+
+    @ReadOperation
+    public UploadSweeper.Status status() {
+        return sweeper.status();
+    }
+}
@@ -0,0 +1,121 @@
+package com.nousware.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded LRU of the credential fields CustomUserDetailsService needs, keyed by normalized email.
+ * Entries hold values, never the UserDetails itself: ProviderManager erases credentials on the
+ * principal it returns, so each authentication gets a fresh object built from the entry.
+ * <p>
+ * Correctness rules:
+ * <ul>
+ *   <li>Writers call {@link #evict} for every email whose password, enabled flag or roles they
+ *       change; inside a transaction the eviction is repeated when it completes, so a load that
+ *       read the pre-commit row in between cannot survive.</li>
+ *   <li>A load snapshots {@link #epoch()} before reading the DB; {@link #put} drops the entry if any
+ *       eviction happened since, so a slow load can never re-cache data an eviction invalidated.</li>
+ *   <li>Entries also expire after ttl-seconds as a safety net for writes made outside this service.</li>
+ * </ul>
+ */
+@Component
+public class UserDetailsCache {
+
+    /** Cached credential state; authorities come from RoleCatalog and are immutable. */
+    public record Entry(int userId, String email, String passwordHash, boolean enabled,
+                        List<GrantedAuthority> authorities, long expiresAtMs) {}
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries;
+    private long epoch; // guarded by this
+
+    @Autowired
+    public UserDetailsCache(@Value("${app.auth.user-cache.max-entries:10000}") int maxEntries,
+                            @Value("${app.auth.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this(maxEntries, ttlSeconds * 1000, System::currentTimeMillis);
+    }
+
+    UserDetailsCache(int maxEntries, long ttlMs, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UserDetailsCache.this.maxEntries;
+            }
+        };
+    }
+
+    public static String key(String email) {
+        return email == null ? null : email.trim().toLowerCase();
+    }
+
+    /** Take before reading the user row; pass to {@link #put}. */
+    public synchronized long epoch() {
+        return epoch;
+    }
+
+    public synchronized Entry get(String email) {
+        String key = key(email);
+        if (key == null) return null;
+        Entry e = entries.get(key);
+        if (e != null && e.expiresAtMs() <= clock.getAsLong()) {
+            entries.remove(key);
+            return null;
+        }
+        return e;
+    }
+
+    /** @return false if an eviction since {@code epochAtLoad} made the loaded values untrustworthy */
+    public synchronized boolean put(long epochAtLoad, int userId, String email, String passwordHash,
+                                    boolean enabled, List<GrantedAuthority> authorities) {
+        if (maxEntries <= 0 || epochAtLoad != epoch) return false;
+        String key = key(email);
+        if (key == null) return false;
+        entries.put(key, new Entry(userId, key, passwordHash, enabled, List.copyOf(authorities),
+                clock.getAsLong() + ttlMs));
+        return true;
+    }
+
+    /** Drop entries now and, when called inside a transaction, again when it completes. */
+    public void evict(String... emails) {
+        evictNow(emails);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(emails);
+                }
+            });
+        }
+    }
+
+    public synchronized void clear() {
+        epoch++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void evictNow(String... emails) {
+        epoch++;
+        for (String email : emails) {
+            String key = key(email);
+            if (key != null) entries.remove(key);
+        }
+    }
+}
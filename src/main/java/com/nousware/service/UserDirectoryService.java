@@ -0,0 +1,32 @@
+package com.nousware.service;
+
+import com.nousware.dto.UserSearchResult;
+import com.nousware.dto.UserView;
+import com.nousware.entities.User;
+import org.springframework.data.domain.Page;
+
+import java.util.function.Consumer;
+
+/** Admin-facing read views over all users (list / export / search). */
+public interface UserDirectoryService {
+
+    /**
+     * One page of users as UserView rows.
+     * @param sort "key,asc|desc" where key is one of id, email, lastName, createdAt, lastLoginAt
+     * @throws org.springframework.web.server.ResponseStatusException 400 on an unsupported sort key
+     */
+    Page<UserView> list(int page, int size, String sort);
+
+    /**
+     * Prefix match on email, first name, last name and phone digits, plus SOUNDEX matches on
+     * names for typos; results in id order, keyset-paged by {@code after} (null = from start).
+     * @throws org.springframework.web.server.ResponseStatusException 400 if q has fewer than 2 characters
+     */
+    UserSearchResult search(String q, Integer after, int size);
+
+    /** Feed every user, in id order, to {@code sink} without materializing the table. */
+    void export(Consumer<UserView> sink);
+
+    /** The same view for a loaded entity, so single-user responses match the list rows. */
+    UserView view(User user);
+}
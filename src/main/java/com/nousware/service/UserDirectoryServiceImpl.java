@@ -0,0 +1,104 @@
+package com.nousware.service;
+
+import com.nousware.dto.UserSearchResult;
+import com.nousware.dto.UserView;
+import com.nousware.entities.User;
+import com.nousware.repository.UserDirectoryRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+@Service
+public class UserDirectoryServiceImpl implements UserDirectoryService {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final UserDirectoryRepository directory;
+    private final RoleCatalog roleCatalog;
+
+    public UserDirectoryServiceImpl(UserDirectoryRepository directory, RoleCatalog roleCatalog) {
+        this.directory = directory;
+        this.roleCatalog = roleCatalog;
+    }
+
+    @Override
+    public Page<UserView> list(int page, int size, String sort) {
+        String[] parts = (sort == null || sort.isBlank() ? "createdAt,desc" : sort).split(",", 2);
+        String key = parts[0].trim();
+        if (!UserDirectoryRepository.SORT_COLUMNS.containsKey(key)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unsupported sort '" + key + "'; use one of " + UserDirectoryRepository.SORT_COLUMNS.keySet());
+        }
+        boolean asc = parts.length > 1 && "asc".equalsIgnoreCase(parts[1].trim());
+        int safePage = Math.max(page, 0);
+        int safeSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        List<UserView> rows = directory.page(key, asc, safePage * safeSize, safeSize);
+        rows.forEach(this::complete);
+        PageRequest pageable = PageRequest.of(safePage, safeSize, Sort.by(asc ? Sort.Direction.ASC : Sort.Direction.DESC, key));
+        return new PageImpl<>(rows, pageable, directory.count());
+    }
+
+    @Override
+    public UserSearchResult search(String q, Integer after, int size) {
+        String query = q == null ? "" : q.trim();
+        if (query.length() < 2) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q must be at least 2 characters");
+        }
+        if (query.length() > 100) query = query.substring(0, 100);
+        int safeSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        List<Integer> ids = directory.searchIds(query, after == null ? 0 : after, safeSize);
+        List<UserView> rows = directory.findViewsByIds(ids);
+        rows.forEach(this::complete);
+        Integer next = ids.size() == safeSize ? ids.get(ids.size() - 1) : null;
+        return new UserSearchResult(rows, next);
+    }
+
+    @Override
+    public void export(Consumer<UserView> sink) {
+        directory.streamAll(v -> sink.accept(complete(v)));
+    }
+
+    @Override
+    public UserView view(User u) {
+        UserView v = new UserView();
+        v.id = u.getUserId();
+        v.firstName = u.getName();
+        v.lastName = u.getLastName();
+        v.email = u.getEmail();
+        v.enabled = u.isEnable();
+        v.provider = u.getProvider();
+        v.avatarUrl = u.getAvatarUrl();
+        v.pictureUrl = u.getPictureUrl();
+        v.phone = u.getPhone();
+        v.gender = u.getGender();
+        v.createdAt = u.getCreatedAt();
+        v.updatedAt = u.getUpdatedAt();
+        v.lastLoginAt = u.getLastLoginAt();
+        v.roles = roleCatalog.codes(u.getRoles());
+        return derive(v);
+    }
+
+    /** Normalize raw role names and fill the derived fields. */
+    private UserView complete(UserView v) {
+        v.roles = roleCatalog.codes(roleCatalog.maskOfCodes(v.roles));
+        return derive(v);
+    }
+
+    /** Top role and display picture, from normalized roles and the stored URLs. */
+    private static UserView derive(UserView v) {
+        v.role = RoleCatalog.topRole(v.roles);
+        if (v.avatarUrl != null && !v.avatarUrl.isBlank()) v.displayPictureUrl = v.avatarUrl;
+        else if (v.pictureUrl != null && !v.pictureUrl.isBlank()) v.displayPictureUrl = v.pictureUrl;
+        else v.displayPictureUrl = UserServiceImpl.DEFAULT_PFP;
+        return v;
+    }
+}
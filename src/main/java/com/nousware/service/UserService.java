@@ -1,5 +1,7 @@
 package com.nousware.service;
 
+import com.nousware.dto.BulkUserRequest;
+import com.nousware.dto.BulkUserResult;
 import com.nousware.dto.RegistrationRequest;
 import com.nousware.dto.UpdateUserRequest;        // DTO for partial updates
 import com.nousware.entities.User;
@@ -57,9 +59,8 @@ public interface UserService {
     @Transactional(readOnly = true)
     Optional<User> findByEmailIgnoreCase(String email);
 
-    /** Mark last successful login time for LOCAL login. */
-    @Transactional
-    void markLoginSuccess(String email);
+    /** Mark last successful login time for LOCAL login (buffered, flushed in batches). */
+    void markLoginSuccess(Integer userId);
 
 
     // ===================== Google OAuth2 Support =====================
@@ -101,6 +102,13 @@ public interface UserService {
     @Transactional
     User updateUser(Integer userId, UpdateUserRequest request);
 
+    /**
+     * Apply one operation to many users with set-based statements in a single transaction.
+     * The acting admin is never disabled or stripped of ADMIN by their own bulk request.
+     */
+    @Transactional
+    BulkUserResult bulkUpdate(BulkUserRequest request, Integer actingUserId);
+
     /** Convenience save for internal use. */
     @Transactional
     User save(User user);
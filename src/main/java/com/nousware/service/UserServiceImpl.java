@@ -1,12 +1,14 @@
 package com.nousware.service;
 
+import com.nousware.dto.BulkUserRequest;
+import com.nousware.dto.BulkUserResult;
 import com.nousware.dto.RegistrationRequest;
 import com.nousware.dto.UpdateUserRequest;            // <-- NEW: DTO for partial updates
 import com.nousware.entities.Role;
 import com.nousware.entities.User;
 import com.nousware.entities.VerificationToken;
+import com.nousware.enums.BulkUserOperation;
 import com.nousware.enums.TokenType;
-import com.nousware.repository.RoleRepository;
 import com.nousware.repository.UserRepository;
 import com.nousware.repository.VerificationTokenRepository;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,6 +23,7 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -30,27 +33,37 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final VerificationTokenRepository tokenRepository;
     private final PasswordEncoder passwordEncoder;
-    private final EmailService emailService;
-    private final RoleRepository roleRepository;
+    private final EmailOutboxService emailOutbox;
+    private final RoleCatalog roleCatalog;
+    private final LoginActivityRecorder loginActivity;
+    private final UserDetailsCache userDetailsCache;
 
     /** Default fallback profile picture (used when avatarUrl and pictureUrl are both missing). */
-    private static final String DEFAULT_PFP =
+    static final String DEFAULT_PFP =
             "https://i.pinimg.com/736x/27/5f/99/275f99923b080b18e7b474ed6155a17f.jpg";
 
     /** Token TTL (minutes), configurable via application.properties: app.auth.token-ttl-minutes */
     @Value("${app.auth.token-ttl-minutes:15}")
     private long tokenTtlMinutes;
 
+    /** Public URL prefix of locally stored uploads; such relative URLs are accepted as avatars. */
+    @Value("${app.upload.public-prefix:/uploads}")
+    private String uploadPublicPrefix;
+
     public UserServiceImpl(UserRepository userRepository,
                            VerificationTokenRepository tokenRepository,
                            PasswordEncoder passwordEncoder,
-                           EmailService emailService,
-                           RoleRepository roleRepository) {
+                           EmailOutboxService emailOutbox,
+                           RoleCatalog roleCatalog,
+                           LoginActivityRecorder loginActivity,
+                           UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
         this.tokenRepository = tokenRepository;
         this.passwordEncoder = passwordEncoder;
-        this.emailService = emailService;
-        this.roleRepository = roleRepository;
+        this.emailOutbox = emailOutbox;
+        this.roleCatalog = roleCatalog;
+        this.loginActivity = loginActivity;
+        this.userDetailsCache = userDetailsCache;
     }
 
     // ===================== Local Registration / Verification =====================
@@ -101,7 +114,7 @@ public class UserServiceImpl implements UserService {
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
 
-        Role clientRole = roleRepository.findByRoleName("CLIENT")
+        Role clientRole = roleCatalog.reference(RoleCatalog.CLIENT)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.INTERNAL_SERVER_ERROR, "Client role not found"));
 
@@ -118,7 +131,7 @@ public class UserServiceImpl implements UserService {
         vt.setTokenType(TokenType.EMAIL_VERIFY);
         tokenRepository.save(vt);
 
-        emailService.sendVerificationEmail(user.getEmail(), vt.getToken());
+        emailOutbox.enqueueVerificationEmail(user.getEmail(), vt.getToken());
     }
 
     @Transactional
@@ -133,6 +146,7 @@ public class UserServiceImpl implements UserService {
                         user.setEnable(true);
                         user.setUpdatedAt(LocalDateTime.now());
                         userRepository.save(user);
+                        userDetailsCache.evict(user.getEmail());
                     }
                     tokenRepository.delete(t);
                     return true;
@@ -164,6 +178,7 @@ public class UserServiceImpl implements UserService {
                 user.setEnable(true);
                 user.setUpdatedAt(LocalDateTime.now());
                 userRepository.save(user);
+                userDetailsCache.evict(user.getEmail());
             }
             tokenRepository.delete(vt);
             return VerifyResult.VERIFIED;
@@ -171,10 +186,9 @@ public class UserServiceImpl implements UserService {
 
         // expired → delete old verify tokens and send a brand-new one
         User user = vt.getUser();
-        // remove any existing EMAIL_VERIFY tokens for this user
-        tokenRepository.findByUser_UserId(user.getUserId()).stream()
-                .filter(v -> v.getTokenType() == TokenType.EMAIL_VERIFY)
-                .forEach(tokenRepository::delete);
+        String email = user.getEmail(); // read before the bulk delete clears the persistence context
+        // remove any existing EMAIL_VERIFY tokens for this user (single set-based delete)
+        tokenRepository.deleteByUserIdAndType(user.getUserId(), TokenType.EMAIL_VERIFY);
 
         VerificationToken fresh = new VerificationToken();
         fresh.setToken(UUID.randomUUID().toString());
@@ -183,7 +197,7 @@ public class UserServiceImpl implements UserService {
         fresh.setTokenType(TokenType.EMAIL_VERIFY);
         tokenRepository.save(fresh);
 
-        emailService.sendVerificationEmail(user.getEmail(), fresh.getToken());
+        emailOutbox.enqueueVerificationEmail(email, fresh.getToken());
         return VerifyResult.RESENT_NEW_LINK;
     }
 
@@ -207,7 +221,7 @@ public class UserServiceImpl implements UserService {
             vt.setTokenType(TokenType.EMAIL_VERIFY);
 
             tokenRepository.saveAndFlush(vt);
-            emailService.sendVerificationEmail(user.getEmail(), vt.getToken());
+            emailOutbox.enqueueVerificationEmail(user.getEmail(), vt.getToken());
         });
     }
 
@@ -239,7 +253,7 @@ public class UserServiceImpl implements UserService {
 
         tokenRepository.saveAndFlush(vt); // save + flush to be safe
 
-        emailService.sendPasswordResetEmail(user.getEmail(), vt.getToken());
+        emailOutbox.enqueuePasswordResetEmail(user.getEmail(), vt.getToken());
     }
 
     @Transactional
@@ -258,6 +272,7 @@ public class UserServiceImpl implements UserService {
         user.setPassword(passwordEncoder.encode(newPassword));
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        userDetailsCache.evict(user.getEmail());
 
         tokenRepository.delete(vt);
     }
@@ -297,7 +312,7 @@ public class UserServiceImpl implements UserService {
             user.setUpdatedAt(LocalDateTime.now());
             user.setLastLoginAt(LocalDateTime.now());
 
-            Role clientRole = roleRepository.findByRoleName("CLIENT")
+            Role clientRole = roleCatalog.reference(RoleCatalog.CLIENT)
                     .orElseThrow(() -> new ResponseStatusException(
                             HttpStatus.INTERNAL_SERVER_ERROR, "Client role not found"));
 
@@ -307,17 +322,22 @@ public class UserServiceImpl implements UserService {
             return userRepository.save(user);
         }
 
+        // Only touch columns that actually changed: a returning user with an unchanged
+        // profile produces no UPDATE (updatedAt is bumped by @PreUpdate when something is dirty).
         if (user.getGoogleSub() == null) {
             user.setGoogleSub(googleSub);
             user.setProvider("GOOGLE");
         }
-        if (first != null && !first.isBlank()) user.setName(first);
-        if (last != null && !last.isBlank())   user.setLastName(last);
-        if (pictureUrl != null && !pictureUrl.isBlank()) user.setPictureUrl(pictureUrl);
+        if (first != null && !first.isBlank() && !first.equals(user.getName())) user.setName(first);
+        if (last != null && !last.isBlank() && !last.equals(user.getLastName())) user.setLastName(last);
+        if (pictureUrl != null && !pictureUrl.isBlank() && !pictureUrl.equals(user.getPictureUrl())) {
+            user.setPictureUrl(pictureUrl);
+        }
         if (!user.isEnable()) user.setEnable(true);
+        // may have linked/enabled a LOCAL account
+        userDetailsCache.evict(normalizedEmail, user.getEmail());
 
-        user.setLastLoginAt(LocalDateTime.now());
-        user.setUpdatedAt(LocalDateTime.now());
+        loginActivity.recordLogin(user.getUserId()); // last_login_at is written behind, in batches
         return userRepository.save(user);
     }
 
@@ -364,15 +384,9 @@ public class UserServiceImpl implements UserService {
         return userRepository.findByEmailIgnoreCase(normalizeEmail(email));
     }
 
-    @Transactional
     @Override
-    public void markLoginSuccess(String email) {
-        String normalized = normalizeEmail(email);
-        userRepository.findByEmailIgnoreCase(normalized).ifPresent(u -> {
-            u.setLastLoginAt(LocalDateTime.now());
-            u.setUpdatedAt(LocalDateTime.now());
-            userRepository.save(u);
-        });
+    public void markLoginSuccess(Integer userId) {
+        if (userId != null) loginActivity.recordLogin(userId);
     }
 
     /** Prefer avatarUrl (uploaded) if present; else fallback to OAuth picture; else default image. */
@@ -412,6 +426,7 @@ public class UserServiceImpl implements UserService {
     public User updateUser(Integer userId, UpdateUserRequest req) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        String previousEmail = user.getEmail();
 
         if (req.email != null) {
             String newEmail = normalizeEmail(req.email);
@@ -458,7 +473,7 @@ public class UserServiceImpl implements UserService {
                 user.getRoles().clear();
             } else {
                 java.util.ArrayList<Role> newRoles = req.roles.stream()
-                        .map(name -> roleRepository.findByRoleName(name)
+                        .map(name -> roleCatalog.reference(name)
                                 .orElseThrow(() -> new ResponseStatusException(
                                         HttpStatus.BAD_REQUEST, "Unknown role: " + name)))
                         .collect(java.util.stream.Collectors.toCollection(java.util.ArrayList::new));
@@ -469,21 +484,97 @@ public class UserServiceImpl implements UserService {
         }
 
         user.setUpdatedAt(LocalDateTime.now());
+        userDetailsCache.evict(previousEmail, user.getEmail()); // enabled/roles/email may have changed
         return userRepository.save(user);
     }
 
+    @Transactional
+    @Override
+    public BulkUserResult bulkUpdate(BulkUserRequest req, Integer actingUserId) {
+        List<Integer> requested = req.userIds == null ? List.of()
+                : req.userIds.stream().filter(java.util.Objects::nonNull).distinct().toList();
+        if (requested.isEmpty()) {
+            // also guards callers that skip bean validation: an empty IN () is a SQL error
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userIds must contain at least one id");
+        }
+        String roleCode = null;
+        List<Integer> roleIds = List.of(); // every id of the role (aliases); the first is the one granted
+        if (req.operation == BulkUserOperation.GRANT_ROLE || req.operation == BulkUserOperation.REVOKE_ROLE) {
+            roleCode = RoleCatalog.normalize(req.role);
+            if (roleCode == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "role is required for " + req.operation);
+            }
+            roleIds = roleCatalog.idsOf(roleCode);
+            if (roleIds.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown role: " + roleCode);
+            }
+        }
+
+        // 1 statement: who exists, current enable flag, emails for cache eviction
+        Map<Integer, UserRepository.BulkTarget> targets = new java.util.HashMap<>();
+        for (UserRepository.BulkTarget t : userRepository.findBulkTargets(requested)) targets.put(t.getUserId(), t);
+
+        Map<Integer, String> results = new java.util.LinkedHashMap<>();
+        List<Integer> candidates = new java.util.ArrayList<>(targets.size());
+        boolean selfProtected = req.operation == BulkUserOperation.DISABLE
+                || (req.operation == BulkUserOperation.REVOKE_ROLE && RoleCatalog.ADMIN.equals(roleCode));
+        for (Integer id : requested) {
+            if (!targets.containsKey(id)) results.put(id, "NOT_FOUND");
+            else if (selfProtected && id.equals(actingUserId)) results.put(id, "SKIPPED_SELF");
+            else {
+                candidates.add(id);
+                results.put(id, "UPDATED"); // keeps request order; corrected to UNCHANGED below
+            }
+        }
+
+        // 1-2 statements: which candidates are already in the target state, then the set-based write
+        java.util.Set<Integer> alreadyDone = new java.util.HashSet<>();
+        int updated = 0;
+        if (!candidates.isEmpty()) {
+            switch (req.operation) {
+                case ENABLE, DISABLE -> {
+                    boolean enable = req.operation == BulkUserOperation.ENABLE;
+                    for (Integer id : candidates) {
+                        if (Boolean.valueOf(enable).equals(targets.get(id).getEnabled())) alreadyDone.add(id);
+                    }
+                    updated = userRepository.setEnabled(candidates, enable, LocalDateTime.now());
+                }
+                case GRANT_ROLE -> {
+                    alreadyDone.addAll(userRepository.findUserIdsWithRole(candidates, roleIds));
+                    updated = userRepository.grantRole(candidates, roleIds.get(0), roleIds);
+                }
+                case REVOKE_ROLE -> {
+                    java.util.Set<Integer> holders = new java.util.HashSet<>(userRepository.findUserIdsWithRole(candidates, roleIds));
+                    for (Integer id : candidates) if (!holders.contains(id)) alreadyDone.add(id);
+                    userRepository.revokeRole(candidates, roleIds);
+                    updated = holders.size(); // users, not link rows: one user may hold several aliases
+                }
+            }
+        }
+
+        List<String> evicted = new java.util.ArrayList<>();
+        for (Integer id : candidates) {
+            if (alreadyDone.contains(id)) results.put(id, "UNCHANGED");
+            else evicted.add(targets.get(id).getEmail());
+        }
+        userDetailsCache.evict(evicted.toArray(String[]::new));
+
+        return new BulkUserResult(req.operation, roleCode, updated, results);
+    }
+
     // ===================== Internal helpers =====================
 
     private String normalizeEmail(String email) {
         return email == null ? null : email.trim().toLowerCase();
     }
 
-    /** Accepts only http/https URLs; returns null on null/blank input. Throws 400 if invalid. */
+    /** Accepts http/https URLs and our own upload paths; returns null on null/blank input. Throws 400 if invalid. */
     private String sanitizeUrl(String url) {
         if (url == null) return null;
         String t = url.trim();
         if (t.isEmpty()) return null;
-        if (!(t.startsWith("http://") || t.startsWith("https://"))) {
+        boolean ownUpload = t.startsWith(uploadPublicPrefix + "/") && !t.contains("..");
+        if (!(ownUpload || t.startsWith("http://") || t.startsWith("https://"))) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid avatar URL");
         }
         if (t.length() > 1024) {
@@ -510,6 +601,7 @@ public class UserServiceImpl implements UserService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is null");
         }
         user.setUpdatedAt(LocalDateTime.now());
+        userDetailsCache.evict(user.getEmail());
         return userRepository.save(user);
     }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.nousware.service;
+
+import com.nousware.repository.VerificationTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Periodically removes expired verification / reset tokens so the table (and the unique-index
+ * probes made on every registration) stays small. Deletes in bounded chunks, one short
+ * transaction each, so it never holds long locks on verification_token.
+ */
+@Component
+public class VerificationTokenPurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(VerificationTokenPurgeJob.class);
+
+    private final VerificationTokenRepository tokenRepository;
+    private final TransactionTemplate tx;
+
+    @Value("${app.auth.token-purge.chunk-size:1000}")
+    private int chunkSize;
+
+    /** Stop after this many chunks per run; the next run picks up the rest. */
+    @Value("${app.auth.token-purge.max-chunks-per-run:100}")
+    private int maxChunksPerRun;
+
+    public VerificationTokenPurgeJob(VerificationTokenRepository tokenRepository,
+                                     PlatformTransactionManager txManager) {
+        this.tokenRepository = tokenRepository;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.token-purge.interval-ms:900000}",
+            initialDelayString = "${app.auth.token-purge.initial-delay-ms:60000}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now();
+        long total = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            Integer deleted = tx.execute(s -> tokenRepository.deleteExpiredChunk(cutoff, chunkSize));
+            if (deleted == null || deleted == 0) break;
+            total += deleted;
+            if (deleted < chunkSize) break;
+        }
+        if (total > 0) {
+            log.info("Purged {} expired verification/reset tokens", total);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.nousware.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Headers and conditional/range behavior of the /uploads handlers, against a real directory. */
+class StaticResourceConfigTest {
+
+    @TempDir
+    Path dir;
+
+    private SimpleContext ctx;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.createDirectories(dir.resolve("media/ab/cd"));
+        Files.writeString(dir.resolve("media/ab/cd/abcd.txt"), "0123456789");
+        Files.write(dir.resolve("media/ab/cd/abcd.txt.gz"), new byte[]{31, -117, 8, 0});
+        Files.writeString(dir.resolve("other.txt"), "mutable");
+
+        ctx = new SimpleContext(Map.of(
+                "app.upload.base-dir", dir.toString(),
+                "app.upload.serve.sendfile-min-bytes", "1"));
+    }
+
+    @Test
+    void contentAddressedFilesAreImmutableAndRevalidateWithEtag() throws Exception {
+        MockHttpServletResponse first = get("/uploads/media/ab/cd/abcd.txt", null);
+        assertEquals(200, first.getStatus());
+        assertEquals("0123456789", first.getContentAsString());
+        assertEquals("max-age=31536000, public, immutable", first.getHeader("Cache-Control"));
+        String etag = first.getHeader("ETag");
+        assertNotNull(etag);
+
+        MockHttpServletRequest again = request("/uploads/media/ab/cd/abcd.txt");
+        again.addHeader("If-None-Match", etag);
+        assertEquals(304, ctx.serve(again).getStatus());
+    }
+
+    @Test
+    void rangeRequestsGetPartialContent() throws Exception {
+        MockHttpServletRequest req = request("/uploads/media/ab/cd/abcd.txt");
+        req.addHeader("Range", "bytes=2-4");
+        MockHttpServletResponse res = ctx.serve(req);
+        assertEquals(206, res.getStatus());
+        assertEquals("234", res.getContentAsString());
+    }
+
+    @Test
+    void precompressedVariantIsServedWhenAccepted() throws Exception {
+        MockHttpServletResponse res = get("/uploads/media/ab/cd/abcd.txt", "gzip");
+        assertEquals("gzip", res.getHeader("Content-Encoding"));
+        assertEquals(4, res.getContentAsByteArray().length);
+        assertTrue(res.getHeaders("Vary").contains("Accept-Encoding"));
+    }
+
+    @Test
+    void tomcatSendfileTakesOverTheBodyWhenSupported() throws Exception {
+        MockHttpServletRequest req = request("/uploads/media/ab/cd/abcd.txt");
+        req.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse res = ctx.serve(req);
+        assertEquals(200, res.getStatus());
+        assertEquals("10", res.getHeader("Content-Length"));
+        assertEquals(0, res.getContentAsByteArray().length);
+        assertEquals(dir.resolve("media/ab/cd/abcd.txt").toAbsolutePath().toString(),
+                req.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(10L, req.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void otherUploadsMustRevalidate() throws Exception {
+        MockHttpServletResponse res = get("/uploads/other.txt", null);
+        assertEquals(200, res.getStatus());
+        assertEquals("no-cache, public", res.getHeader("Cache-Control"));
+    }
+
+    @Test
+    void pathTraversalIsRefused() throws Exception {
+        assertThrows(NoResourceFoundException.class, () -> get("/uploads/media/../other.txt", null));
+    }
+
+    private MockHttpServletResponse get(String uri, String acceptEncoding) throws Exception {
+        MockHttpServletRequest req = request(uri);
+        if (acceptEncoding != null) req.addHeader("Accept-Encoding", acceptEncoding);
+        return ctx.serve(req);
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", uri);
+        req.setRequestURI(uri);
+        return req;
+    }
+
+    /** Boots StaticResourceConfig in a bare web context and dispatches like DispatcherServlet would. */
+    private static final class SimpleContext {
+        private final HandlerMapping mapping;
+
+        SimpleContext(Map<String, Object> properties) {
+            AnnotationConfigWebApplicationContext wac = new AnnotationConfigWebApplicationContext();
+            wac.setServletContext(new MockServletContext());
+            wac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+            wac.register(StaticResourceConfig.class);
+            wac.refresh();
+            this.mapping = wac.getBean(HandlerMapping.class);
+        }
+
+        MockHttpServletResponse serve(MockHttpServletRequest req) throws Exception {
+            MockHttpServletResponse res = new MockHttpServletResponse();
+            RequestContextHolder.setRequestAttributes(
+                    new ServletRequestAttributes(req, res));
+            try {
+                HandlerExecutionChain chain = mapping.getHandler(req);
+                if (chain == null) {
+                    res.setStatus(404);
+                } else {
+                    for (HandlerInterceptor i : chain.getInterceptorList()) i.preHandle(req, res, chain.getHandler());
+                    ((ResourceHttpRequestHandler) chain.getHandler()).handleRequest(req, res);
+                }
+                return res;
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.nousware.controller;
+
+import com.nousware.config.SpringDataPageConfig;
+import com.nousware.dto.UserView;
+import com.nousware.entities.User;
+import com.nousware.repository.UserDirectoryRepository;
+import com.nousware.service.RoleCatalog;
+import com.nousware.service.UserDirectoryService;
+import com.nousware.service.UserDirectoryServiceImpl;
+import com.nousware.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the JSON shape of the admin user API: GET /api/users is a page ({@code content} plus a
+ * {@code page} object, as serialized through the app's own Page config), and the single-user
+ * responses use the same UserView keys as its rows. The admin frontend parses exactly this.
+ */
+class UserControllerListShapeTest {
+
+    private final RoleCatalog roles = mock(RoleCatalog.class);
+    private final UserService users = mock(UserService.class);
+    private final UserDirectoryService directory =
+            spy(new UserDirectoryServiceImpl(mock(UserDirectoryRepository.class), roles));
+
+    private final WebApplicationContextRunner runner = new WebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class,
+                    HttpMessageConvertersAutoConfiguration.class, WebMvcAutoConfiguration.class))
+            .withUserConfiguration(SpringDataPageConfig.class, UserController.class)
+            .withBean(UserService.class, () -> users)
+            .withBean(UserDirectoryService.class, () -> directory);
+
+    @Test
+    void listIsAPagedModelWithContentAndPageMetadata() {
+        UserView jane = new UserView();
+        jane.id = 7;
+        jane.email = "jane@example.com";
+        jane.roles = List.of("CLIENT");
+        jane.role = "CLIENT";
+        doReturn(new PageImpl<>(List.of(jane), PageRequest.of(1, 2), 3)).when(directory).list(1, 2, "email,asc");
+
+        runner.run(ctx -> {
+            MockMvc mvc = MockMvcBuilders.webAppContextSetup(ctx).build();
+            mvc.perform(get("/api/users").param("page", "1").param("size", "2").param("sort", "email,asc"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].id").value(7))
+                    .andExpect(jsonPath("$.content[0].email").value("jane@example.com"))
+                    .andExpect(jsonPath("$.content[0].roles[0]").value("CLIENT"))
+                    .andExpect(jsonPath("$.page.number").value(1))
+                    .andExpect(jsonPath("$.page.size").value(2))
+                    .andExpect(jsonPath("$.page.totalElements").value(3))
+                    .andExpect(jsonPath("$.page.totalPages").value(2))
+                    // the VIA_DTO shape has no PageImpl internals at the top level
+                    .andExpect(jsonPath("$.pageable").doesNotExist())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andExpect(jsonPath("$.length()").value(2));
+        });
+    }
+
+    @Test
+    void singleUserResponsesUseTheListRowKeys() {
+        User jane = new User();
+        jane.setUserId(7);
+        jane.setEmail("jane@example.com");
+        jane.setName("Jane");
+        jane.setAvatarUrl("/uploads/avatars/7/v/128.jpg");
+        when(roles.codes(any(Collection.class))).thenReturn(List.of("ADMIN", "CLIENT"));
+        when(users.findById(7)).thenReturn(Optional.of(jane));
+        when(users.updateUser(eq(7), any())).thenReturn(jane);
+
+        runner.run(ctx -> {
+            MockMvc mvc = MockMvcBuilders.webAppContextSetup(ctx).build();
+            for (var request : List.of(get("/api/users/7"),
+                    put("/api/users/7").contentType(MediaType.APPLICATION_JSON).content("{}"))) {
+                mvc.perform(request)
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.id").value(7))
+                        .andExpect(jsonPath("$.firstName").value("Jane"))
+                        .andExpect(jsonPath("$.role").value("ADMIN"))
+                        .andExpect(jsonPath("$.avatarUrl").value("/uploads/avatars/7/v/128.jpg"))
+                        .andExpect(jsonPath("$.displayPictureUrl").value("/uploads/avatars/7/v/128.jpg"))
+                        .andExpect(jsonPath("$.avatar").doesNotExist())
+                        .andExpect(jsonPath("$.displayPicture").doesNotExist());
+            }
+        });
+    }
+}
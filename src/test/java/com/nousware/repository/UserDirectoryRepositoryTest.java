@@ -0,0 +1,107 @@
+package com.nousware.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** The SQL the admin directory generates per input; user input only ever reaches it as bound LIKE patterns. */
+class UserDirectoryRepositoryTest {
+
+    private static UserDirectoryRepository.SearchQuery search(String q) {
+        return UserDirectoryRepository.searchQuery(q, 40, 20);
+    }
+
+    private static int branches(UserDirectoryRepository.SearchQuery query) {
+        return query.sql().split(" UNION ").length;
+    }
+
+    @Test
+    void namePrefixSearchesEmailAndBothNamesPlusSoundex() {
+        UserDirectoryRepository.SearchQuery query = search("Jan");
+
+        String sql = query.sql();
+        assertTrue(sql.contains("email LIKE :prefix") && sql.contains("(SELECT user_id FROM users WHERE name LIKE :prefix")
+                && sql.contains("last_name LIKE :prefix"), sql);
+        assertEquals("Jan%", query.params().getValue("prefix"));
+        assertTrue(sql.contains("first_soundex = SOUNDEX(:sx)") && sql.contains("last_soundex = SOUNDEX(:sx)"), sql);
+        assertEquals("jan", query.params().getValue("sx"));
+        assertFalse(sql.contains("phone_digits"), "no digits, no phone branch");
+        assertEquals(5, branches(query));
+        assertEquals(5, sql.split("AND user_id > :after ORDER BY user_id LIMIT :lim", -1).length - 1,
+                "every branch is keyset-limited on its own");
+        assertTrue(sql.endsWith(") hits ORDER BY user_id LIMIT :lim"), sql);
+        assertEquals(40, query.params().getValue("after"));
+        assertEquals(20, query.params().getValue("lim"));
+    }
+
+    @Test
+    void shortInputSkipsSoundex() {
+        UserDirectoryRepository.SearchQuery query = search("Jo");
+
+        assertFalse(query.sql().contains("SOUNDEX"), query.sql());
+        assertEquals(3, branches(query));
+    }
+
+    @Test
+    void mostlyDigitsAlsoMatchesPhoneDigits() {
+        UserDirectoryRepository.SearchQuery phone = search("+1 (555) 12");
+        assertTrue(phone.sql().contains("phone_digits LIKE :digits"), phone.sql());
+        assertEquals("155512%", phone.params().getValue("digits"), "formatting stripped, prefix match");
+        assertFalse(phone.sql().contains("SOUNDEX"));
+
+        UserDirectoryRepository.SearchQuery mixed = search("jane 555");
+        assertFalse(mixed.sql().contains("phone_digits"), "a few digits in a name query are not a phone number");
+    }
+
+    @Test
+    void twoWordsMatchFirstAndLastNamePrefixesAndTypoSoundex() {
+        UserDirectoryRepository.SearchQuery query = search("Jhon Smiht");
+
+        String sql = query.sql();
+        assertTrue(sql.contains("name LIKE :t1 AND last_name LIKE :t2"), sql);
+        assertEquals("jhon%", query.params().getValue("t1"));
+        assertEquals("smiht%", query.params().getValue("t2"));
+        assertTrue(sql.contains("first_soundex = SOUNDEX(:sx1) AND last_soundex = SOUNDEX(:sx2)"), sql);
+        assertEquals("jhon", query.params().getValue("sx1"));
+        assertEquals("smiht", query.params().getValue("sx2"));
+
+        assertFalse(search("o'brien 2nd").sql().contains("SOUNDEX"), "only all-letter words get SOUNDEX");
+    }
+
+    @Test
+    void likeWildcardsInInputAreEscaped() {
+        assertEquals("50\\%\\_off\\\\x%", UserDirectoryRepository.likePrefix("50%_off\\x"));
+
+        UserDirectoryRepository.SearchQuery query = search("a_b c%");
+        assertEquals("a\\_b c\\%%", query.params().getValue("prefix"));
+        assertEquals("a\\_b%", query.params().getValue("t1"));
+        assertEquals("c\\%%", query.params().getValue("t2"));
+        assertFalse(query.sql().contains("a_b") || query.sql().contains("c%"), "input is bound, never inlined");
+    }
+
+    @Test
+    void pageOrdersOnlyByWhitelistedColumnsWithIdTieBreaker() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        UserDirectoryRepository repo = new UserDirectoryRepository(jdbc);
+
+        repo.page("lastName", true, 40, 20);
+        verify(jdbc).query(endsWith(" ORDER BY u.last_name ASC, u.user_id ASC LIMIT ? OFFSET ?"),
+                any(RowMapper.class), eq(20), eq(40));
+
+        assertThrows(IllegalArgumentException.class, () -> repo.page("last_name; DROP TABLE users", false, 0, 20));
+        assertThrows(IllegalArgumentException.class, () -> repo.page("password", false, 0, 20));
+        verifyNoMoreInteractions(jdbc);
+    }
+
+    @Test
+    void sortKeysAreTheIndexedColumns() {
+        assertEquals(List.of("createdAt", "email", "id", "lastLoginAt", "lastName"),
+                UserDirectoryRepository.SORT_COLUMNS.keySet().stream().sorted().toList());
+    }
+}
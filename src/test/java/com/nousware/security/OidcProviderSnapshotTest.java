@@ -0,0 +1,133 @@
+package com.nousware.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs OidcProviderSnapshot against an in-process stub issuer serving a discovery document and JWKS.
+ */
+class OidcProviderSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private HttpServer stub;
+    private String issuer;
+    private final AtomicReference<JWKSet> published = new AtomicReference<>();
+    private final AtomicInteger jwksHits = new AtomicInteger();
+
+    @BeforeEach
+    void startStub() throws Exception {
+        published.set(new JWKSet(newKey("k1")));
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        issuer = "http://127.0.0.1:" + stub.getAddress().getPort();
+        stub.createContext("/.well-known/openid-configuration", exchange -> {
+            String json = "{\"issuer\":\"" + issuer + "\","
+                    + "\"authorization_endpoint\":\"" + issuer + "/auth\","
+                    + "\"token_endpoint\":\"" + issuer + "/token\","
+                    + "\"userinfo_endpoint\":\"" + issuer + "/userinfo\","
+                    + "\"jwks_uri\":\"" + issuer + "/jwks\"}";
+            respond(exchange, json);
+        });
+        stub.createContext("/jwks", exchange -> {
+            jwksHits.incrementAndGet();
+            respond(exchange, published.get().toString(true));
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.stop(0);
+    }
+
+    @Test
+    void refreshWritesSnapshotAndColdStartLoadsItWithoutNetwork() throws Exception {
+        Path file = dir.resolve("oidc/stub.json");
+        OidcProviderSnapshot first = snapshot(file);
+        assertTrue(first.current().metadata().isEmpty());
+
+        assertTrue(first.refresh());
+        assertTrue(Files.isRegularFile(file));
+        assertEquals(issuer + "/token", first.current().string("token_endpoint"));
+
+        stub.stop(0);
+        OidcProviderSnapshot cold = snapshot(file);
+        assertEquals(issuer + "/jwks", cold.current().string("jwks_uri"));
+        assertNotNull(cold.current().jwks().getKeyByKeyId("k1"));
+        assertNull(((RSAKey) cold.current().jwks().getKeyByKeyId("k1")).toPrivateKey(), "private key material persisted");
+
+        assertFalse(cold.refresh(), "refresh must fail with the issuer down");
+        assertNotNull(cold.current().jwks().getKeyByKeyId("k1"), "failed refresh keeps the old keys");
+    }
+
+    @Test
+    void knownKidIsServedFromMemoryAndUnknownKidForcesOneRefresh() throws Exception {
+        OidcProviderSnapshot snapshot = snapshot(dir.resolve("stub.json"));
+        snapshot.refresh();
+        int hits = jwksHits.get();
+
+        assertEquals(1, snapshot.jwkSource().get(byKid("k1"), null).size());
+        assertEquals(hits, jwksHits.get());
+
+        published.set(new JWKSet(newKey("k2")));
+        assertEquals(1, snapshot.jwkSource().get(byKid("k2"), null).size());
+        assertEquals(hits + 1, jwksHits.get());
+
+        // forced refreshes are rate-limited
+        assertTrue(snapshot.jwkSource().get(byKid("k3"), null).isEmpty());
+        assertEquals(hits + 1, jwksHits.get());
+    }
+
+    @Test
+    void refreshIfStaleSkipsFreshSnapshot() {
+        OidcProviderSnapshot snapshot = snapshot(dir.resolve("stub.json"));
+        snapshot.refreshIfStale();
+        assertEquals(1, jwksHits.get());
+        Instant fetched = snapshot.current().fetchedAt();
+
+        snapshot.refreshIfStale();
+        assertEquals(1, jwksHits.get());
+        assertEquals(fetched, snapshot.current().fetchedAt());
+    }
+
+    private OidcProviderSnapshot snapshot(Path file) {
+        return new OidcProviderSnapshot("stub", issuer, file.toString(), 3600, 1000, new ObjectMapper());
+    }
+
+    private static RSAKey newKey(String kid) throws Exception {
+        return new RSAKeyGenerator(2048).keyID(kid).generate();
+    }
+
+    private static JWKSelector byKid(String kid) {
+        return new JWKSelector(new JWKMatcher.Builder().keyID(kid).build());
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
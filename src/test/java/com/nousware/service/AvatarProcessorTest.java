@@ -0,0 +1,79 @@
+package com.nousware.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Validation and rendition output of AvatarProcessor; input is always sniffed, never trusted. */
+class AvatarProcessorTest {
+
+    private final AvatarProcessor processor =
+            new AvatarProcessor(List.of(48, 128, 512), 1000, 500_000, 0.85f, 5000, 1, 2);
+
+    @Test
+    void rendersCenterCroppedSquaresWithoutUpscaling() throws IOException {
+        byte[] png = encode(new BufferedImage(300, 200, BufferedImage.TYPE_INT_ARGB), "png");
+
+        Map<Integer, byte[]> out = processor.process(png);
+
+        assertEquals(List.of(48, 128, 512), List.copyOf(out.keySet()));
+        assertSquare(out.get(48), 48);
+        assertSquare(out.get(128), 128);
+        assertSquare(out.get(512), 200); // source is only 200px on its short side
+    }
+
+    @Test
+    void rejectsBytesThatAreNotAnImage() {
+        byte[] bogus = "<svg onload=alert(1)>".getBytes();
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> processor.process(bogus));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    @Test
+    void rejectsOversizedDimensionsBeforeDecoding() throws IOException {
+        byte[] png = encode(new BufferedImage(1001, 10, BufferedImage.TYPE_INT_RGB), "png");
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> processor.process(png));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    @Test
+    void interruptedWorkerAbortsTheDecodeInsteadOfFinishingIt() throws IOException {
+        byte[] png = encode(new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB), "png");
+
+        Thread.currentThread().interrupt(); // what f.cancel(true) does to the pool thread on timeout
+        try {
+            assertThrows(InterruptedIOException.class, () -> processor.decode(new ByteArrayInputStream(png)));
+            assertThrows(InterruptedIOException.class,
+                    () -> processor.render(new BufferedImage(600, 600, BufferedImage.TYPE_INT_RGB)));
+        } finally {
+            Thread.interrupted();
+        }
+        assertNotNull(processor.decode(new ByteArrayInputStream(png)), "an uninterrupted thread decodes normally");
+    }
+
+    private static void assertSquare(byte[] jpeg, int side) throws IOException {
+        BufferedImage img = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertNotNull(img, "rendition must be a decodable JPEG");
+        assertEquals(side, img.getWidth());
+        assertEquals(side, img.getHeight());
+    }
+
+    private static byte[] encode(BufferedImage img, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(img, format, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,118 @@
+package com.nousware.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs BrevoMailTransport against an in-process stub of /v3/smtp/email that can
+ * answer with a chosen status after a chosen delay.
+ */
+class BrevoMailTransportTest {
+
+    private HttpServer stub;
+    private final AtomicInteger status = new AtomicInteger(201);
+    private final AtomicInteger delayMs = new AtomicInteger(0);
+    private final AtomicReference<String> lastBody = new AtomicReference<>();
+    private final AtomicReference<String> lastApiKey = new AtomicReference<>();
+
+    private SimpleMeterRegistry meters;
+    private BrevoMailTransport transport;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/v3/smtp/email", exchange -> {
+            lastApiKey.set(exchange.getRequestHeaders().getFirst("api-key"));
+            lastBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            try {
+                Thread.sleep(delayMs.get());
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] resp = "{\"messageId\":\"<stub>\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status.get(), resp.length);
+            exchange.getResponseBody().write(resp);
+            exchange.close();
+        });
+        stub.start();
+
+        meters = new SimpleMeterRegistry();
+        String baseUrl = "http://127.0.0.1:" + stub.getAddress().getPort() + "/";
+        transport = new BrevoMailTransport(baseUrl, "test-key", 1000, 300, 4, new ObjectMapper(), meters);
+    }
+
+    @AfterEach
+    void stopStub() {
+        transport.shutdown();
+        stub.stop(0);
+    }
+
+    @Test
+    void postsJsonWithApiKeyAndRecordsSuccess() {
+        transport.send("noreply@cks.software", "CKS", "jane@example.com", "Hi", "<p>x</p>");
+
+        assertEquals("test-key", lastApiKey.get());
+        assertTrue(lastBody.get().contains("\"htmlContent\":\"<p>x</p>\""));
+        assertTrue(lastBody.get().contains("jane@example.com"));
+        assertEquals(1, meters.get("mail.transport.send").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void serverErrorIsThrownSoTheOutboxRetries() {
+        status.set(503);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> transport.send("a@b.c", "CKS", "jane@example.com", "Hi", "x"));
+
+        assertTrue(ex.getMessage().contains("503"));
+        assertEquals(1, meters.get("mail.transport.send").tag("outcome", "server_error").timer().count());
+    }
+
+    @Test
+    void slowProviderTimesOutInsteadOfHanging() {
+        delayMs.set(1500);
+
+        assertThrows(IllegalStateException.class,
+                () -> transport.send("a@b.c", "CKS", "jane@example.com", "Hi", "x"));
+
+        assertEquals(1, meters.get("mail.transport.send").tag("outcome", "timeout").timer().count());
+    }
+
+    @Test
+    void payloadHelperAcceptsBatchBodies() {
+        int code = transport.postJson(Map.of("subject", "batch")).join();
+        assertEquals(201, code);
+    }
+
+    @Test
+    void saturatedTransportFailsFastInsteadOfBlockingTheCaller() {
+        delayMs.set(200);
+        List<CompletableFuture<Integer>> inFlight = new ArrayList<>();
+        for (int i = 0; i < 4; i++) inFlight.add(transport.postJson(Map.of("subject", "batch")));
+
+        long start = System.nanoTime();
+        CompletableFuture<Integer> overflow = transport.postJson(Map.of("subject", "batch"));
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(overflow.isCompletedExceptionally(), "returned already failed");
+        assertTrue(waitedMs < 100, "caller blocked for " + waitedMs + " ms");
+        assertEquals(1, meters.get("mail.transport.send").tag("outcome", "saturated").timer().count());
+        inFlight.forEach(f -> f.handle((v, e) -> null).join());
+    }
+}
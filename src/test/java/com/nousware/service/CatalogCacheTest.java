@@ -0,0 +1,136 @@
+package com.nousware.service;
+
+import com.nousware.entities.Faq;
+import com.nousware.repository.FaqRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Eviction rules of CatalogCache, and FaqServiceImpl on top of it.
+ * A stale entry here means an edited or deleted catalog item keeps showing on the site.
+ */
+class CatalogCacheTest {
+
+    private static final long TTL = 3_600_000;
+    private static final Pageable FIRST = PageRequest.of(0, 10);
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final List<Set<CatalogCache.Segment>> published = new ArrayList<>();
+    private final PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+
+    private CatalogCache cache() {
+        when(tx.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return new CatalogCache(10, TTL, now::get, tx, published::add, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void hitsSkipTheLoaderAndTheTransactionUntilTtl() {
+        CatalogCache cache = cache();
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", cache.get(CatalogCache.Segment.FAQS, "k", () -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", cache.get(CatalogCache.Segment.FAQS, "k", () -> "v" + loads.incrementAndGet()));
+        verify(tx, times(1)).getTransaction(any());
+
+        now.addAndGet(TTL);
+        assertEquals("v2", cache.get(CatalogCache.Segment.FAQS, "k", () -> "v" + loads.incrementAndGet()));
+    }
+
+    @Test
+    void loadThatStartedBeforeAnEvictionIsNotCached() {
+        CatalogCache cache = cache();
+        String stale = cache.get(CatalogCache.Segment.SERVICES, "k", () -> {
+            cache.invalidate(CatalogCache.Segment.SERVICES); // an admin write commits mid-load
+            return "stale";
+        });
+
+        assertEquals("stale", stale);
+        assertEquals(0, cache.size(CatalogCache.Segment.SERVICES));
+    }
+
+    @Test
+    void evictionInsideTransactionIsRepeatedAndPublishedOnlyAfterCommit() {
+        CatalogCache cache = cache();
+        cache.get(CatalogCache.Segment.CATEGORIES, "k", () -> "old");
+        cache.get(CatalogCache.Segment.FAQS, "k", () -> "faq");
+        cache.get(CatalogCache.Segment.HOME, "k", () -> "bundle");
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate(CatalogCache.Segment.CATEGORIES, CatalogCache.Segment.SERVICES);
+        assertEquals(0, cache.size(CatalogCache.Segment.CATEGORIES));
+        assertEquals(1, cache.size(CatalogCache.Segment.FAQS), "other segments are untouched");
+        assertEquals(0, cache.size(CatalogCache.Segment.HOME), "the home bundle includes every segment");
+        assertTrue(published.isEmpty(), "other nodes must not reload before commit");
+
+        // a read between eviction and commit still sees the committed (old) rows and caches them
+        cache.get(CatalogCache.Segment.CATEGORIES, "k", () -> "old");
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        assertEquals(0, cache.size(CatalogCache.Segment.CATEGORIES));
+        assertEquals(List.of(Set.of(CatalogCache.Segment.CATEGORIES, CatalogCache.Segment.SERVICES,
+                CatalogCache.Segment.HOME)), published);
+    }
+
+    @Test
+    void rolledBackWriteIsNotPublished() {
+        CatalogCache cache = cache();
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate(CatalogCache.Segment.FAQS);
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    void faqListIsServedFromMemoryUntilAWriteEvictsIt() {
+        FaqRepository repo = mock(FaqRepository.class);
+        Faq faq = new Faq();
+        faq.setFaqId(1);
+        faq.setQuestion("Q?");
+        faq.setAnswer("A");
+        when(repo.findAll(FIRST)).thenReturn(new PageImpl<>(List.of(faq), FIRST, 1));
+        when(repo.findById(1)).thenReturn(Optional.of(faq));
+        when(repo.save(any())).thenAnswer(i -> i.getArgument(0));
+        FaqServiceImpl service = new FaqServiceImpl(repo, cache());
+
+        Page<Faq> first = service.list(" ", FIRST);
+        assertSame(first, service.list(null, FIRST), "blank and missing q share one entry");
+        verify(repo, times(1)).findAll(FIRST);
+
+        Faq edit = new Faq();
+        edit.setQuestion("Q?");
+        edit.setAnswer("B");
+        service.update(1, edit);
+        service.list(null, FIRST);
+        verify(repo, times(2)).findAll(FIRST);
+    }
+}
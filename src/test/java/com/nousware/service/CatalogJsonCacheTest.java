@@ -0,0 +1,114 @@
+package com.nousware.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/** Serialized catalog responses: served without re-serializing, revalidated by ETag, re-warmed after writes. */
+class CatalogJsonCacheTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicInteger loads = new AtomicInteger();
+    private CatalogJsonCache json;
+
+    private CatalogCache cache() {
+        PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+        when(tx.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        CatalogCache cache = new CatalogCache(10, 3_600_000, System::currentTimeMillis, tx,
+                CatalogInvalidationBus.NONE, new SimpleMeterRegistry());
+        json = new CatalogJsonCache(cache, mapper, 8);
+        return cache;
+    }
+
+    @AfterEach
+    void shutdown() {
+        if (json != null) json.shutdown();
+    }
+
+    private CatalogJsonCache.Rendered faqs() {
+        return json.render(CatalogCache.Segment.FAQS, List.of("list"), () -> {
+            loads.incrementAndGet();
+            String answer = "answer ".repeat(50);
+            return new PageImpl<>(List.of(Map.of("question", "Q" + loads.get(), "answer", answer)),
+                    PageRequest.of(0, 10), 1);
+        });
+    }
+
+    @Test
+    void pagesAreSerializedOnceAsPagedModel() throws IOException {
+        cache();
+        CatalogJsonCache.Rendered first = faqs();
+        assertSame(first, faqs());
+        assertEquals(1, loads.get());
+
+        Map<?, ?> body = mapper.readValue(first.json(), Map.class);
+        assertEquals(1, ((List<?>) body.get("content")).size());
+        assertEquals(1, ((Map<?, ?>) body.get("page")).get("totalElements"));
+        assertArrayEquals(first.json(), new GZIPInputStream(new ByteArrayInputStream(first.gzip())).readAllBytes());
+    }
+
+    @Test
+    void writesGzipWhenAcceptedAndAnswers304ForAMatchingEtag() throws IOException {
+        cache();
+        CatalogJsonCache.Rendered rendered = faqs();
+
+        MockHttpServletRequest plainReq = new MockHttpServletRequest("GET", "/api/faqs");
+        MockHttpServletResponse plain = new MockHttpServletResponse();
+        rendered.writeTo(plainReq, plain);
+        assertArrayEquals(rendered.json(), plain.getContentAsByteArray());
+        assertEquals(rendered.json().length, plain.getContentLength());
+        assertNull(plain.getHeader("Content-Encoding"));
+
+        MockHttpServletRequest gzReq = new MockHttpServletRequest("GET", "/api/faqs");
+        gzReq.addHeader("Accept-Encoding", "br, gzip;q=0.8");
+        MockHttpServletResponse gz = new MockHttpServletResponse();
+        rendered.writeTo(gzReq, gz);
+        assertEquals("gzip", gz.getHeader("Content-Encoding"));
+        assertArrayEquals(rendered.gzip(), gz.getContentAsByteArray());
+        assertNotEquals(plain.getHeader("ETag"), gz.getHeader("ETag"), "each encoding has its own strong ETag");
+
+        MockHttpServletRequest revalidate = new MockHttpServletRequest("GET", "/api/faqs");
+        revalidate.addHeader("If-None-Match", "\"other\", " + plain.getHeader("ETag"));
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        rendered.writeTo(revalidate, notModified);
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+
+        MockHttpServletRequest refused = new MockHttpServletRequest("GET", "/api/faqs");
+        refused.addHeader("Accept-Encoding", "gzip;q=0");
+        MockHttpServletResponse identity = new MockHttpServletResponse();
+        rendered.writeTo(refused, identity);
+        assertNull(identity.getHeader("Content-Encoding"));
+    }
+
+    @Test
+    void evictionReRendersRecentKeysInTheBackground() throws InterruptedException {
+        CatalogCache cache = cache();
+        faqs();
+
+        cache.invalidate(CatalogCache.Segment.FAQS);
+        for (int i = 0; i < 100 && cache.size(CatalogCache.Segment.FAQS) == 0; i++) Thread.sleep(20);
+
+        assertEquals(2, loads.get());
+        assertTrue(new String(faqs().json()).contains("\"Q2\""));
+        assertEquals(2, loads.get(), "the request after the write is a hit");
+    }
+}
@@ -0,0 +1,173 @@
+package com.nousware.service;
+
+import com.nousware.entities.EmailOutbox;
+import com.nousware.enums.EmailType;
+import com.nousware.enums.OutboxStatus;
+import com.nousware.repository.ContactFormRepository;
+import com.nousware.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Claim / retry / give-up transitions of EmailOutboxDispatcher against an in-memory fake of the
+ * email_outbox table. Every verification, reset and contact email goes through these rows.
+ */
+class EmailOutboxDispatcherTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF = 30;
+
+    private final List<EmailOutbox> table = new ArrayList<>();
+    private final EmailOutboxRepository outbox = mock(EmailOutboxRepository.class);
+    private final EmailService email = mock(EmailService.class);
+    private final PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+    /** Recipients in the order the provider was called. */
+    private final List<String> sent = new ArrayList<>();
+
+    @BeforeEach
+    void fakeTable() {
+        when(tx.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // the WHERE of lockDueBatch; returned rows are the managed entities, so the claim's changes stick
+        when(outbox.lockDueBatch(any(), any(), anyInt())).thenAnswer(i -> {
+            LocalDateTime now = i.getArgument(0);
+            LocalDateTime staleBefore = i.getArgument(1);
+            return table.stream()
+                    .filter(r -> (r.getStatus() == OutboxStatus.PENDING && !r.getNextAttemptAt().isAfter(now))
+                            || (r.getStatus() == OutboxStatus.SENDING && r.getClaimedAt().isBefore(staleBefore)))
+                    .limit(i.<Integer>getArgument(2))
+                    .toList();
+        });
+        when(outbox.markSent(anyLong(), any(), any())).thenAnswer(i -> {
+            EmailOutbox r = row(i.getArgument(0));
+            r.setStatus(i.getArgument(1));
+            r.setSentAt(i.getArgument(2));
+            r.setLastError(null);
+            return 1;
+        });
+        when(outbox.markFailedAttempt(anyLong(), any(), any(), any())).thenAnswer(i -> {
+            EmailOutbox r = row(i.getArgument(0));
+            r.setStatus(i.getArgument(1));
+            r.setNextAttemptAt(i.getArgument(2));
+            r.setLastError(i.getArgument(3));
+            return 1;
+        });
+        doAnswer(i -> sent.add(i.getArgument(0))).when(email).sendVerificationEmail(any(), any());
+    }
+
+    private EmailOutbox row(long id) {
+        return table.stream().filter(r -> r.getOutboxId() == id).findFirst().orElseThrow();
+    }
+
+    private EmailOutbox pending(long id, String to) {
+        EmailOutbox r = new EmailOutbox();
+        r.setOutboxId(id);
+        r.setEmailType(EmailType.EMAIL_VERIFY);
+        r.setRecipient(to);
+        r.setToken("t" + id);
+        r.setStatus(OutboxStatus.PENDING);
+        r.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        r.setCreatedAt(LocalDateTime.now());
+        table.add(r);
+        return r;
+    }
+
+    private EmailOutboxDispatcher dispatcher(int batchSize) {
+        return new EmailOutboxDispatcher(outbox, mock(ContactFormRepository.class), email, tx,
+                batchSize, MAX_ATTEMPTS, BASE_BACKOFF, 3600, 300);
+    }
+
+    @Test
+    void claimedRowsAreHandedOutOnceEvenToAConcurrentDispatcher() {
+        for (int i = 1; i <= 3; i++) pending(i, "u" + i + "@example.com");
+        EmailOutboxDispatcher other = dispatcher(2);
+        boolean[] otherRan = new boolean[1];
+        doAnswer(i -> {
+            sent.add(i.getArgument(0));
+            if (!otherRan[0]) {           // a second instance polls while the first batch is in flight
+                otherRan[0] = true;
+                other.dispatch();
+            }
+            return null;
+        }).when(email).sendVerificationEmail(any(), any());
+
+        dispatcher(2).dispatch();
+
+        assertEquals(3, sent.size(), sent::toString);
+        assertEquals(3, sent.stream().distinct().count(), "no row sent twice: " + sent);
+        for (EmailOutbox r : table) {
+            assertEquals(OutboxStatus.SENT, r.getStatus());
+            assertEquals(1, r.getAttempts());
+            assertNotNull(r.getSentAt());
+        }
+    }
+
+    @Test
+    void transportFailureSchedulesARetryWithDoublingBackoff() {
+        EmailOutbox r = pending(1, "u1@example.com");
+        doThrow(new IllegalStateException("Brevo responded 503")).when(email).sendVerificationEmail(any(), any());
+        EmailOutboxDispatcher dispatcher = dispatcher(10);
+
+        dispatcher.dispatch();
+        assertEquals(OutboxStatus.PENDING, r.getStatus());
+        assertEquals(1, r.getAttempts());
+        assertEquals("Brevo responded 503", r.getLastError());
+        assertBackoff(BASE_BACKOFF, r);
+
+        dispatcher.dispatch(); // not due yet
+        verify(email, times(1)).sendVerificationEmail(any(), any());
+
+        r.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        dispatcher.dispatch();
+        assertEquals(2, r.getAttempts());
+        assertBackoff(2 * BASE_BACKOFF, r);
+    }
+
+    @Test
+    void lastAllowedAttemptFailingMarksTheRowFailedForGood() {
+        EmailOutbox r = pending(1, "u1@example.com");
+        r.setAttempts(MAX_ATTEMPTS - 1);
+        doThrow(new IllegalStateException("invalid recipient")).when(email).sendVerificationEmail(any(), any());
+        EmailOutboxDispatcher dispatcher = dispatcher(10);
+
+        dispatcher.dispatch();
+        assertEquals(OutboxStatus.FAILED, r.getStatus());
+        assertEquals(MAX_ATTEMPTS, r.getAttempts());
+        assertEquals("invalid recipient", r.getLastError());
+
+        r.setNextAttemptAt(LocalDateTime.now().minusDays(1));
+        dispatcher.dispatch();
+        verify(email, times(1)).sendVerificationEmail(any(), any()); // never claimed again
+    }
+
+    @Test
+    void rowOrphanedInSendingIsReclaimedAfterTheClaimTimeout() {
+        EmailOutbox fresh = pending(1, "u1@example.com");
+        fresh.setStatus(OutboxStatus.SENDING);
+        fresh.setClaimedAt(LocalDateTime.now().minusSeconds(10)); // another instance is sending it
+        EmailOutbox orphan = pending(2, "u2@example.com");
+        orphan.setStatus(OutboxStatus.SENDING);
+        orphan.setClaimedAt(LocalDateTime.now().minusSeconds(301)); // its dispatcher crashed
+
+        dispatcher(10).dispatch();
+
+        assertEquals(List.of("u2@example.com"), sent);
+        assertEquals(OutboxStatus.SENDING, fresh.getStatus());
+        assertEquals(OutboxStatus.SENT, orphan.getStatus());
+    }
+
+    private static void assertBackoff(long seconds, EmailOutbox r) {
+        long due = Duration.between(LocalDateTime.now(), r.getNextAttemptAt()).toSeconds();
+        assertTrue(due > seconds - 5 && due <= seconds, "next attempt in ~" + seconds + "s, was " + due + "s");
+    }
+}
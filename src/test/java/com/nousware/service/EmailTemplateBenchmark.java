@@ -0,0 +1,84 @@
+package com.nousware.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled EmailTemplate vs the previous loadTemplate(...).replace(...) chain.
+ * Not a JUnit test (surefire ignores it); run main() or org.openjdk.jmh.Main on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    private EmailTemplate compiled;
+    private Map<String, String> values;
+
+    private final String name = "Jane <Doe>";
+    private final String email = "jane@example.com";
+    private final String phone = "+1 555 0100";
+    private final String createdAt = String.valueOf(LocalDateTime.of(2025, 1, 1, 12, 0));
+    private final String message = "Hello & welcome — we'd like a \"quote\" for 3 <services>.";
+
+    @Setup
+    public void setup() throws IOException {
+        compiled = EmailTemplate.compile("contact", load("contact"));
+        values = Map.of("name", name, "email", email, "phone", phone,
+                "createdAt", createdAt, "message", message);
+        if (!legacyReplaceChain().equals(compiledRender())) {
+            throw new IllegalStateException("compiled render differs from legacy output");
+        }
+    }
+
+    /** What EmailServiceImpl did per send before templates were compiled. */
+    @Benchmark
+    public String legacyReplaceChain() throws IOException {
+        return load("contact")
+                .replace("{{name}}", htmlEscape(name))
+                .replace("{{email}}", htmlEscape(email))
+                .replace("{{phone}}", htmlEscape(phone))
+                .replace("{{createdAt}}", htmlEscape(createdAt))
+                .replace("{{message}}", htmlEscape(message));
+    }
+
+    @Benchmark
+    public String compiledRender() {
+        return compiled.render(values);
+    }
+
+    private static String load(String name) throws IOException {
+        var res = new ClassPathResource("templates/" + name + ".html");
+        try (var in = res.getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String htmlEscape(String s) {
+        if (s == null) return "";
+        return s.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#39;");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmailTemplateBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,49 @@
+package com.nousware.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** Avatar renditions are left behind as a complete set or not at all. */
+class FileStorageServiceImplTest {
+
+    private final BlobStore blobStore = mock(BlobStore.class);
+    private final FileStorageServiceImpl storage = new FileStorageServiceImpl(
+            new AvatarProcessor(List.of(48, 128, 512), 1000, 500_000, 0.85f, 5000, 1, 2),
+            new UploadPolicy(100_000, 100_000), blobStore);
+
+    @Test
+    void failedPutDeletesTheRenditionsAlreadyWritten() throws IOException {
+        List<String> put = new ArrayList<>();
+        when(blobStore.put(anyString(), any(), any())).thenAnswer(i -> {
+            put.add(i.getArgument(0));
+            if (put.size() == 2) throw new IOException("disk full");
+            return 1L;
+        });
+        byte[] png = png(300, 300);
+
+        assertThrows(UncheckedIOException.class,
+                () -> storage.storeUserAvatar(7, new ByteArrayInputStream(png), "image/png", png.length));
+
+        assertEquals(2, put.size(), "stops at the first failure");
+        assertTrue(put.get(0).matches("avatars/7/[0-9a-z-]+/48\\.jpg"), put.get(0));
+        for (String key : put) verify(blobStore).delete(key);
+    }
+
+    private static byte[] png(int w, int h) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
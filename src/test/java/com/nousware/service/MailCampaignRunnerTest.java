@@ -0,0 +1,176 @@
+package com.nousware.service;
+
+import com.nousware.dto.MailRecipient;
+import com.nousware.entities.MailCampaign;
+import com.nousware.enums.CampaignStatus;
+import com.nousware.repository.MailCampaignRepository;
+import com.nousware.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Claim / checkpoint / cancel / takeover of MailCampaignRunner against a one-row fake of the
+ * mail_campaign table. A runner that keeps going after losing its claim emails real users twice.
+ */
+class MailCampaignRunnerTest {
+
+    private static final int USERS = 5;
+    private static final int BATCH = 2;
+
+    private final MailCampaign row = new MailCampaign();
+    private final MailCampaignRepository campaigns = mock(MailCampaignRepository.class);
+    private final UserRepository users = mock(UserRepository.class);
+    private final BrevoMailTransport transport = mock(BrevoMailTransport.class);
+    private final PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+    /** First recipient of every batch the provider accepted. */
+    private final List<String> accepted = new ArrayList<>();
+
+    @BeforeEach
+    void fakeTable() {
+        row.setCampaignId(1);
+        row.setSubject("News");
+        row.setHtmlBody("<p>Hi {{firstName}}</p>");
+        row.setStatus(CampaignStatus.PENDING);
+        when(tx.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        when(campaigns.lockNextRunnable(any())).thenAnswer(i ->
+                row.getStatus() == CampaignStatus.PENDING || row.getStatus() == CampaignStatus.RUNNING
+                        ? Optional.of(row) : Optional.empty());
+        when(campaigns.checkpoint(anyInt(), any(), anyInt(), anyLong(), any())).thenAnswer(i -> {
+            if (!holds(i.getArgument(1))) return 0;
+            row.setLastUserId(i.getArgument(2));
+            row.setSentCount(row.getSentCount() + i.<Long>getArgument(3));
+            return 1;
+        });
+        when(campaigns.heartbeat(anyInt(), any(), any())).thenAnswer(i -> holds(i.getArgument(1)) ? 1 : 0);
+        when(campaigns.finish(anyInt(), any(), any(), any(), any())).thenAnswer(i -> {
+            if (!holds(i.getArgument(1))) return 0;
+            row.setStatus(i.getArgument(2));
+            return 1;
+        });
+        when(users.findVerifiedRecipientsAfter(anyInt(), any())).thenAnswer(i -> {
+            int after = i.getArgument(0);
+            Pageable limit = i.getArgument(1);
+            List<MailRecipient> batch = new ArrayList<>();
+            for (int id = after + 1; id <= USERS && batch.size() < limit.getPageSize(); id++) {
+                batch.add(new MailRecipient(id, "u" + id + "@example.com", "U" + id, "L"));
+            }
+            return batch;
+        });
+        when(transport.postJson(any())).thenAnswer(i -> accept(i.getArgument(0)));
+    }
+
+    private boolean holds(String lease) {
+        return row.getStatus() == CampaignStatus.RUNNING && lease.equals(row.getLeaseToken());
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Integer> accept(Map<String, Object> payload) {
+        List<Map<String, Object>> versions = (List<Map<String, Object>>) payload.get("messageVersions");
+        List<Map<String, Object>> to = (List<Map<String, Object>>) versions.get(0).get("to");
+        accepted.add((String) to.get(0).get("email"));
+        return CompletableFuture.completedFuture(201);
+    }
+
+    private MailCampaignRunner runner(int maxAttempts, LongConsumer sleeper) {
+        return new MailCampaignRunner(campaigns, users, transport, tx, new SimpleMeterRegistry(),
+                "noreply@cks.software", BATCH, 1_000, maxAttempts, 300, sleeper);
+    }
+
+    @Test
+    void claimedCampaignIsCheckpointedPerBatchAndCompleted() {
+        runner(3, ms -> {}).poll();
+
+        assertEquals(List.of("u1@example.com", "u3@example.com", "u5@example.com"), accepted);
+        assertEquals(CampaignStatus.COMPLETED, row.getStatus());
+        assertEquals(5, row.getLastUserId());
+        assertEquals(5, row.getSentCount());
+        assertNotNull(row.getStartedAt());
+    }
+
+    @Test
+    void cancelStopsTheRunnerAfterTheBatchInFlight() {
+        doAnswer(i -> {
+            if (accepted.size() == 1) row.setStatus(CampaignStatus.CANCELLED); // admin cancels mid-send
+            return accept(i.getArgument(0));
+        }).when(transport).postJson(any());
+
+        runner(3, ms -> {}).poll();
+
+        assertEquals(2, accepted.size(), "no batch after the cancelled checkpoint");
+        assertEquals(CampaignStatus.CANCELLED, row.getStatus(), "not overwritten by finish");
+        assertEquals(2, row.getLastUserId());
+    }
+
+    @Test
+    void runnerThatWasTakenOverStopsInsteadOfSendingInParallel() {
+        MailCampaignRunner other = runner(3, ms -> {});
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("Brevo responded 503")))
+                .doAnswer(i -> accept(i.getArgument(0)))
+                .when(transport).postJson(any());
+        // while the first runner backs off, its heartbeat goes stale and another node claims the campaign
+        MailCampaign[] takenOver = new MailCampaign[1];
+        MailCampaignRunner first = runner(3, ms -> takenOver[0] = other.claim());
+
+        first.run(first.claim());
+        assertNotNull(takenOver[0]);
+        assertTrue(accepted.isEmpty(), "lost lease: the retry is not sent");
+        assertEquals(CampaignStatus.RUNNING, row.getStatus(), "and the campaign is not finished");
+
+        other.run(takenOver[0]);
+        assertEquals(List.of("u1@example.com", "u3@example.com", "u5@example.com"), accepted, "each batch once");
+        assertEquals(CampaignStatus.COMPLETED, row.getStatus());
+        assertEquals(5, row.getSentCount());
+    }
+
+    @Test
+    void checkpointUnderALostLeaseStopsTheRunner() {
+        MailCampaignRunner other = runner(3, ms -> {});
+        MailCampaign[] takenOver = new MailCampaign[1];
+        doAnswer(i -> {
+            if (takenOver[0] == null) takenOver[0] = other.claim(); // re-claimed during the first send
+            return accept(i.getArgument(0));
+        }).when(transport).postJson(any());
+        MailCampaignRunner first = runner(3, ms -> {});
+
+        first.run(first.claim());
+
+        assertEquals(1, accepted.size(), "stops at its first rejected checkpoint");
+        assertEquals(0, row.getLastUserId(), "the stale runner's checkpoint did not land");
+        assertEquals(CampaignStatus.RUNNING, row.getStatus());
+    }
+
+    @Test
+    void exhaustedRetriesFailTheCampaignWithTheLastError() {
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("Brevo responded 503")))
+                .when(transport).postJson(any());
+        List<Long> backoff = new ArrayList<>();
+
+        runner(3, backoff::add).poll();
+
+        assertEquals(CampaignStatus.FAILED, row.getStatus());
+        verify(campaigns).finish(eq(1), any(), eq(CampaignStatus.FAILED), any(), contains("503"));
+        assertEquals(List.of(2_000L, 4_000L), backoff, "no sleep after the last attempt");
+        verify(campaigns, times(2)).heartbeat(eq(1), any(), any());
+    }
+
+    @Test
+    void batchAttemptsBelowOneAreRejectedAtStartup() {
+        assertThrows(IllegalArgumentException.class, () -> runner(0, ms -> {}));
+    }
+}
@@ -0,0 +1,170 @@
+package com.nousware.service;
+
+import com.nousware.dto.StoredMedia;
+import com.nousware.entities.Media;
+import com.nousware.repository.MediaRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** Admission, deduplication and reference bookkeeping of the content-addressed media store. */
+class MediaServiceImplTest {
+
+    private static final byte[] PNG = concat(
+            new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A}, "hello".getBytes());
+    private static final String SHA_OF_PNG = sha256(PNG);
+    private static final String SHARD = SHA_OF_PNG.substring(0, 2) + "/" + SHA_OF_PNG.substring(2, 4) + "/";
+
+    @TempDir
+    Path dir;
+
+    private final MediaRepository repo = mock(MediaRepository.class);
+    private final PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+    private boolean inTransaction;
+
+    private MediaServiceImpl media(long maxBytes) {
+        doAnswer(i -> { inTransaction = true; return new SimpleTransactionStatus(); }).when(tx).getTransaction(any());
+        doAnswer(i -> inTransaction = false).when(tx).commit(any());
+        return new MediaServiceImpl(repo, new UploadPolicy(maxBytes, maxBytes),
+                new LocalBlobStore(dir.toString(), "/uploads"), tx);
+    }
+
+    @Test
+    void bodyIsStreamedOutsideTheTransaction() {
+        MediaServiceImpl media = media(1024);
+        ByteArrayInputStream body = new ByteArrayInputStream(PNG) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                assertFalse(inTransaction, "a slow client must not hold a connection");
+                return super.read(b, off, len);
+            }
+        };
+
+        media.store(body, "image/png", PNG.length);
+
+        verify(tx).getTransaction(any());
+        verify(tx).commit(any());
+        verify(repo).insertOrTouch(eq(SHA_OF_PNG), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void identicalUploadsShareOneHashNamedBlob() throws IOException {
+        MediaServiceImpl media = media(1024);
+
+        StoredMedia first = media.store(new MockMultipartFile("file", "a.png", "image/png", PNG));
+        StoredMedia second = media.store(new ByteArrayInputStream(PNG), null, -1); // raw body, no length
+
+        assertEquals("/uploads/media/" + SHARD + SHA_OF_PNG + ".png", first.url());
+        assertEquals(first.url(), second.url());
+        assertFalse(first.deduplicated());
+        assertTrue(second.deduplicated());
+        assertArrayEquals(PNG, Files.readAllBytes(dir.resolve("media/" + SHARD + SHA_OF_PNG + ".png")));
+        assertEquals(1, filesUnder(dir), "no temp files or duplicates left behind");
+        verify(repo, times(2)).insertOrTouch(eq(SHA_OF_PNG), eq("image/png"), eq("png"), eq((long) PNG.length), any());
+    }
+
+    @Test
+    void reuploadTouchesTheRowAndReusesItsExtension() throws IOException {
+        Media known = new Media();
+        known.setSha256(SHA_OF_PNG);
+        known.setContentType("image/png");
+        known.setExtension("apng"); // stored under an older extension mapping
+        when(repo.insertOrTouch(any(), any(), any(), anyLong(), any())).thenReturn(2); // duplicate key: touched
+        when(repo.findBySha256(SHA_OF_PNG)).thenReturn(Optional.of(known));
+        Path existing = dir.resolve("media/" + SHARD + SHA_OF_PNG + ".apng");
+        Files.createDirectories(existing.getParent());
+        Files.write(existing, PNG);
+
+        StoredMedia again = media(1024).store(new ByteArrayInputStream(PNG), "image/png", PNG.length);
+
+        assertEquals("/uploads/media/" + SHARD + SHA_OF_PNG + ".apng", again.url());
+        assertTrue(again.deduplicated());
+        assertEquals(1, filesUnder(dir), "no second {sha}.png that no row references");
+        // the touch restarts the sweeper's grace period for the URL just handed out
+        verify(repo).insertOrTouch(eq(SHA_OF_PNG), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void typeComesFromTheBytesNotTheClient() {
+        MediaServiceImpl media = media(1024);
+        assertStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE, () -> media.store(
+                new MockMultipartFile("file", "x.html", "text/html", "<script>".getBytes())));
+        assertStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE, () -> media.store(
+                new ByteArrayInputStream("<svg/>".getBytes()), "image/png", 6));
+        assertStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE, () -> media.store(
+                new ByteArrayInputStream(PNG), "image/jpeg", PNG.length));
+
+        StoredMedia stored = media.store(new ByteArrayInputStream(PNG), "application/octet-stream", -1);
+        assertEquals("image/png", stored.contentType());
+    }
+
+    @Test
+    void oversizedUploadsAreRejectedWithoutLeavingFiles() throws IOException {
+        MediaServiceImpl media = media(PNG.length - 1);
+        ByteArrayInputStream declared = new ByteArrayInputStream(PNG);
+        assertStatus(HttpStatus.PAYLOAD_TOO_LARGE, () -> media.store(declared, "image/png", PNG.length));
+        assertEquals(PNG.length, declared.available(), "declared length is refused before reading");
+
+        assertStatus(HttpStatus.PAYLOAD_TOO_LARGE, () -> media.store(new ByteArrayInputStream(PNG), "image/png", -1));
+        assertEquals(0, filesUnder(dir));
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void replaceReferenceMovesOneCountAndIgnoresExternalUrls() {
+        when(repo.adjustRefCount(anyString(), anyInt(), any())).thenReturn(1);
+        MediaServiceImpl media = media(1024);
+        String url = "/uploads/media/" + SHARD + SHA_OF_PNG + ".png";
+
+        media.replaceReference("https://example.com/a.png", url);
+        verify(repo).adjustRefCount(eq(SHA_OF_PNG), eq(1), any());
+
+        media.replaceReference(url, url);
+        media.replaceReference(url, "https://example.com/b.png");
+        verify(repo).adjustRefCount(eq(SHA_OF_PNG), eq(-1), any());
+        verifyNoMoreInteractions(repo);
+    }
+
+    private static void assertStatus(HttpStatus status, org.junit.jupiter.api.function.Executable call) {
+        assertEquals(status, assertThrows(ResponseStatusException.class, call).getStatusCode());
+    }
+
+    private static long filesUnder(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
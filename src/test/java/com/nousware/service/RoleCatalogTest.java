@@ -0,0 +1,47 @@
+package com.nousware.service;
+
+import com.nousware.entities.Role;
+import com.nousware.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/** Role ids must map to the right authorities; a dropped id silently strips a user's role. */
+class RoleCatalogTest {
+
+    private final RoleRepository roles = mock(RoleRepository.class);
+
+    private static Role role(int id, String name) {
+        return new Role(id, name, null, null);
+    }
+
+    @Test
+    void collidingCodesKeepEveryRoleId() {
+        when(roles.findAll()).thenReturn(List.of(role(7, "ADMIN"), role(3, "ROLE_ADMIN"), role(5, "client")));
+        RoleCatalog catalog = new RoleCatalog(roles);
+        catalog.loadAtStartup();
+
+        long viaPrefixed = catalog.mask(List.of(role(3, null)));
+        long viaBare = catalog.mask(List.of(role(7, null)));
+        assertNotEquals(0L, viaBare, "the second ADMIN row is not dropped");
+        assertEquals(viaPrefixed, viaBare);
+        assertEquals(List.of("ADMIN"), catalog.codes(viaBare));
+        assertEquals(3, catalog.idOf("admin").getAsInt(), "the lowest id is the one assigned");
+        assertEquals(List.of(3, 7), catalog.idsOf("ROLE_ADMIN"), "and every alias is still findable");
+        assertEquals(List.of("ADMIN", "CLIENT"), catalog.codes(catalog.mask(List.of(role(7, null), role(5, null)))));
+    }
+
+    @Test
+    void catalogIsLoadedAtStartupNotOnFirstUse() {
+        when(roles.findAll()).thenReturn(List.of(role(1, "ADMIN")));
+        RoleCatalog catalog = new RoleCatalog(roles);
+
+        catalog.loadAtStartup();
+        verify(roles).findAll();
+        catalog.codes(1L);
+        verify(roles, times(1)).findAll();
+    }
+}
@@ -0,0 +1,238 @@
+package com.nousware.service;
+
+import com.nousware.dto.CategoryFacet;
+import com.nousware.dto.ServiceFilter;
+import com.nousware.entities.Service;
+import com.nousware.repository.CategoryRepository;
+import com.nousware.repository.ServiceRepository;
+import com.nousware.repository.ServiceSearchRepositoryImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Service lists against the real Hibernate/Spring Data query generation, over a JDBC stub that
+ * records every statement: the page is limited in SQL over ids only, and a page costs a fixed
+ * number of statements (ids, count, one fetch with categories) whatever its size or filter.
+ * Facet counts are one grouped statement, not one per category.
+ */
+class ServiceListPagingTest {
+
+    /** Ids the stub "database" holds; page queries return them, the fetch returns their rows. */
+    private static final List<Integer> IDS = List.of(4, 2, 7);
+
+    private final List<String> statements = new ArrayList<>();
+    private LocalContainerEntityManagerFactoryBean factoryBean;
+    private EntityManager em;
+    private ServiceItemServiceImpl services;
+
+    @BeforeEach
+    void bootHibernate() {
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(new AbstractDataSource() {
+            @Override
+            public Connection getConnection() {
+                return connection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) {
+                return connection();
+            }
+        });
+        factoryBean.setPackagesToScan("com.nousware.entities");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.dialect", "org.hibernate.dialect.MySQLDialect",
+                "hibernate.boot.allow_jdbc_metadata_access", "false",
+                "hibernate.hbm2ddl.auto", "none"));
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory emf = factoryBean.getObject();
+        em = emf.createEntityManager();
+
+        ServiceRepository repo = new JpaRepositoryFactory(em).getRepository(ServiceRepository.class,
+                RepositoryComposition.RepositoryFragments.just(new ServiceSearchRepositoryImpl(em)));
+        PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+        when(tx.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        CatalogCache cache = new CatalogCache(0, 0, System::currentTimeMillis, tx,
+                CatalogInvalidationBus.NONE, new SimpleMeterRegistry());
+        services = new ServiceItemServiceImpl(repo, mock(CategoryRepository.class), mock(MediaService.class), cache);
+    }
+
+    @AfterEach
+    void close() {
+        em.close();
+        factoryBean.destroy();
+    }
+
+    @Test
+    void pageIsLimitedInSqlAndFetchedWithCategoriesInOneQuery() {
+        Page<Service> page = services.list(new ServiceFilter(null, null, null), PageRequest.of(1, 3));
+
+        assertEquals(3, statements.size(), statements::toString);
+        String ids = statements.get(0);
+        assertTrue(ids.contains(" limit "), ids);
+        assertEquals("select s1_0.service_id", selectList(ids), "phase one reads ids only");
+        assertTrue(statements.get(1).startsWith("select count("), statements.get(1));
+        String fetch = statements.get(2);
+        assertTrue(fetch.contains(" in (") && fetch.contains("join"), fetch);
+        assertFalse(fetch.contains(" limit "), "the collection fetch is never paged");
+
+        assertEquals(IDS, page.getContent().stream().map(Service::getServiceId).toList(), "page order is kept");
+        assertEquals(6, page.getTotalElements());
+        for (Service s : page) {
+            assertTrue(Hibernate.isInitialized(s.getCategories()));
+            assertEquals(1, s.getCategories().size());
+        }
+        assertEquals(3, statements.size(), "no per-row category loads");
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithPageSizeOrFilter() {
+        services.list(new ServiceFilter(null, null, null), PageRequest.of(0, 500));
+        assertEquals(2, statements.size(), "short first page: ids + fetch, count skipped");
+
+        statements.clear();
+        services.list(new ServiceFilter("cloud", null, null), PageRequest.of(2, 3));
+        assertEquals(3, statements.size(), statements::toString);
+        assertTrue(statements.get(0).contains(" limit "));
+        assertEquals("select s1_0.service_id", selectList(statements.get(0)));
+
+        statements.clear();
+        services.list(new ServiceFilter(null, List.of("web"), null), PageRequest.of(2, 3));
+        assertEquals(3, statements.size(), statements::toString);
+        assertTrue(statements.get(0).contains("exists") && statements.get(0).contains(" limit "), statements.get(0));
+    }
+
+    @Test
+    void keywordCategoriesAndPopularityCombineInOneWhere() {
+        services.list(new ServiceFilter(" Cloud ", List.of("web", " SEO", "web"), true), PageRequest.of(2, 3));
+
+        assertEquals(3, statements.size(), statements::toString);
+        String ids = statements.get(0);
+        assertEquals("select s1_0.service_id", selectList(ids));
+        assertTrue(ids.contains("like") && ids.contains("exists") && ids.contains("most_popular")
+                && ids.contains(" limit "), ids);
+        assertTrue(ids.contains("slug in (?,?)"), "both slugs, deduplicated, in one IN: " + ids);
+
+        statements.clear();
+        services.list(new ServiceFilter("cloud", List.of("web"), null), PageRequest.of(2, 3));
+        assertTrue(statements.get(0).contains("like") && statements.get(0).contains("exists"),
+                "q is no longer dropped when a category is given: " + statements.get(0));
+    }
+
+    @Test
+    void facetsAreOneGroupedQueryThatIgnoresTheCategorySelection() {
+        List<CategoryFacet> facets = services.facets(new ServiceFilter("cloud", List.of("web"), true));
+
+        assertEquals(1, statements.size(), statements::toString);
+        String sql = statements.get(0);
+        assertTrue(sql.contains(" group by ") && sql.contains("count(distinct"), sql);
+        assertTrue(sql.contains("like") && sql.contains("most_popular"), sql);
+        assertFalse(sql.contains("exists") || sql.contains("slug in"), "the category selection is not applied: " + sql);
+        assertEquals(List.of(new CategoryFacet(102, "c102", "Category 102", 2L),
+                new CategoryFacet(104, "c104", "Category 104", 4L)), facets);
+    }
+
+    // ===================== JDBC stub =====================
+
+    private static String selectList(String sql) {
+        return sql.substring(0, sql.indexOf(" from "));
+    }
+
+    private Connection connection() {
+        return proxy(Connection.class, (method, args) -> switch (method) {
+            case "prepareStatement" -> statement((String) args[0]);
+            case "getAutoCommit" -> true;
+            default -> null;
+        });
+    }
+
+    private PreparedStatement statement(String rawSql) {
+        String sql = rawSql.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        statements.add(sql);
+        return proxy(PreparedStatement.class, (method, args) -> method.equals("executeQuery") ? results(sql) : null);
+    }
+
+    /**
+     * Page queries get the ids, count queries 6, facet queries two categories, the fetch one joined
+     * row per service (one category each).
+     */
+    private ResultSet results(String sql) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        if (sql.startsWith("select count(")) {
+            rows.add(Map.of("", 6L));
+        } else if (sql.contains(" group by ")) {
+            for (int id : new int[]{102, 104}) {
+                rows.add(Map.of("category_id", id, "slug", "c" + id, "name", "Category " + id, "service_id)", id - 100L));
+            }
+        } else if (sql.contains(" limit ")) {
+            for (Integer id : IDS) rows.add(Map.of("service_id", id));
+        } else {
+            for (Integer id : IDS) rows.add(Map.of("service_id", id, "category_id", 100 + id));
+        }
+        List<String> columns = new ArrayList<>();
+        for (String col : selectList(sql).substring("select ".length()).split(",")) {
+            columns.add(col.trim().substring(col.trim().indexOf('.') + 1));
+        }
+        int[] cursor = {-1};
+        Object[] last = {null};
+        return proxy(ResultSet.class, (method, args) -> {
+            if (method.equals("next")) return ++cursor[0] < rows.size();
+            if (method.equals("wasNull")) return last[0] == null;
+            if (!method.startsWith("get") || args == null || !(args[0] instanceof Integer index)) return null;
+            Map<String, Object> row = rows.get(cursor[0]);
+            Object value = row.size() == 1 && row.containsKey("") ? row.get("") : row.get(columns.get(index - 1));
+            last[0] = value;
+            return switch (method) {
+                case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+                case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+                case "getBoolean" -> last[0] = false; // other columns are NULL, except this NOT NULL one
+                case "getString" -> value == null ? null : value.toString();
+                default -> value;
+            };
+        });
+    }
+
+    private interface Answer {
+        Object answer(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+            Object result = answer.answer(m.getName(), args);
+            if (result != null || !m.getReturnType().isPrimitive()) return result;
+            if (m.getReturnType() == boolean.class) return false;
+            if (m.getReturnType() == long.class) return 0L;
+            if (m.getReturnType() == void.class) return null;
+            return 0;
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.nousware.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeBucketedDedupeStoreTest {
+
+    private static final long WINDOW = TimeUnit.MINUTES.toMillis(15);
+    private static final long BUCKET = TimeUnit.MINUTES.toMillis(1);
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+    private TimeBucketedDedupeStore store(int capacity) {
+        return new TimeBucketedDedupeStore(WINDOW, BUCKET, capacity, now::get);
+    }
+
+    @Test
+    void sameSubmissionIsDedupedWithinWindowAndReleasedAfter() {
+        TimeBucketedDedupeStore store = store(1024);
+        assertTrue(store.claim("Jane@Example.com ", "Hello"));
+
+        assertFalse(store.claim("jane@example.com", " Hello "), "email case and surrounding space are normalized");
+        assertTrue(store.claim("jane@example.com", "Hello again"));
+
+        now.addAndGet(WINDOW - BUCKET);
+        assertFalse(store.claim("jane@example.com", "Hello"));
+
+        now.addAndGet(2 * BUCKET + 1);
+        assertTrue(store.claim("jane@example.com", "Hello"));
+    }
+
+    @Test
+    void releasedClaimCanBeTakenAgain() {
+        TimeBucketedDedupeStore store = store(16);
+        for (int i = 0; i < 10; i++) assertTrue(store.claim("user" + i + "@example.com", "Hi"));
+
+        store.release("user3@example.com", "Hi"); // the send failed; the outbox will retry
+        assertTrue(store.claim("user3@example.com", "Hi"));
+        for (int i = 0; i < 10; i++) {
+            assertFalse(store.claim("user" + i + "@example.com", "Hi"), "backward shift keeps user" + i + " findable");
+        }
+    }
+
+    @Test
+    void aMillionSubmissionsLeaveTheSameTablesAndNoPerEntryObjects() {
+        TimeBucketedDedupeStore store = store(64);
+        long[][] tables = store.tables;
+        long[][] rows = tables.clone();
+        int slots = tables[0].length;
+
+        String body = "x".repeat(256);
+        for (int i = 0; i < 1_000_000; i++) {
+            String email = "user" + i + "@example.com";
+            assertTrue(store.claim(email, body));
+            assertFalse(store.claim(email, body), "submission " + i + " is deduped even when its bucket is full");
+            if (i % 1_000 == 999) now.addAndGet(BUCKET / 10); // ~17 minutes of traffic: the wheel turns over
+        }
+
+        assertTrue(store.overflowCount() > 900_000, "almost every submission found its bucket full");
+        assertSame(tables, store.tables, "no table is ever reallocated");
+        for (int b = 0; b < rows.length; b++) {
+            assertSame(rows[b], store.tables[b]);
+            assertEquals(slots, store.tables[b].length);
+            assertTrue(store.sizes[b] <= slots * 3 / 4, "bucket " + b + " stays at or under 75% load");
+        }
+        // entries are only longs inside those tables: no field can hold a per-submission object
+        for (Field f : TimeBucketedDedupeStore.class.getDeclaredFields()) {
+            if (Modifier.isStatic(f.getModifiers()) || f.getType() == LongSupplier.class) continue;
+            Class<?> t = f.getType();
+            while (t.isArray()) t = t.getComponentType();
+            assertTrue(t.isPrimitive(), f.getName() + " holds objects");
+        }
+    }
+}
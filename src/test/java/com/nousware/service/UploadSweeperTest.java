@@ -0,0 +1,178 @@
+package com.nousware.service;
+
+import com.nousware.repository.MediaRepository;
+import com.nousware.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** The sweeper deletes files, so what it keeps matters more than what it removes. */
+class UploadSweeperTest {
+
+    private static final String LIVE_SHA = "a".repeat(64);
+    private static final String DEAD_SHA = "b".repeat(64);
+    private static final String RACED_SHA = "c".repeat(64);
+
+    @TempDir
+    Path dir;
+
+    private final UserRepository users = mock(UserRepository.class);
+    private final MediaRepository media = mock(MediaRepository.class);
+    private final PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+
+    @Test
+    void deletesOnlyUnreferencedFilesOlderThanTheGracePeriod() throws IOException {
+        Path current = old(dir.resolve("uploads/avatars/7/v2/128.jpg"));
+        Path currentSibling = old(dir.resolve("uploads/avatars/7/v2/48.jpg"));
+        Path previous = old(dir.resolve("uploads/avatars/7/v1/128.jpg"));
+        Path legacy = old(dir.resolve("uploads/avatars/7/avatar-1.png"));
+        Path fresh = write(dir.resolve("uploads/avatars/7/v3/128.jpg"));
+        Path tempDir = old(dir.resolve("uploads/avatars/7/.tmp-123/48.jpg"));
+        Path live = old(dir.resolve("uploads/media/aa/aa/" + LIVE_SHA + ".png"));
+        Path dead = old(dir.resolve("uploads/media/bb/bb/" + DEAD_SHA + ".png"));
+        Path deadGz = old(dir.resolve("uploads/media/bb/bb/" + DEAD_SHA + ".png.gz"));
+        Path raced = old(dir.resolve("uploads/media/cc/cc/" + RACED_SHA + ".png"));
+        when(users.findAvatarRefs(any())).thenReturn(List.of(ref(7, "/uploads/avatars/7/v2/128.jpg")));
+        when(media.findRetained(any(), any())).thenReturn(List.of(LIVE_SHA));
+        when(media.findExisting(any())).thenReturn(List.of(LIVE_SHA, DEAD_SHA, RACED_SHA));
+        when(media.deleteIfUnreferenced(eq(DEAD_SHA), any())).thenReturn(1);
+        when(media.deleteIfUnreferenced(eq(RACED_SHA), any())).thenReturn(0); // referenced again meanwhile
+
+        UploadSweeper sweeper = sweeper(100, 1000);
+        sweeper.sweep();
+
+        assertTrue(Files.exists(current));
+        assertTrue(Files.exists(currentSibling));
+        assertTrue(Files.exists(fresh));
+        assertTrue(Files.exists(live));
+        assertTrue(Files.exists(raced));
+        assertFalse(Files.exists(previous));
+        assertFalse(Files.exists(previous.getParent()), "empty version folder is pruned");
+        assertFalse(Files.exists(legacy));
+        assertFalse(Files.exists(tempDir));
+        assertFalse(Files.exists(dead));
+        assertFalse(Files.exists(deadGz));
+        verify(media, times(1)).deleteIfUnreferenced(eq(DEAD_SHA), any());
+
+        UploadSweeper.Status status = sweeper.status();
+        assertEquals(5, status.lastDeleted());
+        assertEquals(50, status.lastReclaimedBytes());
+        assertEquals(1, status.passesCompleted());
+        assertEquals("", status.cursor());
+    }
+
+    @Test
+    void cursorResumesWhereTheLastRunStopped() throws IOException {
+        for (int i = 0; i < 5; i++) old(dir.resolve("uploads/avatars/" + i + "/avatar-" + i + ".png"));
+        when(users.findAvatarRefs(any())).thenReturn(List.of());
+
+        UploadSweeper first = sweeper(2, 2);
+        first.sweep();
+        assertEquals("avatars/1/avatar-1.png", first.status().cursor());
+        assertTrue(Files.exists(dir.resolve("uploads/avatars/2/avatar-2.png")));
+
+        UploadSweeper restarted = sweeper(2, 2); // cursor comes back from the cursor file
+        restarted.sweep();
+        assertEquals("avatars/3/avatar-3.png", restarted.status().cursor());
+        assertFalse(Files.exists(dir.resolve("uploads/avatars/3/avatar-3.png")));
+        assertTrue(Files.exists(dir.resolve("uploads/avatars/4/avatar-4.png")));
+
+        restarted.sweep();
+        assertEquals("", restarted.status().cursor());
+        assertEquals(1, restarted.status().passesCompleted());
+        assertFalse(Files.exists(dir.resolve("uploads/avatars/4")));
+    }
+
+    @Test
+    void reuploadWaitingOnTheRowLockKeepsItsBlob() throws IOException {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 'x'};
+        String sha = sha256(png);
+        Path blob = dir.resolve("uploads/" + MediaServiceImpl.blobKey(sha, "png"));
+        Files.createDirectories(blob.getParent());
+        Files.write(blob, png);
+        Files.setLastModifiedTime(blob, FileTime.from(Instant.now().minus(2, ChronoUnit.DAYS)));
+        when(media.findExisting(any())).thenReturn(List.of(sha));
+        when(media.deleteIfUnreferenced(eq(sha), any())).thenReturn(1);
+        when(media.insertOrTouch(any(), any(), any(), anyLong(), any())).thenReturn(1); // row is gone: a new one
+        PlatformTransactionManager uploadTx = mock(PlatformTransactionManager.class);
+        when(uploadTx.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        MediaServiceImpl uploads = new MediaServiceImpl(media, new UploadPolicy(1024, 1024),
+                new LocalBlobStore(dir.resolve("uploads").toString(), "/uploads"), uploadTx);
+        boolean[] blobGoneAtCommit = new boolean[1];
+        UploadSweeper sweeper = sweeper(100, 1000);
+        // the same bytes are uploaded again; their insertOrTouch blocks on the row lock until the sweep commits
+        doAnswer(i -> {
+            blobGoneAtCommit[0] = !Files.exists(blob);
+            uploads.store(new ByteArrayInputStream(png), "image/png", png.length);
+            return null;
+        }).when(tx).commit(any());
+
+        sweeper.sweep();
+
+        assertTrue(blobGoneAtCommit[0], "the blob is deleted while the row lock is held");
+        assertArrayEquals(png, Files.readAllBytes(blob), "the re-upload put its copy back and nothing removed it");
+    }
+
+    @Test
+    void orphanBlobIsKeptWhenItsRowAppearsBeforeTheSweepLocksIt() throws IOException {
+        Path orphan = old(dir.resolve("uploads/media/bb/bb/" + DEAD_SHA + ".png"));
+        when(media.findExisting(any())).thenReturn(List.of()) // no row when the batch is checked
+                .thenReturn(List.of(DEAD_SHA));                // inserted by an upload just before the lock
+        when(media.deleteIfUnreferenced(eq(DEAD_SHA), any())).thenReturn(0);
+
+        sweeper(100, 1000).sweep();
+
+        assertTrue(Files.exists(orphan));
+    }
+
+    private UploadSweeper sweeper(int batchSize, int maxFilesPerRun) {
+        when(tx.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        BlobStore store = new LocalBlobStore(dir.resolve("uploads").toString(), "/uploads");
+        return new UploadSweeper(store, users, media, tx, new SimpleMeterRegistry(),
+                dir.resolve("data/cursor").toString(), 24, batchSize, maxFilesPerRun);
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Path write(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, "0123456789");
+    }
+
+    private static Path old(Path file) throws IOException {
+        write(file);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(2, ChronoUnit.DAYS)));
+        return file;
+    }
+
+    private static UserRepository.AvatarRef ref(int id, String url) {
+        return new UserRepository.AvatarRef() {
+            public Integer getUserId() { return id; }
+            public String getAvatarUrl() { return url; }
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package com.nousware.service;
+
+import com.nousware.entities.User;
+import com.nousware.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Eviction rules of UserDetailsCache, and CustomUserDetailsService on top of it.
+ * A stale entry here means an old password or a revoked role keeps working, so each rule is pinned.
+ */
+class UserDetailsCacheTest {
+
+    private static final long TTL = 300_000;
+    private static final List<GrantedAuthority> CLIENT = List.of(new SimpleGrantedAuthority("ROLE_CLIENT"));
+    private static final List<GrantedAuthority> ADMIN = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+    private UserDetailsCache cache(int maxEntries) {
+        return new UserDetailsCache(maxEntries, TTL, now::get);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void entriesAreKeyedByNormalizedEmailAndExpireAfterTtl() {
+        UserDetailsCache cache = cache(10);
+        assertTrue(cache.put(cache.epoch(), 1, " Jane@Example.com", "h1", true, CLIENT));
+        assertEquals("h1", cache.get("jane@example.com ").passwordHash());
+
+        now.addAndGet(TTL - 1);
+        assertNotNull(cache.get("jane@example.com"));
+        now.addAndGet(1);
+        assertNull(cache.get("jane@example.com"));
+    }
+
+    @Test
+    void sizeIsBoundedLeastRecentlyUsedFirst() {
+        UserDetailsCache cache = cache(2);
+        cache.put(cache.epoch(), 1, "a@x.io", "h", true, CLIENT);
+        cache.put(cache.epoch(), 2, "b@x.io", "h", true, CLIENT);
+        cache.get("a@x.io");
+        cache.put(cache.epoch(), 3, "c@x.io", "h", true, CLIENT);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a@x.io"));
+        assertNull(cache.get("b@x.io"));
+        assertNotNull(cache.get("c@x.io"));
+    }
+
+    @Test
+    void loadThatStartedBeforeAnEvictionIsNotCached() {
+        UserDetailsCache cache = cache(10);
+        long epochAtLoad = cache.epoch();   // slow load reads the old password hash...
+        cache.evict("jane@example.com");    // ...while a reset commits and evicts
+
+        assertFalse(cache.put(epochAtLoad, 1, "jane@example.com", "old-hash", true, CLIENT));
+        assertNull(cache.get("jane@example.com"));
+    }
+
+    @Test
+    void evictionInsideTransactionIsRepeatedWhenItCompletes() {
+        UserDetailsCache cache = cache(10);
+        cache.put(cache.epoch(), 1, "jane@example.com", "old-hash", true, ADMIN);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.evict("Jane@example.com");
+        assertNull(cache.get("jane@example.com"));
+
+        // a login between eviction and commit still reads the committed (old) row and caches it
+        cache.put(cache.epoch(), 1, "jane@example.com", "old-hash", true, ADMIN);
+        assertNotNull(cache.get("jane@example.com"));
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        assertNull(cache.get("jane@example.com"));
+    }
+
+    @Test
+    void serviceServesHitsFromCacheAndReloadsAfterEviction() {
+        UserRepository repo = mock(UserRepository.class);
+        User user = user(7, "jane@example.com", "hash-1", true);
+        when(repo.findByEmailIgnoreCase("jane@example.com")).thenReturn(Optional.of(user));
+        UserDetailsCache cache = cache(10);
+        CustomUserDetailsService service = service(repo, cache);
+
+        UserDetails first = service.loadUserByUsername("Jane@Example.com");
+        ((CredentialsContainer) first).eraseCredentials(); // what ProviderManager does after login
+        UserDetails second = service.loadUserByUsername("jane@example.com");
+
+        assertNotSame(first, second);
+        assertEquals("hash-1", second.getPassword(), "erasing one principal must not affect the cache");
+        verify(repo, times(1)).findByEmailIgnoreCase(any());
+
+        user.setPassword("hash-2");
+        cache.evict("jane@example.com");
+        assertEquals("hash-2", service.loadUserByUsername("jane@example.com").getPassword());
+        verify(repo, times(2)).findByEmailIgnoreCase(any());
+    }
+
+    @Test
+    void disabledUserIsRejectedUntilVerificationEvicts() {
+        UserRepository repo = mock(UserRepository.class);
+        User user = user(8, "new@example.com", "hash", false);
+        when(repo.findByEmailIgnoreCase("new@example.com")).thenReturn(Optional.of(user));
+        UserDetailsCache cache = cache(10);
+        CustomUserDetailsService service = service(repo, cache);
+
+        assertThrows(DisabledException.class, () -> service.loadUserByUsername("new@example.com"));
+        assertThrows(DisabledException.class, () -> service.loadUserByUsername("new@example.com"));
+        verify(repo, times(1)).findByEmailIgnoreCase(any());
+
+        user.setEnable(true);
+        cache.evict("new@example.com");
+        assertTrue(service.loadUserByUsername("new@example.com").isEnabled());
+    }
+
+    private static CustomUserDetailsService service(UserRepository repo, UserDetailsCache cache) {
+        RoleCatalog roles = mock(RoleCatalog.class);
+        when(roles.mask(any())).thenReturn(0L);
+        when(roles.authorities(anyLong())).thenReturn(CLIENT);
+        PlatformTransactionManager tx = mock(PlatformTransactionManager.class);
+        when(tx.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return new CustomUserDetailsService(repo, roles, cache, tx);
+    }
+
+    private static User user(int id, String email, String hash, boolean enabled) {
+        User u = new User();
+        u.setUserId(id);
+        u.setEmail(email);
+        u.setPassword(hash);
+        u.setEnable(enabled);
+        return u;
+    }
+}
@@ -0,0 +1,51 @@
+package com.nousware.service;
+
+import com.nousware.repository.UserDirectoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** Request validation in front of UserDirectoryRepository: sort whitelist, paging bounds, search input. */
+class UserDirectoryServiceImplTest {
+
+    private final UserDirectoryRepository repo = mock(UserDirectoryRepository.class);
+    private final UserDirectoryServiceImpl directory = new UserDirectoryServiceImpl(repo, mock(RoleCatalog.class));
+
+    @Test
+    void unknownSortKeyIsA400BeforeAnyQuery() {
+        for (String sort : List.of("password,asc", "u.email; DROP TABLE users", "last_name,desc")) {
+            ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> directory.list(0, 20, sort));
+            assertEquals(400, e.getStatusCode().value(), sort);
+        }
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void whitelistedSortIsPassedThroughWithClampedPaging() {
+        when(repo.page(any(), anyBoolean(), anyInt(), anyInt())).thenReturn(List.of());
+
+        var page = directory.list(-3, 10_000, " lastName , ASC");
+        verify(repo).page("lastName", true, 0, 200);
+        assertEquals(Sort.by(Sort.Direction.ASC, "lastName"), page.getPageable().getSort());
+
+        directory.list(2, 20, null);
+        verify(repo).page("createdAt", false, 40, 20); // default: newest first
+    }
+
+    @Test
+    void searchNeedsTwoCharactersAndCapsInput() {
+        assertEquals(400, assertThrows(ResponseStatusException.class, () -> directory.search(" j ", null, 20))
+                .getStatusCode().value());
+        verifyNoInteractions(repo);
+
+        when(repo.searchIds(any(), anyInt(), anyInt())).thenReturn(List.of());
+        directory.search("  " + "a".repeat(150) + "  ", null, 0);
+        verify(repo).searchIds("a".repeat(100), 0, 1);
+    }
+}
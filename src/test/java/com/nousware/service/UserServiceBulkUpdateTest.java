@@ -0,0 +1,122 @@
+package com.nousware.service;
+
+import com.nousware.dto.BulkUserRequest;
+import com.nousware.dto.BulkUserResult;
+import com.nousware.enums.BulkUserOperation;
+import com.nousware.repository.UserRepository;
+import com.nousware.repository.VerificationTokenRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** Per-id outcome reporting of bulk admin actions; the admin UI shows these to explain partial results. */
+class UserServiceBulkUpdateTest {
+
+    private static final int ADMIN_ROLE_ID = 1;
+    private static final int ME = 10;
+
+    private final UserRepository users = mock(UserRepository.class);
+    private final RoleCatalog roles = mock(RoleCatalog.class);
+    private final UserDetailsCache cache = mock(UserDetailsCache.class);
+    private final UserServiceImpl service = new UserServiceImpl(users, mock(VerificationTokenRepository.class),
+            mock(PasswordEncoder.class), mock(EmailOutboxService.class), roles,
+            mock(LoginActivityRecorder.class), cache);
+
+    private static UserRepository.BulkTarget target(int id, boolean enabled) {
+        return new UserRepository.BulkTarget() {
+            public Integer getUserId() { return id; }
+            public String getEmail() { return "u" + id + "@example.com"; }
+            public Boolean getEnabled() { return enabled; }
+        };
+    }
+
+    private static BulkUserRequest request(BulkUserOperation op, String role, Integer... ids) {
+        BulkUserRequest req = new BulkUserRequest();
+        req.operation = op;
+        req.role = role;
+        req.userIds = Arrays.asList(ids);
+        return req;
+    }
+
+    @Test
+    void revokeAdminReportsEveryIdAndSkipsTheActingAdmin() {
+        when(roles.idsOf("ADMIN")).thenReturn(List.of(ADMIN_ROLE_ID));
+        when(users.findBulkTargets(any())).thenReturn(List.of(target(ME, true), target(11, true), target(12, true)));
+        when(users.findUserIdsWithRole(any(), eq(List.of(ADMIN_ROLE_ID)))).thenReturn(List.of(11));
+        when(users.revokeRole(any(), eq(List.of(ADMIN_ROLE_ID)))).thenReturn(1);
+
+        BulkUserResult result = service.bulkUpdate(
+                request(BulkUserOperation.REVOKE_ROLE, "role_admin", 11, ME, 99, 12, 11, null), ME);
+
+        assertEquals("ADMIN", result.role());
+        assertEquals(1, result.updated());
+        assertEquals(Map.of(11, "UPDATED", ME, "SKIPPED_SELF", 99, "NOT_FOUND", 12, "UNCHANGED"), result.results());
+        assertEquals(List.of(11, ME, 99, 12), List.copyOf(result.results().keySet()), "request order, deduplicated");
+        verify(users).revokeRole(List.of(11, 12), List.of(ADMIN_ROLE_ID));
+        verify(cache).evict("u11@example.com"); // only the user whose authorities changed
+    }
+
+    @Test
+    void revokeCoversEveryIdOfACollidingRole() {
+        // 3=ROLE_ADMIN and 7=ADMIN both normalize to ADMIN; user 12 is linked only through id 7
+        List<Integer> adminIds = List.of(3, 7);
+        when(roles.idsOf("ADMIN")).thenReturn(adminIds);
+        when(users.findBulkTargets(any())).thenReturn(List.of(target(11, true), target(12, true), target(13, true)));
+        when(users.findUserIdsWithRole(any(), eq(adminIds))).thenReturn(List.of(11, 12));
+        when(users.revokeRole(any(), eq(adminIds))).thenReturn(3); // user 11 held both ids
+
+        BulkUserResult result = service.bulkUpdate(request(BulkUserOperation.REVOKE_ROLE, "ADMIN", 11, 12, 13), ME);
+
+        assertEquals(Map.of(11, "UPDATED", 12, "UPDATED", 13, "UNCHANGED"), result.results());
+        assertEquals(2, result.updated(), "users, not link rows");
+        verify(users).revokeRole(List.of(11, 12, 13), adminIds);
+        verify(cache).evict("u11@example.com", "u12@example.com");
+    }
+
+    @Test
+    void grantSkipsUsersHoldingAnyAliasAndInsertsTheAssignedId() {
+        List<Integer> adminIds = List.of(3, 7);
+        when(roles.idsOf("ADMIN")).thenReturn(adminIds);
+        when(users.findBulkTargets(any())).thenReturn(List.of(target(12, true), target(13, true)));
+        when(users.findUserIdsWithRole(any(), eq(adminIds))).thenReturn(List.of(12)); // via id 7
+        when(users.grantRole(any(), eq(3), eq(adminIds))).thenReturn(1);
+
+        BulkUserResult result = service.bulkUpdate(request(BulkUserOperation.GRANT_ROLE, "admin", 12, 13), ME);
+
+        assertEquals(Map.of(12, "UNCHANGED", 13, "UPDATED"), result.results());
+        verify(users).grantRole(List.of(12, 13), 3, adminIds);
+    }
+
+    @Test
+    void disableLeavesAlreadyDisabledUsersUnchanged() {
+        when(users.findBulkTargets(any())).thenReturn(List.of(target(11, false), target(12, true)));
+        when(users.setEnabled(any(), eq(false), any())).thenReturn(1);
+
+        BulkUserResult result = service.bulkUpdate(request(BulkUserOperation.DISABLE, null, 11, 12), ME);
+
+        assertEquals(Map.of(11, "UNCHANGED", 12, "UPDATED"), result.results());
+        assertEquals(1, result.updated());
+    }
+
+    @Test
+    void nullIdsAreRejectedBeforeAnyQuery() {
+        BulkUserRequest onlyNull = request(BulkUserOperation.ENABLE, null, (Integer) null);
+
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        assertFalse(validator.validate(onlyNull).isEmpty(), "@NotNull on the elements rejects [null]");
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service.bulkUpdate(onlyNull, ME));
+        assertEquals(400, ex.getStatusCode().value());
+        verifyNoInteractions(users);
+    }
+}